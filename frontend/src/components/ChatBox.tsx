@@ -1,5 +1,5 @@
 import { useState } from "react";
-import axios from "axios";
+import { streamChat } from "../services/chat";
 import { FiMessageCircle, FiX } from "react-icons/fi";
 
 const ChatBox = () => {
@@ -16,31 +16,24 @@ const ChatBox = () => {
     const userMsg = { role: "user" as const, content: input };
     setMessages((prev) => [...prev, userMsg]);
 
-    try {
-      const token = localStorage.getItem("token"); // lấy token để gửi cho backend
+    const token = localStorage.getItem("token"); // lấy token để gửi cho backend
+    setInput("");
 
-      const res = await axios.post(
-        "/api/chat",
-        { message: input },
-        {
-          headers: {
-            Authorization: `Bearer ${token}`,
-          },
-        }
-      );
+    // Bong bóng trả lời rỗng, được điền dần theo từng đoạn stream
+    setMessages((prev) => [...prev, { role: "assistant", content: "" }]);
+    const appendToReply = (text: string) =>
+      setMessages((prev) => {
+        const next = [...prev];
+        const last = next[next.length - 1];
+        next[next.length - 1] = { ...last, content: last.content + text };
+        return next;
+      });
 
-      setMessages((prev) => [
-        ...prev,
-        { role: "assistant", content: res.data.reply },
-      ]);
+    try {
+      await streamChat(input, token ?? "", appendToReply);
     } catch (err) {
-      setMessages((prev) => [
-        ...prev,
-        { role: "assistant", content: "Lỗi rồi, thử lại giúp mình nhé! 😢" },
-      ]);
+      appendToReply("Lỗi rồi, thử lại giúp mình nhé! 😢");
     }
-
-    setInput("");
   };
 
   return (
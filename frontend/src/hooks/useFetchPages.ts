@@ -0,0 +1,27 @@
+import { useInfiniteQuery } from "@tanstack/react-query";
+import type { CursorPage } from "../services/api";
+
+// Trang đầu tải ngay; các trang sau chỉ tải khi gọi loadMore ("Load more")
+export const useFetchPages = <T>(
+  key: readonly unknown[],
+  pageFn: (cursor?: string) => Promise<CursorPage<T>>,
+  options?: { enabled?: boolean }
+) => {
+  const query = useInfiniteQuery({
+    queryKey: key,
+    queryFn: ({ pageParam }) => pageFn(pageParam),
+    initialPageParam: undefined as string | undefined,
+    getNextPageParam: (lastPage) => (lastPage.hasMore ? lastPage.nextCursor ?? undefined : undefined),
+    staleTime: 1000 * 60,
+    ...options
+  });
+
+  return {
+    data: query.data?.pages.flatMap((page) => page.items),
+    isLoading: query.isLoading,
+    hasMore: query.hasNextPage,
+    isLoadingMore: query.isFetchingNextPage,
+    loadMore: () => query.fetchNextPage(),
+    refetch: query.refetch
+  };
+};
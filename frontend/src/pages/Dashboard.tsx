@@ -9,6 +9,7 @@ import { Skeleton } from "../components/ui/skeleton";
 import { Table, TableBody, TableCell, TableHead, TableHeader, TableRow } from "../components/ui/table";
 import { useAuth } from "../hooks/useAuth";
 import { useFetch } from "../hooks/useFetch";
+import { useFetchPages } from "../hooks/useFetchPages";
 import { creditService } from "../services/credit";
 import { listingService } from "../services/listing";
 import { transactionService } from "../services/transaction";
@@ -38,9 +39,10 @@ const DashboardPage = () => {
     }
   );
 
+  // Chỉ trang đầu: dashboard hiển thị giao dịch gần nhất
   const transactionsQuery = useFetch(
-    ["transactions", user?.id],
-    () => transactionService.getTransactions(user!.id),
+    ["transactions", user?.id, "recent"],
+    async () => (await transactionService.getTransactions(user!.id)).items,
     {
       enabled: Boolean(user?.id)
     }
@@ -55,9 +57,9 @@ const DashboardPage = () => {
   );
 
   const listingsQuery = useFetch(["listings"], () => listingService.getListings());
-  const myListingsQuery = useFetch(
+  const myListingsQuery = useFetchPages(
     ["my-listings", user?.id],
-    () => listingService.getListingsBySeller(Number(user?.id)),
+    (cursor) => listingService.getListingsBySeller(Number(user?.id), cursor),
     { enabled: Boolean(user?.id) }
   );
 
@@ -414,6 +416,13 @@ const DashboardPage = () => {
           ) : (
             <EmptyState message="You don't have any listing requests yet." />
           )}
+          {myListingsQuery.hasMore && (
+            <div className="mt-4 text-center">
+              <Button variant="outline" onClick={() => myListingsQuery.loadMore()} disabled={myListingsQuery.isLoadingMore}>
+                {myListingsQuery.isLoadingMore ? "Loading..." : "Load more"}
+              </Button>
+            </div>
+          )}
         </CardContent>
       </Card>
 
@@ -1,19 +1,20 @@
 import { useMemo, useState } from "react";
 import { Badge } from "../components/ui/badge";
+import { Button } from "../components/ui/button";
 import { Card, CardContent, CardDescription, CardHeader, CardTitle } from "../components/ui/card";
 import { Input } from "../components/ui/input";
 import { Select, SelectContent, SelectItem, SelectTrigger, SelectValue } from "../components/ui/select";
 import { Skeleton } from "../components/ui/skeleton";
 import { Table, TableBody, TableCell, TableHead, TableHeader, TableRow } from "../components/ui/table";
 import { useAuth } from "../hooks/useAuth";
-import { useFetch } from "../hooks/useFetch";
+import { useFetchPages } from "../hooks/useFetchPages";
 import { transactionService } from "../services/transaction";
 
 const TransactionsPage = () => {
   const { user } = useAuth();
-  const transactionsQuery = useFetch(
+  const transactionsQuery = useFetchPages(
     ["transactions", user?.id],
-    () => transactionService.getTransactions(user!.id),
+    (cursor) => transactionService.getTransactions(user!.id, cursor),
     { enabled: Boolean(user?.id) }
   );
   const [search, setSearch] = useState("");
@@ -131,6 +132,13 @@ const TransactionsPage = () => {
               No transactions found. Execute a trade to see it listed here.
             </div>
           )}
+          {transactionsQuery.hasMore && (
+            <div className="mt-4 text-center">
+              <Button variant="outline" onClick={() => transactionsQuery.loadMore()} disabled={transactionsQuery.isLoadingMore}>
+                {transactionsQuery.isLoadingMore ? "Loading..." : "Load more"}
+              </Button>
+            </div>
+          )}
         </CardContent>
       </Card>
     </div>
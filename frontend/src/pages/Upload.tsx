@@ -1,5 +1,4 @@
 import React, { useState } from "react";
-import { api } from "../services/api";
 import { uploadService } from "../services/uploadService";
 import { useAuth } from "../hooks/useAuth";
 
@@ -24,20 +23,26 @@ const UploadPage: React.FC = () => {
     if (!file) return setError("Please choose a file");
     if (!user) return setError("User not found");
 
-    const fd = new FormData();
-    fd.append("file", file);
-    fd.append("userId", String(user.id));
-
     try {
       setLoading(true);
-      const resp = await api.post("/uploads/estimate", fd, {
-        headers: { "Content-Type": "multipart/form-data" },
-      });
-      setResult(resp.data);
+      setResult(null);
+      // Parsing runs on the server's upload workers; poll the job until it finishes
+      const queued = await uploadService.submitEstimateJob(file, user.id);
+      const job = await uploadService.waitForEstimateJob(queued.jobId);
+      if (job.status === "FAILED") {
+        setError(job.error || "Upload failed");
+        return;
+      }
+      setResult(job.result);
+      if (job.status !== "COMPLETED") {
+        // REJECTED (missing sections) or DUPLICATE: show the server's message
+        setError(job.result?.message || null);
+        return;
+      }
       // auto-issue credits if upload successful and creditsIssued > 0
-      if (resp.data?.creditsIssued && Number(resp.data.creditsIssued) > 0 && user) {
+      if (job.result?.creditsIssued && Number(job.result.creditsIssued) > 0 && user) {
         try {
-          await uploadService.issueCredits(user.id, resp.data.creditsIssued);
+          await uploadService.issueCredits(user.id, job.result.creditsIssued);
           setError(null);
         } catch (issueErr: any) {
           console.warn("Failed to auto-issue credits", issueErr);
@@ -47,10 +52,13 @@ const UploadPage: React.FC = () => {
     } catch (err: any) {
       console.error(err);
         const respData = err?.response?.data;
-        if (respData) {
+        if (err?.response?.status === 429) {
+          const retryAfter = err.response.headers?.["retry-after"];
+          setError(`Server is busy processing uploads, please retry${retryAfter ? ` in ${retryAfter}s` : " shortly"}`);
+        } else if (respData) {
           // show server response (may include extractedText and message)
           setResult(respData);
-          setError(respData.message || null);
+          setError(respData.message || respData.error || null);
         } else {
           setError(err.message || "Upload failed");
         }
@@ -75,7 +83,7 @@ const UploadPage: React.FC = () => {
           className="px-4 py-2 bg-emerald-600 text-white rounded"
           disabled={loading}
         >
-          {loading ? "Uploading..." : "Upload & Estimate"}
+          {loading ? "Processing..." : "Upload & Estimate"}
         </button>
       </form>
 
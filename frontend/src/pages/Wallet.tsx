@@ -12,6 +12,7 @@ import { Table, TableBody, TableCell, TableHead, TableHeader, TableRow } from ".
 import { toast } from "../components/ui/sonner";
 import { useAuth } from "../hooks/useAuth";
 import { useFetch } from "../hooks/useFetch";
+import { useFetchPages } from "../hooks/useFetchPages";
 import { walletService } from "../services/wallet";
 import { paymentService } from "../services/payment";
 import { RadioGroup, RadioGroupItem } from "../components/ui/radio-group";
@@ -42,9 +43,9 @@ const WalletPage = () => {
     }
   );
 
-  const transactionsQuery = useFetch(
+  const transactionsQuery = useFetchPages(
     ["wallet-transactions", user?.id],
-    () => walletService.getTransactions(user!.id),
+    (cursor) => walletService.getTransactions(user!.id, cursor),
     {
       enabled: Boolean(user?.id)
     }
@@ -190,6 +191,13 @@ const WalletPage = () => {
               No transactions found. Once you start trading, history will appear here.
             </div>
           )}
+          {transactionsQuery.hasMore && (
+            <div className="mt-4 text-center">
+              <Button variant="outline" onClick={() => transactionsQuery.loadMore()} disabled={transactionsQuery.isLoadingMore}>
+                {transactionsQuery.isLoadingMore ? "Loading..." : "Load more"}
+              </Button>
+            </div>
+          )}
         </CardContent>
       </Card>
     </div>
@@ -1,4 +1,4 @@
-import { useEffect, useState } from "react";
+import { useEffect, useRef, useState } from "react";
 import { useNavigate } from "react-router-dom";
 import { toast } from "sonner";
 
@@ -32,6 +32,11 @@ interface WalletTransaction {
 export default function AdminTransactions() {
   const [transactions, setTransactions] = useState<Transaction[]>([]);
   const [walletTransactions, setWalletTransactions] = useState<WalletTransaction[]>([]);
+  // Cursor của trang ví kế tiếp (null khi đã tải hết)
+  const [walletCursor, setWalletCursor] = useState<string | null>(null);
+  const [loadingMoreWallet, setLoadingMoreWallet] = useState(false);
+  // Đã "Tải thêm" trang nào chưa; auto refresh khi đó chỉ cập nhật trang đầu
+  const walletLoadedMore = useRef(false);
   const [activeTab, setActiveTab] = useState<"marketplace" | "wallet">("marketplace");
   const [loading, setLoading] = useState(true);
   const [isAdmin, setIsAdmin] = useState(false);
@@ -86,23 +91,59 @@ export default function AdminTransactions() {
     }
   };
 
+  // Làm mới trang đầu (BE trả tối đa 100 dòng mỗi trang); các trang đã "Tải thêm" được giữ lại
   const fetchWalletTransactions = async () => {
     const token = localStorage.getItem("token");
 
     try {
-      const response = await fetch("/api/admin/wallets/transactions?limit=200", {
+      const response = await fetch("/api/admin/wallets/transactions?limit=100", {
         headers: { Authorization: `Bearer ${token}` },
       });
 
       if (response.ok) {
         const data = await response.json();
-        setWalletTransactions(data.transactions || []);
+        const firstPage: WalletTransaction[] = data.transactions || [];
+        if (!walletLoadedMore.current) {
+          setWalletTransactions(firstPage);
+          setWalletCursor(data.hasMore ? data.nextCursor : null);
+        } else {
+          const firstIds = new Set(firstPage.map((wt) => wt.id));
+          setWalletTransactions((prev) => [...firstPage, ...prev.filter((wt) => !firstIds.has(wt.id))]);
+        }
       }
     } catch (error) {
       console.error("Failed to fetch wallet transactions:", error);
     }
   };
 
+  const loadMoreWalletTransactions = async () => {
+    if (!walletCursor) return;
+    const token = localStorage.getItem("token");
+    setLoadingMoreWallet(true);
+
+    try {
+      const response = await fetch(
+        `/api/admin/wallets/transactions?limit=100&cursor=${encodeURIComponent(walletCursor)}`,
+        { headers: { Authorization: `Bearer ${token}` } }
+      );
+
+      if (response.ok) {
+        const data = await response.json();
+        const page: WalletTransaction[] = data.transactions || [];
+        walletLoadedMore.current = true;
+        setWalletTransactions((prev) => {
+          const seen = new Set(prev.map((wt) => wt.id));
+          return [...prev, ...page.filter((wt) => !seen.has(wt.id))];
+        });
+        setWalletCursor(data.hasMore ? data.nextCursor : null);
+      }
+    } catch (error) {
+      console.error("Failed to load more wallet transactions:", error);
+    } finally {
+      setLoadingMoreWallet(false);
+    }
+  };
+
   const handleConfirm = async (txId: number) => {
     const token = localStorage.getItem("token");
     try {
@@ -350,7 +391,7 @@ export default function AdminTransactions() {
                   : "text-gray-600 hover:text-gray-800"
               }`}
             >
-              Wallet Top-ups ({walletTransactions.length})
+              Wallet Top-ups ({walletTransactions.length}{walletCursor ? "+" : ""})
             </button>
           </div>
         </div>
@@ -359,7 +400,7 @@ export default function AdminTransactions() {
           <h2 className="text-2xl font-bold mb-6">
             {activeTab === "marketplace" 
               ? `Marketplace Transactions (${transactions.length})`
-              : `Wallet Top-ups (${walletTransactions.length})`
+              : `Wallet Top-ups (${walletTransactions.length}${walletCursor ? "+" : ""})`
             }
           </h2>
 
@@ -525,6 +566,17 @@ export default function AdminTransactions() {
                   )}
                 </tbody>
               </table>
+              {walletCursor && (
+                <div className="mt-4 text-center">
+                  <button
+                    onClick={loadMoreWalletTransactions}
+                    disabled={loadingMoreWallet}
+                    className="px-4 py-2 rounded-lg text-sm font-medium bg-gray-100 text-gray-700 hover:bg-gray-200 disabled:opacity-60"
+                  >
+                    {loadingMoreWallet ? "Loading..." : "Load more"}
+                  </button>
+                </div>
+              )}
             </div>
           )}
         </div>
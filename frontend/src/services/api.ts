@@ -16,3 +16,26 @@ api.interceptors.request.use((config) => {
 
   return config;
 });
+
+// Một trang keyset của BE; truyền nextCursor làm cursor để lấy trang sau
+export type CursorPage<T> = {
+  items: T[];
+  nextCursor?: string | null;
+  hasMore: boolean;
+};
+
+// Lấy một trang (BE giới hạn 100 dòng mỗi trang); trang sau do người dùng bấm "Load more"
+export async function fetchPage<T, R = T>(
+  url: string,
+  params: Record<string, unknown> = {},
+  cursor?: string,
+  map?: (item: T) => R
+): Promise<CursorPage<R>> {
+  const { data } = await api.get<CursorPage<T>>(url, { params: { ...params, cursor, size: 100 } });
+  const items = data?.items ?? [];
+  return {
+    items: map ? items.map(map) : (items as unknown as R[]),
+    nextCursor: data?.hasMore ? data.nextCursor ?? null : null,
+    hasMore: Boolean(data?.hasMore && data.nextCursor)
+  };
+}
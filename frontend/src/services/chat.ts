@@ -0,0 +1,54 @@
+// frontend/src/services/chat.ts
+
+/**
+ * POST /api/chat/stream and hand each "delta" event's text to onDelta as it arrives.
+ * EventSource cannot POST or send headers, so the SSE body is read with fetch.
+ */
+export async function streamChat(
+    message: string,
+    token: string,
+    onDelta: (text: string) => void
+): Promise<void> {
+    const res = await fetch("/api/chat/stream", {
+        method: "POST",
+        headers: {
+            "Content-Type": "application/json",
+            Accept: "text/event-stream",
+            Authorization: `Bearer ${token}`,
+        },
+        body: JSON.stringify({ message }),
+    });
+
+    if (!res.ok || !res.body) {
+        const payload = await res.json().catch(() => null);
+        throw new Error(payload?.reply || `HTTP ${res.status}`);
+    }
+
+    const reader = res.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = "";
+
+    for (;;) {
+        const { done, value } = await reader.read();
+        if (done) break;
+        buffer += decoder.decode(value, { stream: true });
+
+        // Events are separated by a blank line
+        let boundary;
+        while ((boundary = buffer.indexOf("\n\n")) >= 0) {
+            const raw = buffer.slice(0, boundary);
+            buffer = buffer.slice(boundary + 2);
+
+            let event = "message";
+            const data: string[] = [];
+            for (const line of raw.split("\n")) {
+                if (line.startsWith("event:")) event = line.slice(6).trim();
+                else if (line.startsWith("data:")) data.push(line.slice(5));
+            }
+            if (event === "done") return;
+            if (event === "delta" && data.length) {
+                onDelta(JSON.parse(data.join("\n")).text ?? "");
+            }
+        }
+    }
+}
@@ -1,4 +1,4 @@
-import { api } from "./api";
+import { api, fetchPage } from "./api";
 
 type ListingResponse = {
   id: number;
@@ -17,6 +17,30 @@ type PaginatedResponse<T> = {
   content?: T[];
 };
 
+export type FacetBucket = {
+  from: number;
+  to: number | null;
+  count: number;
+};
+
+export type BrowseFilters = {
+  minPrice?: number;
+  maxPrice?: number;
+  minCarbon?: number;
+  maxCarbon?: number;
+  sort?: "NEWEST" | "PRICE_ASC" | "PRICE_DESC" | "AMOUNT_ASC" | "AMOUNT_DESC";
+  page?: number;
+  size?: number;
+};
+
+type BrowseResponse = {
+  items: ListingResponse[];
+  total: number;
+  priceHistogram: FacetBucket[];
+  quantityBuckets: FacetBucket[];
+  statusCounts: Record<string, number>;
+};
+
 export type Listing = {
   id: string;
   name: string;
@@ -65,6 +89,17 @@ export const listingService = {
     return items.map(mapListing);
   },
 
+  async browse(filters: BrowseFilters = {}) {
+    const { data } = await api.get<BrowseResponse>("/listings/browse", { params: filters });
+    return {
+      listings: (data?.items ?? []).map(mapListing),
+      total: data?.total ?? 0,
+      priceHistogram: data?.priceHistogram ?? [],
+      quantityBuckets: data?.quantityBuckets ?? [],
+      statusCounts: data?.statusCounts ?? {}
+    };
+  },
+
   async getById(id: string) {
     const { data } = await api.get<ListingResponse>(`/listings/${id}`);
     return mapListing(data);
@@ -75,9 +110,8 @@ export const listingService = {
     return mapListing(data);
   }
   ,
-  async getListingsBySeller(sellerId: number) {
-    const { data } = await api.get<ListingResponse[]>(`/listings/seller/${sellerId}`);
-    return data.map(mapListing);
+  async getListingsBySeller(sellerId: number, cursor?: string) {
+    return fetchPage(`/listings/seller/${sellerId}`, {}, cursor, mapListing);
   }
 };
 
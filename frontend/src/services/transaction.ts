@@ -1,4 +1,4 @@
-import { api } from "./api";
+import { api, fetchPage } from "./api";
 
 type TransactionResponse = {
   id: number;
@@ -52,11 +52,9 @@ const mapTransaction = (tx: TransactionResponse, userId: string): Transaction =>
 };
 
 export const transactionService = {
-  async getTransactions(userId: string) {
-    const { data } = await api.get<TransactionResponse[]>(`/transactions/mine`, {
-      params: { userId }
-    });
-    return (data ?? []).map((tx) => mapTransaction(tx, userId));
+  async getTransactions(userId: string, cursor?: string) {
+    return fetchPage(`/transactions/mine`, { userId }, cursor,
+      (tx: TransactionResponse) => mapTransaction(tx, userId));
   },
 
   async buy(payload: { listingId: string; buyerId: string; quantity?: number; pricePerCredit?: number }) {
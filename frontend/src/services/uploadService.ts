@@ -14,6 +14,15 @@ export type UploadResponse = {
     metadata?: Record<string, any>;
 };
 
+// Snapshot of a queued estimate (GET /uploads/jobs/{jobId})
+export type UploadJobStatus = {
+    jobId: string;
+    status: "QUEUED" | "PROCESSING" | "COMPLETED" | "REJECTED" | "DUPLICATE" | "FAILED";
+    filename?: string;
+    result?: any;
+    error?: string;
+};
+
 export const uploadService = {
     /**
      * Upload driving data file
@@ -82,6 +91,37 @@ export const uploadService = {
         }
     },
 
+    /**
+     * Queue a report for estimation; the server answers 429 with Retry-After when busy
+     */
+    async submitEstimateJob(file: File, userId: number | string): Promise<UploadJobStatus> {
+        const form = new FormData();
+        form.append("file", file);
+        form.append("userId", String(userId));
+        const { data } = await api.post<UploadJobStatus>("/uploads/estimate/async", form, {
+            headers: { "Content-Type": "multipart/form-data" }
+        });
+        return data;
+    },
+
+    async getEstimateJob(jobId: string): Promise<UploadJobStatus> {
+        const { data } = await api.get<UploadJobStatus>(`/uploads/jobs/${jobId}`);
+        return data;
+    },
+
+    /**
+     * Poll a queued estimate until it leaves QUEUED/PROCESSING
+     */
+    async waitForEstimateJob(jobId: string, intervalMs = 1000, timeoutMs = 5 * 60 * 1000): Promise<UploadJobStatus> {
+        const deadline = Date.now() + timeoutMs;
+        for (;;) {
+            const job = await uploadService.getEstimateJob(jobId);
+            if (job.status !== "QUEUED" && job.status !== "PROCESSING") return job;
+            if (Date.now() > deadline) throw new Error("Estimate is taking too long, please check again later");
+            await new Promise((resolve) => setTimeout(resolve, intervalMs));
+        }
+    },
+
     async estimateFromForm(formBody: Record<string, any>) {
         try {
             const { data } = await api.post<any>("/uploads/estimate/form", formBody, {
@@ -1,6 +1,6 @@
 // frontend/src/services/wallet.ts
 
-import { api } from "./api";
+import { api, fetchPage, CursorPage } from "./api";
 
 export type WalletSummary = {
     id: string;
@@ -43,12 +43,8 @@ export const walletService = {
         };
     },
 
-    async getTransactions(userId: string): Promise<WalletTransaction[]> {
-        const { data } = await api.get<any[]>(`/transactions/mine`, {
-            params: { userId },
-        });
-
-        return (data ?? []).map((tx: any) => ({
+    async getTransactions(userId: string, cursor?: string): Promise<CursorPage<WalletTransaction>> {
+        return fetchPage(`/transactions/mine`, { userId }, cursor, (tx: any): WalletTransaction => ({
             id: String(tx.id ?? `wallet-${Date.now()}`),
             type: String(tx.buyerId ?? "") === userId ? "PURCHASE" : "SALE",
             amount: Number(tx.amount ?? 0),
@@ -0,0 +1,68 @@
+package com.example.demo.bench;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Shared fixtures for the JMH benchmarks.
+ * <p>
+ * Repositories are stubbed with plain dynamic proxies rather than Mockito: a mock records
+ * every invocation, which over millions of benchmark calls both skews the timings and
+ * fills the heap.
+ */
+final class BenchSupport {
+
+    private BenchSupport() {
+    }
+
+    /**
+     * Proxy for a repository interface. Methods named in {@code answers} are answered by
+     * their function (given the call's arguments); any other method returns
+     * {@code Optional.empty()}, {@code false}, {@code 0} or {@code null} by return type.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + " stub";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> defaultValue(method.getReturnType());
+            };
+        });
+    }
+
+    /**
+     * Answer for {@code save(entity)}: hand the entity back as JPA would.
+     */
+    static Function<Object[], Object> returnsFirstArgument() {
+        return args -> args[0];
+    }
+
+    /**
+     * Services log every call at INFO; in a benchmark that measures the appender, not the code.
+     */
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == Optional.class) return Optional.empty();
+        if (type == boolean.class) return false;
+        if (type == long.class) return 0L;
+        if (type == int.class) return 0;
+        if (type == double.class) return 0d;
+        return null;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.bench;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.dto.Co2RequestDto;
+import com.example.demo.dto.Co2ResponseDto;
+import com.example.demo.repository.Co2Repository;
+import com.example.demo.service.impl.Co2ServiceImpl;
+
+/**
+ * Credit calculation of an emission report: validation, BigDecimal reduction and credit
+ * arithmetic, and building the response message. The repository save is a no-op stub.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Co2EmissionBenchmark {
+
+    private Co2ServiceImpl co2Service;
+    private Co2RequestDto certified;
+    private Co2RequestDto uncertified;
+
+    @Setup
+    public void setup() {
+        BenchSupport.quietLogging();
+        co2Service = new Co2ServiceImpl(BenchSupport.stub(Co2Repository.class,
+                Map.of("save", BenchSupport.returnsFirstArgument())));
+        certified = request("12500.750", "8325.125", true);
+        uncertified = request("980.5", "120.25", false);
+    }
+
+    @Benchmark
+    public Co2ResponseDto approved() {
+        return co2Service.processEmission(certified);
+    }
+
+    @Benchmark
+    public Co2ResponseDto rejected() {
+        return co2Service.processEmission(uncertified);
+    }
+
+    private static Co2RequestDto request(String baseline, String actual, boolean isCertified) {
+        Co2RequestDto request = new Co2RequestDto();
+        request.setUserId("42");
+        request.setBaseline(new BigDecimal(baseline));
+        request.setActual(new BigDecimal(actual));
+        request.setCertified(isCertified);
+        return request;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.bench;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+
+import com.example.demo.dto.DocumentAnalysis;
+import com.example.demo.repository.SystemSettingRepository;
+import com.example.demo.service.FileUploadService;
+import com.example.demo.service.SystemSettingService;
+
+/**
+ * CO2 extraction from uploaded journey reports of growing size: the full upload path
+ * (Tika detection and parsing, then scanning) against scanning text already in memory,
+ * so the cost of the parser and of the scanner can be told apart.
+ * <p>
+ * Documents are synthetic: the two required Vietnamese section headings followed by
+ * journey lines mixing km, kWh, litres and explicit kg CO2 figures, repeated to size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Co2ExtractionBenchmark {
+
+    private static final String HEADER = """
+            Phần I. Thông tin chủ sở hữu
+            Chủ xe: Nguyễn Văn A - Biển số 51H-123.45 - Phương tiện: VinFast VF8
+            Phần II. Dữ liệu hành trình tổng hợp
+            """;
+
+    private static final String[] LINES = {
+            "Ngày %d: quãng đường 120 km, sạc 18,5 kWh tại trạm Thủ Đức.%n",
+            "Ngày %d: hành trình 86,4 km nội thành, tiêu thụ 12 kWh.%n",
+            "Ngày %d: xe đối chứng chạy xăng dùng 40 lít cho 310 km.%n",
+            "Ngày %d: giảm phát thải ước tính 12,5 kg CO2 so với xe xăng.%n",
+    };
+
+    @Param({"4", "64", "1024", "8192"})
+    public int sizeKb;
+
+    private FileUploadService fileUploadService;
+    private MockMultipartFile file;
+    private String text;
+
+    @Setup
+    public void setup() {
+        BenchSupport.quietLogging();
+        // No factor overrides: findByKey answers Optional.empty() and the defaults apply
+        SystemSettingRepository settings = BenchSupport.stub(SystemSettingRepository.class, Map.of());
+        fileUploadService = new FileUploadService(new SystemSettingService(settings), 4000, 20_000_000);
+
+        text = document(sizeKb * 1024);
+        file = new MockMultipartFile("file", "hanh-trinh.txt", "text/plain", text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public BigDecimal parseAndEstimate() {
+        return fileUploadService.parseAndEstimateCo2Kg(file);
+    }
+
+    @Benchmark
+    public DocumentAnalysis scanText() {
+        return fileUploadService.analyze(text);
+    }
+
+    static String document(int targetChars) {
+        StringBuilder sb = new StringBuilder(targetChars + 128).append(HEADER);
+        for (int day = 1; sb.length() < targetChars; day++) {
+            sb.append(String.format(LINES[day % LINES.length], day));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.security.JwtUtil;
+
+/**
+ * Token issue and validation as done on login and on every authenticated request.
+ * {@code validateUncached} clears the verified-token cache first, so it pays for parsing
+ * and HMAC verification each time; {@code validateCached} is the steady state of a client
+ * reusing its token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String EMAIL = "buyer@example.com";
+    private static final List<String> ROLES = List.of("ROLE_BUYER", "ROLE_SELLER");
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setup() {
+        BenchSupport.quietLogging();
+        jwtUtil = new JwtUtil();
+        // Same defaults as the @Value placeholders
+        ReflectionTestUtils.setField(jwtUtil, "secret", "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheMaxSize", 10_000);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+        token = jwtUtil.generateToken(EMAIL, 42L, ROLES);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateToken(EMAIL, 42L, ROLES);
+    }
+
+    @Benchmark
+    public Boolean validateUncached() {
+        jwtUtil.clearVerifiedTokens();
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public Boolean validateCached() {
+        return jwtUtil.validateToken(token);
+    }
+}
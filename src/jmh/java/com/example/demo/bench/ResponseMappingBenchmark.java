@@ -0,0 +1,95 @@
+package com.example.demo.bench;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.dto.ListingResponse;
+import com.example.demo.dto.TransactionResponse;
+import com.example.demo.entity.Listing;
+import com.example.demo.entity.Transaction;
+import com.example.demo.entity.User;
+
+/**
+ * Entity-to-response mapping of a page of listings and of transactions, as the list
+ * endpoints do it for every row they return.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    @Param({"20", "500"})
+    public int pageSize;
+
+    private List<Listing> listings;
+    private List<Transaction> transactions;
+
+    @Setup
+    public void setup() {
+        User seller = user(1L, "Trần Thị Bán", "seller@example.com");
+        User buyer = user(2L, "Lê Văn Mua", "buyer@example.com");
+        LocalDateTime now = LocalDateTime.now();
+
+        listings = new ArrayList<>(pageSize);
+        transactions = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Listing listing = new Listing();
+            listing.setId((long) i);
+            listing.setTitle("Tín chỉ carbon #" + i);
+            listing.setDescription("Giảm phát thải từ xe điện, hành trình tháng " + (i % 12 + 1));
+            listing.setCarbonAmount(BigDecimal.valueOf(10 + i % 90));
+            listing.setPrice(new BigDecimal("125000.00").add(BigDecimal.valueOf(i)));
+            listing.setStatus(Listing.ListingStatus.OPEN);
+            listing.setCreatedAt(now.minusMinutes(i));
+            listing.setSeller(seller);
+            listings.add(listing);
+
+            Transaction transaction = new Transaction();
+            transaction.setId((long) i);
+            transaction.setBuyer(buyer);
+            transaction.setSeller(seller);
+            transaction.setListing(listing);
+            transaction.setCarbonQuantity(BigDecimal.valueOf(1 + i % 5));
+            transaction.setAmount(listing.getPrice().multiply(transaction.getCarbonQuantity()));
+            transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+            transaction.setCreatedAt(now.minusMinutes(i));
+            transactions.add(transaction);
+        }
+    }
+
+    @Benchmark
+    public List<ListingResponse> listings() {
+        return listings.stream().map(ListingResponse::fromListing).toList();
+    }
+
+    @Benchmark
+    public List<TransactionResponse> transactions() {
+        return transactions.stream().map(TransactionResponse::fromTransaction).toList();
+    }
+
+    private static User user(Long id, String fullName, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setFullName(fullName);
+        user.setEmail(email);
+        return user;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.bench;
+
+import java.security.MessageDigest;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of an I/O-heavy request mix on Tomcat's default platform pool (200 threads)
+ * versus one virtual thread per request, and what pinning does to the latter.
+ * <p>
+ * Each simulated request hashes a small payload (JSON/JWT-style CPU work) and then blocks
+ * for {@code ioMillis} (a JDBC round trip or an upstream HTTP call). The {@code pinned}
+ * executor does the blocking inside {@code synchronized}, as a driver with monitor-guarded
+ * I/O would, which keeps the carrier thread busy and caps concurrency at the carrier count.
+ * <p>
+ * One operation is a burst of {@code requests} concurrent requests, so the score is the
+ * time to drain the burst; requests per second is {@code requests / score}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class VirtualThreadThroughputBenchmark {
+
+    private static final byte[] PAYLOAD = new byte[1024];
+
+    @Param({"platform", "virtual", "pinned"})
+    public String executor;
+
+    @Param("1000")
+    public int requests;
+
+    @Param("20")
+    public long ioMillis;
+
+    @Param("200")
+    public int poolSize;
+
+    private ExecutorService pool;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        pool = "platform".equals(executor)
+                ? Executors.newFixedThreadPool(poolSize)
+                : Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @Benchmark
+    public void burst() throws InterruptedException {
+        boolean pinned = "pinned".equals(executor);
+        CountDownLatch done = new CountDownLatch(requests);
+        for (int i = 0; i < requests; i++) {
+            pool.execute(() -> {
+                try {
+                    request(ioMillis, pinned);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private static void request(long ioMillis, boolean pinned) throws Exception {
+        MessageDigest.getInstance("SHA-256").digest(PAYLOAD);
+        if (pinned) {
+            Object monitor = new Object();
+            synchronized (monitor) {
+                Thread.sleep(ioMillis);
+            }
+        } else {
+            Thread.sleep(ioMillis);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.bench;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.example.demo.config.VnPayConfig;
+import com.example.demo.dto.CreateTopupRequest;
+import com.example.demo.entity.User;
+import com.example.demo.entity.Wallet;
+import com.example.demo.repository.WalletRepository;
+import com.example.demo.repository.WalletTransactionRepository;
+import com.example.demo.service.VnPayService;
+
+/**
+ * VNPay signing: building a top-up payment URL (sorted, URL-encoded parameters plus
+ * HMAC-SHA512) and verifying the signature of an IPN callback. Repositories are stubbed,
+ * so only the request building and hashing is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VnPayBenchmark {
+
+    private VnPayService vnPayService;
+    private CreateTopupRequest topup;
+    private MockHttpServletRequest servletRequest;
+    private Map<String, String> ipnParams;
+
+    @Setup
+    public void setup() {
+        BenchSupport.quietLogging();
+        VnPayConfig config = new VnPayConfig();
+        config.setTmnCode("BENCH001");
+        config.setHashSecret("BENCHHASHSECRET0123456789ABCDEFGH");
+        config.setPayUrl("https://sandbox.vnpayment.vn/paymentv2/vpcpay.html");
+        config.setReturnUrl("http://localhost:5173/wallet/vnpay-return");
+        config.setIpnUrl("http://localhost:8080/api/payments/vnpay/ipn");
+        config.setVersion("2.1.0");
+        config.setCommand("pay");
+        config.setCurrCode("VND");
+
+        User user = new User();
+        user.setId(42L);
+        Wallet wallet = new Wallet();
+        wallet.setId(7L);
+        wallet.setUser(user);
+
+        WalletRepository walletRepository = BenchSupport.stub(WalletRepository.class,
+                Map.of("findByUser_Id", args -> Optional.of(wallet)));
+        WalletTransactionRepository walletTransactionRepository = BenchSupport.stub(WalletTransactionRepository.class,
+                Map.of("save", BenchSupport.returnsFirstArgument()));
+        // WalletService is only used when an IPN is applied, which is not measured here
+        vnPayService = new VnPayService(config, walletRepository, walletTransactionRepository, null);
+
+        topup = new CreateTopupRequest(42L, 250_000L);
+        servletRequest = new MockHttpServletRequest();
+        servletRequest.setRemoteAddr("203.0.113.10");
+
+        // A callback carrying the signed parameters of a real payment URL verifies as valid
+        ipnParams = queryParams(vnPayService.createPaymentUrl(topup, servletRequest));
+    }
+
+    @Benchmark
+    public String createPaymentUrl() {
+        return vnPayService.createPaymentUrl(topup, servletRequest);
+    }
+
+    @Benchmark
+    public boolean verifyIpn() {
+        // verifyIpn strips the hash from the map it is given
+        return vnPayService.verifyIpn(new HashMap<>(ipnParams));
+    }
+
+    private static Map<String, String> queryParams(String url) {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : URI.create(url).getRawQuery().split("&")) {
+            int eq = pair.indexOf('=');
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.US_ASCII),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.US_ASCII));
+        }
+        return params;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.ai;
+
+import java.util.function.Consumer;
+
+/**
+ * A chat-completion model. {@link OpenRouterChatBackend} calls OpenRouter;
+ * {@link StubChatBackend} answers locally for tests and offline development
+ * ({@code ai.backend=stub}).
+ */
+public interface ChatBackend {
+
+    /**
+     * Complete one exchange: a system prompt with the marketplace context and the user's
+     * message. Blocks until the full reply is available; failures are thrown.
+     */
+    String complete(String systemPrompt, String userMessage);
+
+    /**
+     * Same exchange, handing each piece of the reply to {@code onDelta} as the model
+     * produces it. Returns once the reply is complete. Backends without streaming deliver
+     * the whole reply as one delta.
+     */
+    default void stream(String systemPrompt, String userMessage, Consumer<String> onDelta) {
+        onDelta.accept(complete(systemPrompt, userMessage));
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.demo.ai;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@link ChatBackend} for OpenRouter's OpenAI-compatible chat completions API. One
+ * {@link HttpClient} is shared by every call, so connections (HTTP/2 where offered)
+ * are kept alive and reused; connect and read timeouts bound how long a chat request
+ * can hang on a slow upstream. Streaming requests read the server-sent event body line by
+ * line and hand each {@code choices[0].delta.content} on as it arrives; every line must
+ * arrive within the stream idle timeout, otherwise the exchange is cancelled and the call
+ * fails, which frees the gateway's permit like any other backend failure.
+ */
+@Component
+@ConditionalOnProperty(name = "ai.backend", havingValue = "openrouter", matchIfMissing = true)
+public class OpenRouterChatBackend implements ChatBackend {
+
+    private static final String DATA_PREFIX = "data:";
+    private static final String DONE = "[DONE]";
+
+    private final HttpClient httpClient;
+    private final RestClient restClient;
+    private final ObjectMapper objectMapper;
+    private final String apiKey;
+    private final String endpoint;
+    private final String model;
+    private final Duration readTimeout;
+    private final long streamIdleTimeoutMs;
+
+    public OpenRouterChatBackend(
+            ObjectMapper objectMapper,
+            @Value("${openrouter.api.key}") String apiKey,
+            @Value("${openrouter.api.endpoint}") String endpoint,
+            @Value("${openrouter.api.model}") String model,
+            @Value("${ai.http.connect-timeout-ms:3000}") long connectTimeoutMs,
+            @Value("${ai.http.read-timeout-ms:30000}") long readTimeoutMs,
+            @Value("${ai.http.stream-idle-timeout-ms:30000}") long streamIdleTimeoutMs) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+        this.streamIdleTimeoutMs = streamIdleTimeoutMs;
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        this.restClient = RestClient.builder()
+                .requestFactory(requestFactory)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                .build();
+        this.objectMapper = objectMapper;
+        this.apiKey = apiKey;
+        this.endpoint = endpoint;
+        this.model = model;
+    }
+
+    @Override
+    public String complete(String systemPrompt, String userMessage) {
+        CompletionResponse response = restClient.post()
+                .uri(endpoint)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(request(systemPrompt, userMessage, false))
+                .retrieve()
+                .body(CompletionResponse.class);
+        if (response == null || response.choices() == null || response.choices().isEmpty()
+                || response.choices().get(0).message() == null) {
+            throw new IllegalStateException("Empty completion from OpenRouter");
+        }
+        return response.choices().get(0).message().content();
+    }
+
+    @Override
+    public void stream(String systemPrompt, String userMessage, Consumer<String> onDelta) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(endpoint))
+                    // Bounds the wait for the response headers; the body then arrives as it is generated
+                    .timeout(readTimeout)
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            objectMapper.writeValueAsString(request(systemPrompt, userMessage, true))))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize completion request", e);
+        }
+
+        LineQueue lines = new LineQueue();
+        CompletableFuture<HttpResponse<Void>> exchange = httpClient.sendAsync(request, info -> {
+            if (info.statusCode() != 200) {
+                lines.fail(new IllegalStateException("OpenRouter returned HTTP " + info.statusCode()));
+                return HttpResponse.BodySubscribers.discarding();
+            }
+            return HttpResponse.BodySubscribers.fromLineSubscriber(lines);
+        });
+        exchange.whenComplete((response, ex) -> {
+            if (ex != null) lines.fail(ex);
+        });
+
+        try {
+            while (true) {
+                String line = lines.next(streamIdleTimeoutMs);
+                if (line == null) break;
+                // Blank separators and ": keep-alive" comments carry no data
+                if (!line.startsWith(DATA_PREFIX)) continue;
+                String data = line.substring(DATA_PREFIX.length()).trim();
+                if (DONE.equals(data)) break;
+                String delta = deltaOf(data);
+                if (delta != null && !delta.isEmpty()) {
+                    onDelta.accept(delta);
+                }
+            }
+        } finally {
+            // Stops the body subscription and aborts the exchange if it is still running
+            lines.cancel();
+            exchange.cancel(true);
+        }
+    }
+
+    private String deltaOf(String data) {
+        try {
+            JsonNode content = objectMapper.readTree(data).path("choices").path(0).path("delta").path("content");
+            return content.isTextual() ? content.asText() : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed stream chunk from OpenRouter", e);
+        }
+    }
+
+    private Map<String, Object> request(String systemPrompt, String userMessage, boolean stream) {
+        return Map.of(
+                "model", model,
+                "stream", stream,
+                "messages", List.of(
+                        Map.of("role", "system", "content", systemPrompt),
+                        Map.of("role", "user", "content", userMessage)
+                )
+        );
+    }
+
+    /**
+     * Body lines handed from the HTTP client's thread to the caller, one requested at a
+     * time, so the caller can wait for each with a deadline.
+     */
+    private static final class LineQueue implements Flow.Subscriber<String> {
+        private static final Object END = new Object();
+
+        private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(String line) {
+            queue.add(line);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            queue.add(END);
+        }
+
+        void fail(Throwable throwable) {
+            queue.add(throwable);
+        }
+
+        /**
+         * Next line, or null at the end of the body; throws when none arrives within the timeout.
+         */
+        String next(long timeoutMs) {
+            Object item;
+            try {
+                item = queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted", e);
+            }
+            if (item == null) {
+                throw new IllegalStateException("OpenRouter stream idle for more than " + timeoutMs + " ms");
+            }
+            if (item == END) {
+                return null;
+            }
+            if (item instanceof Throwable failure) {
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure;
+                if (cause instanceof IllegalStateException ise) throw ise;
+                throw new IllegalStateException("OpenRouter request failed: " + cause.getMessage(), cause);
+            }
+            subscription.request(1);
+            return (String) item;
+        }
+
+        void cancel() {
+            Flow.Subscription s = subscription;
+            if (s != null) s.cancel();
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record CompletionResponse(List<Choice> choices) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record Choice(Message message) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record Message(String role, String content) {}
+}
@@ -0,0 +1,52 @@
+package com.example.demo.ai;
+
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local {@link ChatBackend} that echoes the question after an optional delay, so tests
+ * and load runs exercise the gateway (cache, coalescing, limits) without an API key or
+ * upstream spend. Streaming spreads the delay over the words of the reply.
+ */
+@Component
+@ConditionalOnProperty(name = "ai.backend", havingValue = "stub")
+public class StubChatBackend implements ChatBackend {
+
+    private final long latencyMs;
+
+    public StubChatBackend(@Value("${ai.stub.latency-ms:0}") long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    @Override
+    public String complete(String systemPrompt, String userMessage) {
+        pause(latencyMs);
+        return reply(userMessage);
+    }
+
+    @Override
+    public void stream(String systemPrompt, String userMessage, Consumer<String> onDelta) {
+        String[] words = reply(userMessage).split("(?<= )");
+        for (String word : words) {
+            pause(latencyMs / words.length);
+            onDelta.accept(word);
+        }
+    }
+
+    private static String reply(String userMessage) {
+        return "[stub] " + userMessage;
+    }
+
+    private static void pause(long millis) {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+    }
+}
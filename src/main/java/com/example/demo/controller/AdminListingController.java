@@ -1,9 +1,11 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.ListingChangedEvent;
 import com.example.demo.entity.Listing;
 import com.example.demo.repository.ListingRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,6 +19,7 @@ import java.util.stream.Collectors;
 public class AdminListingController {
 
     private final ListingRepository listingRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Lấy toàn bộ listing cho admin
     @GetMapping
@@ -52,8 +55,10 @@ public class AdminListingController {
     public ResponseEntity<?> disableListing(@PathVariable Long id) {
         return listingRepository.findById(id)
                 .<ResponseEntity<?>>map(l -> {
+                    Listing.ListingStatus previous = l.getStatus();
                     l.setStatus(Listing.ListingStatus.CANCELLED);
                     listingRepository.save(l);
+                    eventPublisher.publishEvent(ListingChangedEvent.updated(previous, l.getPrice(), l));
 
                     Map<String, Object> res = new HashMap<>();
                     res.put("message", "Listing disabled successfully");
@@ -73,9 +78,11 @@ public class AdminListingController {
         log.info("Admin - Approve listing ID: {}", id);
         return listingRepository.findById(id)
                 .<ResponseEntity<?>>map(l -> {
+                Listing.ListingStatus previous = l.getStatus();
                 // When approved by CVA/admin, mark listing as ACTIVE so it appears on marketplace
                 l.setStatus(Listing.ListingStatus.OPEN);
                     listingRepository.save(l);
+                    eventPublisher.publishEvent(ListingChangedEvent.updated(previous, l.getPrice(), l));
                     return ResponseEntity.ok(Map.of(
                             "message", "Listing approved successfully",
                             "id", id,
@@ -94,8 +101,10 @@ public class AdminListingController {
         log.info("Admin - Reject listing ID: {} with reason: {}", id, reason);
         return listingRepository.findById(id)
                 .<ResponseEntity<?>>map(l -> {
+                    Listing.ListingStatus previous = l.getStatus();
                     l.setStatus(Listing.ListingStatus.REJECTED);
                     listingRepository.save(l);
+                    eventPublisher.publishEvent(ListingChangedEvent.updated(previous, l.getPrice(), l));
                     return ResponseEntity.ok(Map.of(
                             "message", "Listing rejected successfully",
                             "id", id,
@@ -167,6 +176,7 @@ public class AdminListingController {
         return listingRepository.findById(id)
                 .<ResponseEntity<?>>map(l -> {
                     listingRepository.delete(l);
+                    eventPublisher.publishEvent(ListingChangedEvent.deleted(l));
                     return ResponseEntity.ok(Map.of(
                             "message", "Listing deleted successfully",
                             "id", id
@@ -1,9 +1,11 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.ReportStatusChangedEvent;
 import com.example.demo.entity.Report;
 import com.example.demo.repository.ReportRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,6 +20,7 @@ import java.util.Map;
 public class AdminReportController {
 
     private final ReportRepository reportRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     //get all reports
     @GetMapping
@@ -50,6 +53,7 @@ public class AdminReportController {
         // Gắn thời gian tạo
         report.setCreatedAt(LocalDateTime.now());
         Report saved = reportRepository.save(report);
+        eventPublisher.publishEvent(new ReportStatusChangedEvent(saved.getId(), null, saved.getStatus()));
 
         log.info("Report generated successfully: id={}", saved.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
@@ -0,0 +1,52 @@
+package com.example.demo.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.config.VirtualThreadPinningMonitor;
+import com.example.demo.service.AIGatewayService;
+import com.example.demo.service.UploadJobService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Runtime metrics of the background pipelines, for sizing pools and limits.
+ */
+@RestController
+@RequestMapping("/api/admin/system")
+@RequiredArgsConstructor
+public class AdminSystemController {
+
+    private final UploadJobService uploadJobService;
+    private final AIGatewayService aiGatewayService;
+    // Only present when spring.threads.virtual.enabled=true
+    private final ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+
+    @GetMapping("/upload-jobs")
+    public ResponseEntity<Map<String, Object>> uploadJobMetrics() {
+        return ResponseEntity.ok(uploadJobService.getMetrics());
+    }
+
+    @GetMapping("/ai-gateway")
+    public ResponseEntity<Map<String, Object>> aiGatewayMetrics() {
+        return ResponseEntity.ok(aiGatewayService.getMetrics());
+    }
+
+    /**
+     * Virtual thread pinning count per site since startup, busiest first.
+     */
+    @GetMapping("/virtual-threads")
+    public ResponseEntity<Map<String, Object>> virtualThreadPinning() {
+        VirtualThreadPinningMonitor monitor = pinningMonitor.getIfAvailable();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("enabled", monitor != null);
+        body.put("pinnedBySite", monitor != null ? monitor.getPinnedCounts() : Map.of());
+        return ResponseEntity.ok(body);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.TransactionStatusChangedEvent;
 import com.example.demo.entity.Transaction;
 import com.example.demo.entity.Dispute;
 import com.example.demo.entity.DisputeStatus;
@@ -7,6 +8,7 @@ import com.example.demo.repository.TransactionRepository;
 import com.example.demo.repository.DisputeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,6 +22,7 @@ public class AdminTransactionController {
 
     private final TransactionRepository transactionRepository;
     private final DisputeRepository disputeRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ✅ Lấy toàn bộ giao dịch
     @GetMapping
@@ -79,8 +82,10 @@ public class AdminTransactionController {
         log.info("Admin - Cancel transaction ID: {}", id);
         return transactionRepository.findById(id)
                 .map(tx -> {
+                    Transaction.TransactionStatus previous = tx.getStatus();
                     tx.setStatus(Transaction.TransactionStatus.CANCELLED);
                     transactionRepository.save(tx);
+                    eventPublisher.publishEvent(new TransactionStatusChangedEvent(tx.getId(), previous, tx.getStatus()));
                     return ResponseEntity.ok(Map.of(
                             "message", "Transaction cancelled successfully",
                             "transactionId", tx.getId(),
@@ -98,8 +103,10 @@ public class AdminTransactionController {
         log.info("Admin - Confirm transaction ID: {}", id);
         return transactionRepository.findById(id)
                 .map(tx -> {
+                    Transaction.TransactionStatus previous = tx.getStatus();
                     tx.setStatus(Transaction.TransactionStatus.COMPLETED);
                     transactionRepository.save(tx);
+                    eventPublisher.publishEvent(new TransactionStatusChangedEvent(tx.getId(), previous, tx.getStatus()));
                     return ResponseEntity.ok(Map.of(
                             "message", "Transaction confirmed successfully",
                             "transactionId", tx.getId(),
@@ -117,8 +124,10 @@ public class AdminTransactionController {
         log.info("Admin - Complete transaction ID: {}", id);
         return transactionRepository.findById(id)
                 .map(tx -> {
+                    Transaction.TransactionStatus previous = tx.getStatus();
                     tx.setStatus(Transaction.TransactionStatus.COMPLETED);
                     transactionRepository.save(tx);
+                    eventPublisher.publishEvent(new TransactionStatusChangedEvent(tx.getId(), previous, tx.getStatus()));
                     return ResponseEntity.ok(Map.of(
                             "message", "Transaction completed successfully",
                             "transactionId", tx.getId(),
@@ -8,6 +8,7 @@ import com.example.demo.repository.*;
 import com.example.demo.repository.RoleRepository;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.repository.UserStatusRepository;
+import com.example.demo.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
@@ -26,6 +27,7 @@ public class AdminUserController {
     private final RoleRepository roleRepository;
     private final WalletRepository walletRepository;
     private final CarbonWalletRepository carbonWalletRepository;
+    private final PrincipalCache principalCache;
 
     @GetMapping
     public ResponseEntity<?> getAllUsers() {
@@ -122,6 +124,7 @@ public class AdminUserController {
         return userRepository.findById(id)
                 .<ResponseEntity<?>>map(user -> {
                     userRepository.delete(user);
+                    principalCache.invalidate(id);
                     return ResponseEntity.ok(Map.of("message", "User deleted", "id", id));
                 })
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -173,6 +176,7 @@ public class AdminUserController {
 
             user.getRoles().add(role);
             userRepository.save(user);
+            principalCache.invalidate(id);
 
             return ResponseEntity.ok(Map.of(
                     "message", "Role assigned successfully",
@@ -196,6 +200,7 @@ public class AdminUserController {
             
             user.getRoles().removeIf(role -> role.getName().equals(roleName));
             userRepository.save(user);
+            principalCache.invalidate(id);
 
             return ResponseEntity.ok(Map.of(
                     "message", "Role removed successfully",
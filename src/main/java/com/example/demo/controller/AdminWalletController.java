@@ -1,9 +1,15 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CursorPage;
 import com.example.demo.entity.Wallet;
 import com.example.demo.entity.CarbonWallet;
+import com.example.demo.entity.LedgerEntry;
 import com.example.demo.entity.WalletTransaction;
 import com.example.demo.repository.*;
+import com.example.demo.service.CarbonWalletService;
+import com.example.demo.service.LedgerService;
+import com.example.demo.service.WalletService;
+import com.example.demo.util.KeysetCursor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +35,9 @@ public class AdminWalletController {
     private final CarbonWalletRepository carbonWalletRepository;
     private final WalletTransactionRepository walletTransactionRepository;
     private final UserRepository userRepository;
+    private final WalletService walletService;
+    private final CarbonWalletService carbonWalletService;
+    private final LedgerService ledgerService;
 
     /**
      * Get all wallets overview
@@ -102,66 +111,42 @@ public class AdminWalletController {
     }
 
     /**
-     * Get all wallet transactions
+     * Get all wallet transactions (newest first, cursor pagination)
      */
     @GetMapping("/transactions")
-    @Operation(summary = "Get all wallet transactions", description = "Get all money wallet transactions in the system")
+    @Operation(summary = "Get all wallet transactions", description = "Money wallet transactions in the system, newest first; pass nextCursor as cursor for the next page")
     public ResponseEntity<?> getAllWalletTransactions(
-            @RequestParam(required = false, defaultValue = "100") int limit
+            @RequestParam(required = false, defaultValue = "100") int limit,
+            @RequestParam(required = false) String cursor
     ) {
         log.info("Admin - Get all wallet transactions (limit: {})", limit);
 
-        List<WalletTransaction> transactions = walletTransactionRepository.findAll();
-        
-        // Sort by created date desc and limit
-        List<WalletTransaction> limitedTransactions = transactions.stream()
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                .limit(limit)
-                .collect(Collectors.toList());
-
-        // Map to DTO để tránh lazy loading issues
-        List<Map<String, Object>> transactionDTOs = limitedTransactions.stream().map(tx -> {
-            Map<String, Object> dto = new LinkedHashMap<>();
-            dto.put("id", tx.getId());
-            dto.put("type", tx.getType() != null ? tx.getType().toString() : null);
-            dto.put("amount", tx.getAmount());
-            dto.put("status", tx.getStatus() != null ? tx.getStatus().toString() : null);
-            dto.put("paymentMethod", tx.getPaymentMethod());
-            dto.put("description", tx.getDescription());
-            dto.put("externalRef", tx.getExternalRef());
-            dto.put("createdAt", tx.getCreatedAt());
-            
-            // Load wallet và user info
-            if (tx.getWallet() != null) {
-                Wallet wallet = tx.getWallet();
-                Map<String, Object> walletInfo = new LinkedHashMap<>();
-                if (wallet.getUser() != null) {
-                    Map<String, Object> userInfo = new LinkedHashMap<>();
-                    userInfo.put("id", wallet.getUser().getId());
-                    userInfo.put("email", wallet.getUser().getEmail());
-                    userInfo.put("fullName", wallet.getUser().getFullName());
-                    walletInfo.put("user", userInfo);
-                }
-                walletInfo.put("id", wallet.getId());
-                dto.put("wallet", walletInfo);
-            }
-            
-            return dto;
-        }).collect(Collectors.toList());
-
-        return ResponseEntity.ok(Map.of(
-                "transactions", transactionDTOs,
-                "total", transactions.size(),
-                "showing", limitedTransactions.size()
-        ));
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int size = CursorPage.clampSize(limit);
+        List<WalletTransaction> rows = walletTransactionRepository.findPageBefore(
+                after.createdAt(), after.id(), CursorPage.fetchLimit(size));
+        CursorPage<Map<String, Object>> page = CursorPage.of(rows, size,
+                AdminWalletController::cursorOf, tx -> toDto(tx, true));
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("transactions", page.items());
+        response.put("total", walletTransactionRepository.count());
+        response.put("showing", page.items().size());
+        response.put("nextCursor", page.nextCursor());
+        response.put("hasMore", page.hasMore());
+        return ResponseEntity.ok(response);
     }
 
     /**
-     * Get wallet transactions by user
+     * Get wallet transactions by user (newest first, cursor pagination)
      */
     @GetMapping("/user/{userId}/transactions")
-    @Operation(summary = "Get user wallet transactions", description = "Get all wallet transactions for a specific user")
-    public ResponseEntity<?> getUserWalletTransactions(@PathVariable Long userId) {
+    @Operation(summary = "Get user wallet transactions", description = "Wallet transactions of a specific user, newest first; pass nextCursor as cursor for the next page")
+    public ResponseEntity<?> getUserWalletTransactions(
+            @PathVariable Long userId,
+            @RequestParam(required = false, defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor
+    ) {
         log.info("Admin - Get wallet transactions for user ID: {}", userId);
 
         Wallet wallet = walletRepository.findByUserId(userId);
@@ -170,14 +155,98 @@ public class AdminWalletController {
                     .body(Map.of("error", "Wallet not found for user"));
         }
 
-        List<WalletTransaction> transactions = wallet.getWalletTransactions();
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int limit = CursorPage.clampSize(size);
+        List<WalletTransaction> rows = walletTransactionRepository.findPageByWalletBefore(
+                wallet.getId(), after.createdAt(), after.id(), CursorPage.fetchLimit(limit));
+        CursorPage<Map<String, Object>> page = CursorPage.of(rows, limit,
+                AdminWalletController::cursorOf, tx -> toDto(tx, false));
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("userId", userId);
+        response.put("walletId", wallet.getId());
+        response.put("transactions", page.items());
+        response.put("count", page.items().size());
+        response.put("nextCursor", page.nextCursor());
+        response.put("hasMore", page.hasMore());
+        return ResponseEntity.ok(response);
+    }
+
+    // Map to DTO để tránh lazy loading issues
+    private static Map<String, Object> toDto(WalletTransaction tx, boolean includeWallet) {
+        Map<String, Object> dto = new LinkedHashMap<>();
+        dto.put("id", tx.getId());
+        dto.put("type", tx.getType() != null ? tx.getType().toString() : null);
+        dto.put("amount", tx.getAmount());
+        dto.put("status", tx.getStatus() != null ? tx.getStatus().toString() : null);
+        dto.put("paymentMethod", tx.getPaymentMethod());
+        dto.put("description", tx.getDescription());
+        dto.put("externalRef", tx.getExternalRef());
+        dto.put("createdAt", tx.getCreatedAt());
+
+        // Wallet và user info (đã JOIN FETCH)
+        if (includeWallet && tx.getWallet() != null) {
+            Wallet wallet = tx.getWallet();
+            Map<String, Object> walletInfo = new LinkedHashMap<>();
+            if (wallet.getUser() != null) {
+                Map<String, Object> userInfo = new LinkedHashMap<>();
+                userInfo.put("id", wallet.getUser().getId());
+                userInfo.put("email", wallet.getUser().getEmail());
+                userInfo.put("fullName", wallet.getUser().getFullName());
+                walletInfo.put("user", userInfo);
+            }
+            walletInfo.put("id", wallet.getId());
+            dto.put("wallet", walletInfo);
+        }
+        return dto;
+    }
+
+    private static KeysetCursor cursorOf(WalletTransaction tx) {
+        return new KeysetCursor(tx.getCreatedAt(), tx.getId());
+    }
+
+    /**
+     * Ledger statement of a user: latest balance snapshot plus the postings after it
+     */
+    @GetMapping("/user/{userId}/ledger")
+    @Operation(summary = "Get user ledger statement", description = "Snapshot balance plus recent journal tail, reconciled against the wallet balance")
+    public ResponseEntity<?> getUserLedger(
+            @PathVariable Long userId,
+            @RequestParam(required = false, defaultValue = "MONEY") LedgerEntry.Asset asset
+    ) {
+        log.info("Admin - Get {} ledger for user ID: {}", asset, userId);
+
+        if (!userRepository.existsById(userId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "User not found"));
+        }
+
+        LedgerService.Statement statement = ledgerService.getStatement(asset, LedgerService.userAccount(userId));
+        BigDecimal walletBalance = asset == LedgerEntry.Asset.MONEY
+                ? walletRepository.findBalanceByUserId(userId).orElse(BigDecimal.ZERO)
+                : carbonWalletRepository.findBalanceByOwnerId(userId).orElse(BigDecimal.ZERO);
 
-        return ResponseEntity.ok(Map.of(
-                "userId", userId,
-                "walletId", wallet.getId(),
-                "transactions", transactions,
-                "count", transactions.size()
-        ));
+        List<Map<String, Object>> tail = statement.tail().stream().map(p -> {
+            Map<String, Object> dto = new LinkedHashMap<>();
+            dto.put("id", p.getId());
+            dto.put("direction", p.getDirection().toString());
+            dto.put("amount", p.getAmount());
+            dto.put("createdAt", p.getCreatedAt());
+            return dto;
+        }).collect(Collectors.toList());
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("userId", userId);
+        response.put("asset", asset.toString());
+        response.put("account", statement.account());
+        response.put("snapshotBalance", statement.snapshotBalance());
+        response.put("snapshotAt", statement.snapshotAt());
+        response.put("ledgerBalance", statement.balance());
+        response.put("walletBalance", walletBalance);
+        response.put("inSync", statement.balance().compareTo(walletBalance) == 0);
+        response.put("tail", tail);
+
+        return ResponseEntity.ok(response);
     }
 
     /**
@@ -199,21 +268,15 @@ public class AdminWalletController {
                         .body(Map.of("error", "Wallet not found for user"));
             }
 
-            BigDecimal oldBalance = wallet.getBalance();
-            BigDecimal newBalance = oldBalance.add(amount);
-            wallet.setBalance(newBalance);
-            walletRepository.save(wallet);
-
-            // Create transaction record
-            WalletTransaction transaction = new WalletTransaction();
-            transaction.setWallet(wallet);
-            transaction.setAmount(amount.abs());
-            transaction.setType(amount.compareTo(BigDecimal.ZERO) > 0 ? 
-                    WalletTransaction.TransactionType.CREDIT : 
-                    WalletTransaction.TransactionType.DEBIT);
-            transaction.setStatus(WalletTransaction.TransactionStatus.SUCCESS);
-            transaction.setDescription("Admin adjustment: " + reason);
-            walletTransactionRepository.save(transaction);
+            // Atomic delta + WalletTransaction record handled by WalletService
+            if (amount.compareTo(BigDecimal.ZERO) > 0) {
+                walletService.credit(userId, amount, "Admin adjustment: " + reason, LedgerEntry.EntryType.ADJUSTMENT);
+            } else if (amount.compareTo(BigDecimal.ZERO) < 0) {
+                walletService.debit(userId, amount.abs(), "Admin adjustment: " + reason, LedgerEntry.EntryType.ADJUSTMENT);
+            }
+
+            BigDecimal newBalance = walletService.getBalance(userId);
+            BigDecimal oldBalance = newBalance.subtract(amount);
 
             return ResponseEntity.ok(Map.of(
                     "message", "Wallet balance adjusted successfully",
@@ -223,6 +286,9 @@ public class AdminWalletController {
                     "newBalance", newBalance,
                     "reason", reason
             ));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Insufficient balance"));
         } catch (Exception e) {
             log.error("Error adjusting wallet: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -243,19 +309,18 @@ public class AdminWalletController {
         log.info("Admin - Adjust carbon wallet for user ID {}: amount={}", userId, amount);
 
         try {
-            CarbonWallet carbonWallet = carbonWalletRepository.findByOwner_Id(userId)
-                    .orElseThrow(() -> new RuntimeException("Carbon wallet not found"));
+            if (carbonWalletRepository.findByOwner_Id(userId).isEmpty()) {
+                throw new RuntimeException("Carbon wallet not found");
+            }
 
-            BigDecimal oldBalance = carbonWallet.getBalance();
-            BigDecimal newBalance = oldBalance.add(amount);
-            
-            if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Insufficient carbon balance"));
+            if (amount.compareTo(BigDecimal.ZERO) > 0) {
+                carbonWalletService.credit(userId, amount, "Admin adjustment: " + reason, LedgerEntry.EntryType.ADJUSTMENT);
+            } else if (amount.compareTo(BigDecimal.ZERO) < 0) {
+                carbonWalletService.debit(userId, amount.abs(), "Admin adjustment: " + reason, LedgerEntry.EntryType.ADJUSTMENT);
             }
 
-            carbonWallet.setBalance(newBalance);
-            carbonWalletRepository.save(carbonWallet);
+            BigDecimal newBalance = carbonWalletService.getBalance(userId);
+            BigDecimal oldBalance = newBalance.subtract(amount);
 
             return ResponseEntity.ok(Map.of(
                     "message", "Carbon wallet balance adjusted successfully",
@@ -265,6 +330,9 @@ public class AdminWalletController {
                     "newBalance", newBalance,
                     "reason", reason
             ));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Insufficient carbon balance"));
         } catch (Exception e) {
             log.error("Error adjusting carbon wallet: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -5,6 +5,7 @@ import com.example.demo.entity.WalletTransaction;
 import com.example.demo.repository.WalletRepository;
 import com.example.demo.repository.WalletTransactionRepository;
 import com.example.demo.service.AdminNotificationService;
+import com.example.demo.service.WalletService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +30,7 @@ public class AdminWalletTransactionController {
     private final WalletTransactionRepository transactionRepository;
     private final WalletRepository walletRepository;
     private final AdminNotificationService notificationService;
+    private final WalletService walletService;
 
     /**
      * Approve a PENDING transaction (manually process it)
@@ -57,12 +59,12 @@ public class AdminWalletTransactionController {
 
         // Add money to wallet
         Wallet wallet = transaction.getWallet();
-        BigDecimal oldBalance = wallet.getBalance();
-        wallet.setBalance(oldBalance.add(transaction.getAmount()));
-        walletRepository.save(wallet);
+        walletService.settleTopup(transaction);
+        BigDecimal newBalance = walletRepository.findBalanceByUserId(wallet.getUser().getId()).orElse(BigDecimal.ZERO);
+        BigDecimal oldBalance = newBalance.subtract(transaction.getAmount());
 
         log.info("✅ Admin approved transaction {}: amount {} VND. Wallet balance: {} -> {}", 
-                transactionId, transaction.getAmount(), oldBalance, wallet.getBalance());
+                transactionId, transaction.getAmount(), oldBalance, newBalance);
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -70,7 +72,7 @@ public class AdminWalletTransactionController {
         response.put("transactionId", transactionId);
         response.put("amount", transaction.getAmount());
         response.put("oldBalance", oldBalance);
-        response.put("newBalance", wallet.getBalance());
+        response.put("newBalance", newBalance);
 
         return ResponseEntity.ok(response);
     }
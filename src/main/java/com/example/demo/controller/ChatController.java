@@ -1,9 +1,12 @@
 package com.example.demo.controller;
 
 import com.example.demo.service.AIChatService;
+import com.example.demo.service.ChatStreamService;
 import com.example.demo.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,6 +19,7 @@ import java.util.Map;
 public class ChatController {
 
     private final AIChatService aiChatService;
+    private final ChatStreamService chatStreamService;
     private final JwtUtil jwtUtil;
 
     @PostMapping
@@ -45,4 +49,36 @@ public class ChatController {
 
         return ResponseEntity.ok(Map.of("reply", reply));
     }
+
+    /**
+     * Streaming variant of {@link #chat}: text/event-stream of "delta" events with
+     * {@code {"text": ...}} and a final "done" event.
+     */
+    @PostMapping("/stream")
+    public ResponseEntity<?> chatStream(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestBody Map<String, String> body
+    ) {
+
+        String message = body.getOrDefault("message", "").trim();
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(401).contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("reply", "⚠ Token không hợp lệ hoặc chưa đăng nhập"));
+        }
+
+        Long userId = jwtUtil.extractUserId(authHeader.substring(7));
+        if (userId == null) {
+            return ResponseEntity.status(401).contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("reply", "⚠ Token không hợp lệ"));
+        }
+
+        log.info("User {} hỏi (stream): {}", userId, message);
+
+        return chatStreamService.open(userId, message)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(Map.of("reply", "⚠ Hệ thống đang bận, bạn thử lại sau nhé")));
+    }
 }
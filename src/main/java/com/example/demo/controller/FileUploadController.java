@@ -2,30 +2,60 @@ package com.example.demo.controller;
 
 import com.example.demo.entity.FileMetadata; // Import entity
 import com.example.demo.repository.FileMetadataRepository; // Import repository
+import com.example.demo.security.PrincipalCache;
+import com.example.demo.storage.BlobStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired; // Import Autowired
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime; // Import time
+import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api")
 public class FileUploadController {
 
+    // Tomcat request attributes for handing a file region to the connector's sendfile
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final FileMetadataRepository fileMetadataRepository;
+    private final BlobStore blobStore;
+    private final PrincipalCache principalCache;
 
     @Autowired
-    public FileUploadController(FileMetadataRepository fileMetadataRepository) {
+    public FileUploadController(FileMetadataRepository fileMetadataRepository, BlobStore blobStore,
+                                PrincipalCache principalCache) {
         this.fileMetadataRepository = fileMetadataRepository;
+        this.blobStore = blobStore;
+        this.principalCache = principalCache;
     }
 
     /**
      * Endpoint để upload file minh chứng cho một Yêu cầu phát hành tín chỉ.
+     * File được lưu theo SHA-256 nội dung, nên cùng một file upload nhiều lần chỉ lưu một bản.
      * @param file File được upload
      * @param requestId ID của CreditIssuanceRequest
      * @param userId ID của người upload (EV Owner)
@@ -42,39 +72,156 @@ public class FileUploadController {
         }
 
         try {
-            // Thư mục lưu file tạm thời trong container
-            String uploadDir = "/tmp/uploads/";
-            File dir = new File(uploadDir);
-            if (!dir.exists()) {
-                dir.mkdirs();
+            // 1. Lưu file vật lý vào blob store (key = SHA-256 của nội dung)
+            BlobStore.StoredBlob blob;
+            try (InputStream in = file.getInputStream()) {
+                blob = blobStore.put(in);
             }
 
-            // Tạo tên file duy nhất để tránh ghi đè (ví dụ: timestamp + tên gốc)
-            String originalFilename = file.getOriginalFilename() != null ? file.getOriginalFilename() : "file";
-            String uniqueFilename = System.currentTimeMillis() + "_" + originalFilename;
-            String filePath = uploadDir + uniqueFilename;
-            
-            File destination = new File(filePath);
-
-            // 1. Lưu file vật lý
-            file.transferTo(destination);
-
             // 2. Lưu thông tin metadata vào Database
+            String originalFilename = file.getOriginalFilename() != null ? file.getOriginalFilename() : "file";
             FileMetadata metadata = new FileMetadata();
-            metadata.setFilename(uniqueFilename); // Lưu tên file duy nhất
+            metadata.setFilename(originalFilename);
             metadata.setFileType(file.getContentType());
-            metadata.setFileSize(file.getSize());
-            metadata.setFilePath(destination.getAbsolutePath()); // Lưu đường dẫn tuyệt đối trong container
+            metadata.setFileSize(blob.size());
+            metadata.setFilePath(blob.key()); // Blob key thay cho đường dẫn tuyệt đối
+            metadata.setContentSha256(blob.key());
             metadata.setUploadedAt(LocalDateTime.now());
             metadata.setUploadedBy(userId); // Gán userId
             metadata.setCreditRequestId(requestId); // Gán requestId
 
-            fileMetadataRepository.save(metadata); // Lưu vào DB
+            FileMetadata saved = fileMetadataRepository.save(metadata); // Lưu vào DB
 
-            return ResponseEntity.ok("File uploaded and metadata saved: " + destination.getAbsolutePath());
+            return ResponseEntity.ok("File uploaded and metadata saved: /api/upload/files/" + saved.getId());
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("File upload failed: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Tải file minh chứng (cho CVA xem xét). Hỗ trợ header Range một đoạn (206 Partial Content);
+     * nội dung được chuyển thẳng từ file sang socket (sendfile / transferTo), không qua buffer heap.
+     * Chỉ người upload hoặc CVA/ADMIN được tải; người khác nhận 404 như file không tồn tại.
+     */
+    @GetMapping("/upload/files/{id}")
+    public void downloadFile(@PathVariable Long id, Authentication authentication,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<FileMetadata> found = fileMetadataRepository.findById(id);
+        if (found.isEmpty() || !canDownload(authentication, found.get())) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "File not found");
+            return;
+        }
+        FileMetadata metadata = found.get();
+
+        // File cũ (trước khi có blob store) vẫn lưu đường dẫn tuyệt đối
+        String key = metadata.getContentSha256();
+        Optional<Path> localFile = key != null ? blobStore.localFile(key) : legacyFile(metadata.getFilePath());
+        long length;
+        if (localFile.isPresent()) {
+            length = Files.size(localFile.get());
+        } else if (key != null) {
+            Optional<BlobStore.BlobInfo> info = blobStore.stat(key);
+            if (info.isEmpty()) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND, "File content missing");
+                return;
+            }
+            length = info.get().size();
+        } else {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "File content missing");
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && length > 0) {
+            boolean partial = false;
+            boolean satisfiable;
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                // Nhiều đoạn (multipart/byteranges) thì trả cả file
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    partial = true;
+                }
+                // getRangeStart không kiểm tra vị trí đầu: "bytes=1000-" với file 500 byte
+                satisfiable = start < length && start <= end;
+            } catch (IllegalArgumentException ex) {
+                satisfiable = false;
+            }
+            if (!satisfiable) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (partial) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        long count = end - start + 1;
+
+        response.setContentType(metadata.getFileType() != null
+                ? metadata.getFileType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(metadata.getFilename(), StandardCharsets.UTF_8).build().toString());
+        if (key != null) {
+            response.setHeader(HttpHeaders.ETAG, "\"" + key + "\"");
+        }
+        response.setContentLengthLong(count);
+        if (count <= 0) {
+            return;
+        }
+
+        if (localFile.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat ghi đoạn file ra socket sau khi handler trả về
+            request.setAttribute(SENDFILE_FILENAME, localFile.get().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        if (key != null) {
+            blobStore.copyRange(key, start, count, out);
+        } else {
+            try (FileChannel in = FileChannel.open(localFile.get(), StandardOpenOption.READ)) {
+                long position = start;
+                long stop = start + count;
+                while (position < stop) {
+                    long sent = in.transferTo(position, stop - position, out);
+                    if (sent <= 0) {
+                        break;
+                    }
+                    position += sent;
+                }
+            }
+        }
+    }
+
+    // Người upload (principal là email, đối chiếu qua PrincipalCache) hoặc CVA/ADMIN
+    private boolean canDownload(Authentication authentication, FileMetadata metadata) {
+        if (authentication == null) {
+            return false;
+        }
+        boolean reviewer = authentication.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()) || "ROLE_CVA".equals(a.getAuthority()));
+        if (reviewer) {
+            return true;
+        }
+        return metadata.getUploadedBy() != null && principalCache.get(authentication.getName())
+                .map(principal -> metadata.getUploadedBy().equals(principal.userId()))
+                .orElse(false);
+    }
+
+    private static Optional<Path> legacyFile(String filePath) {
+        if (filePath == null) {
+            return Optional.empty();
+        }
+        Path path = Path.of(filePath);
+        return path.isAbsolute() && Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.ListingBrowseResponse;
 import com.example.demo.dto.ListingRequest;
 import com.example.demo.dto.ListingResponse;
+import com.example.demo.entity.Listing;
+import com.example.demo.service.ListingFilterIndex;
 import com.example.demo.service.ListingService;
+import com.example.demo.service.OrderBookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -15,7 +20,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/listings")
@@ -25,6 +32,7 @@ import java.util.List;
 public class ListingController {
     
     private final ListingService listingService;
+    private final OrderBookService orderBookService;
     
     @PostMapping
     @Operation(summary = "Create a new listing", description = "Create a new carbon credit listing")
@@ -50,6 +58,53 @@ public class ListingController {
         return ResponseEntity.ok(listings);
     }
     
+    @GetMapping("/scroll")
+    @Operation(summary = "Scroll all listings", description = "Newest-first listings with cursor pagination")
+    public ResponseEntity<CursorPage<ListingResponse>> scrollListings(
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size) {
+        log.info("Scrolling listings");
+        return ResponseEntity.ok(listingService.scrollListings(cursor, size));
+    }
+    
+    @GetMapping("/open/scroll")
+    @Operation(summary = "Scroll open listings", description = "Newest-first open listings with cursor pagination")
+    public ResponseEntity<CursorPage<ListingResponse>> scrollOpenListings(
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size) {
+        log.info("Scrolling open listings");
+        return ResponseEntity.ok(listingService.scrollOpenListings(cursor, size));
+    }
+    
+    @GetMapping("/browse")
+    @Operation(summary = "Browse listings", description = "Filter by status, price and carbon amount with sorting, plus price histogram, quantity buckets and status counts for the filter sidebar")
+    public ResponseEntity<ListingBrowseResponse> browseListings(
+            @Parameter(description = "Statuses to include (default OPEN)") @RequestParam(required = false) Set<Listing.ListingStatus> status,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) BigDecimal minCarbon,
+            @RequestParam(required = false) BigDecimal maxCarbon,
+            @Parameter(description = "NEWEST, PRICE_ASC, PRICE_DESC, AMOUNT_ASC or AMOUNT_DESC") @RequestParam(defaultValue = "NEWEST") ListingFilterIndex.Sort sort,
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Number of price histogram bars (max 50)") @RequestParam(defaultValue = "10") int priceBuckets) {
+        log.info("Browsing listings: status={}, price=[{}, {}], carbon=[{}, {}], sort={}",
+                status, minPrice, maxPrice, minCarbon, maxCarbon, sort);
+        ListingFilterIndex.Query query = new ListingFilterIndex.Query(
+                status == null || status.isEmpty() ? Set.of(Listing.ListingStatus.OPEN) : status,
+                minPrice, maxPrice, minCarbon, maxCarbon, sort,
+                Math.max(page, 0), Math.max(1, Math.min(size, 100)), Math.max(1, Math.min(priceBuckets, 50)));
+        return ResponseEntity.ok(listingService.browseListings(query));
+    }
+    
+    @GetMapping("/order-book")
+    @Operation(summary = "Get order book depth", description = "Aggregated ask levels of open listings, best price first")
+    public ResponseEntity<List<OrderBookService.Level>> getOrderBook(
+            @Parameter(description = "Number of price levels") @RequestParam(defaultValue = "20") int depth) {
+        log.info("Fetching order book depth: {}", depth);
+        return ResponseEntity.ok(orderBookService.getDepth(depth));
+    }
+    
     @GetMapping("/search")
     @Operation(summary = "Search listings", description = "Search listings by keyword")
     public ResponseEntity<Page<ListingResponse>> searchListings(
@@ -61,11 +116,13 @@ public class ListingController {
     }
     
     @GetMapping("/seller/{sellerId}")
-    @Operation(summary = "Get listings by seller", description = "Retrieve all listings created by a specific seller")
-    public ResponseEntity<List<ListingResponse>> getListingsBySeller(
-            @Parameter(description = "Seller ID") @PathVariable Long sellerId) {
+    @Operation(summary = "Get listings by seller", description = "Listings created by a specific seller, newest first, with cursor pagination")
+    public ResponseEntity<CursorPage<ListingResponse>> getListingsBySeller(
+            @Parameter(description = "Seller ID") @PathVariable Long sellerId,
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size) {
         log.info("Fetching listings for seller ID: {}", sellerId);
-        List<ListingResponse> listings = listingService.getListingsBySeller(sellerId);
+        CursorPage<ListingResponse> listings = listingService.getListingsBySeller(sellerId, cursor, size);
         return ResponseEntity.ok(listings);
     }
     
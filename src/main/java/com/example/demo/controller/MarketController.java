@@ -0,0 +1,50 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.PriceBand;
+import com.example.demo.entity.MarketCandle;
+import com.example.demo.service.MarketDataService;
+import com.example.demo.service.PriceDistributionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/market")
+@RequiredArgsConstructor
+@Tag(name = "Market Data", description = "Price candles and statistics of completed trades")
+public class MarketController {
+
+    private static final int MAX_CANDLES = 1440;
+
+    private final MarketDataService marketDataService;
+    private final PriceDistributionService priceDistributionService;
+
+    @GetMapping("/candles")
+    @Operation(summary = "Price candles", description = "Newest OHLC candles of completed trades, oldest first")
+    public ResponseEntity<List<MarketDataService.Candle>> getCandles(
+            @Parameter(description = "MINUTE, HOUR or DAY") @RequestParam(defaultValue = "HOUR") MarketCandle.Interval interval,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(marketDataService.getCandles(interval, Math.min(Math.max(limit, 1), MAX_CANDLES)));
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Market statistics", description = "Last price and rolling 24 hour high, low, VWAP and volume")
+    public ResponseEntity<MarketDataService.MarketStats> getStats() {
+        return ResponseEntity.ok(marketDataService.getStats());
+    }
+
+    @GetMapping("/price-band")
+    @Operation(summary = "Price distribution", description = "p10/p50/p90 and suggested price of trades (or asks when nothing traded) in a window")
+    public ResponseEntity<PriceBand> getPriceBand(
+            @Parameter(description = "DAY, WEEK or MONTH") @RequestParam(defaultValue = "WEEK") PriceDistributionService.Window window) {
+        return ResponseEntity.ok(priceDistributionService.getPriceBand(window));
+    }
+}
@@ -4,6 +4,7 @@ import com.example.demo.entity.Role;
 import com.example.demo.entity.User;
 import com.example.demo.repository.RoleRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -19,6 +20,7 @@ public class RoleController {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final PrincipalCache principalCache;
 
     /**
      * Assign role to user (Temporary - for setup only)
@@ -38,6 +40,7 @@ public class RoleController {
 
             user.getRoles().add(role);
             userRepository.save(user);
+            principalCache.invalidate(userId);
 
             log.info("Assigned role {} to user {}", roleName, userId);
 
@@ -1,5 +1,8 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.MarketOrderRequest;
+import com.example.demo.dto.MarketOrderResponse;
 import com.example.demo.dto.TransactionRequest;
 import com.example.demo.dto.TransactionResponse;
 import com.example.demo.service.TransactionService;
@@ -13,8 +16,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/transactions")
 @RequiredArgsConstructor
@@ -32,6 +33,14 @@ public class TransactionController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
+    @PostMapping("/market-order")
+    @Operation(summary = "Submit a buy order", description = "Buy credits across the best-priced open listings (market order, or limit order when limitPrice is set)")
+    public ResponseEntity<MarketOrderResponse> submitMarketOrder(@Valid @RequestBody MarketOrderRequest request) {
+        log.info("Submitting market order for buyer ID: {}", request.getBuyerId());
+        MarketOrderResponse response = transactionService.executeMarketOrder(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+    
     @PostMapping("/{id}/confirm")
     @Operation(summary = "Confirm transaction", description = "Confirm a pending transaction (seller action)")
     public ResponseEntity<TransactionResponse> confirmTransaction(
@@ -60,29 +69,35 @@ public class TransactionController {
     }
     
     @GetMapping("/mine")
-    @Operation(summary = "Get user transactions", description = "Retrieve all transactions for the current user")
-    public ResponseEntity<List<TransactionResponse>> getMyTransactions(
-            @Parameter(description = "User ID") @RequestParam Long userId) {
+    @Operation(summary = "Get user transactions", description = "Transactions of the current user, newest first, with cursor pagination")
+    public ResponseEntity<CursorPage<TransactionResponse>> getMyTransactions(
+            @Parameter(description = "User ID") @RequestParam Long userId,
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size) {
         log.info("Fetching transactions for user ID: {}", userId);
-        List<TransactionResponse> transactions = transactionService.getTransactionsByUserId(userId);
+        CursorPage<TransactionResponse> transactions = transactionService.getTransactionsByUserId(userId, cursor, size);
         return ResponseEntity.ok(transactions);
     }
     
     @GetMapping("/buyer/{buyerId}")
-    @Operation(summary = "Get transactions by buyer", description = "Retrieve all transactions where user is the buyer")
-    public ResponseEntity<List<TransactionResponse>> getTransactionsByBuyer(
-            @Parameter(description = "Buyer ID") @PathVariable Long buyerId) {
+    @Operation(summary = "Get transactions by buyer", description = "Transactions where user is the buyer, newest first, with cursor pagination")
+    public ResponseEntity<CursorPage<TransactionResponse>> getTransactionsByBuyer(
+            @Parameter(description = "Buyer ID") @PathVariable Long buyerId,
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size) {
         log.info("Fetching transactions for buyer ID: {}", buyerId);
-        List<TransactionResponse> transactions = transactionService.getTransactionsByBuyer(buyerId);
+        CursorPage<TransactionResponse> transactions = transactionService.getTransactionsByBuyer(buyerId, cursor, size);
         return ResponseEntity.ok(transactions);
     }
     
     @GetMapping("/seller/{sellerId}")
-    @Operation(summary = "Get transactions by seller", description = "Retrieve all transactions where user is the seller")
-    public ResponseEntity<List<TransactionResponse>> getTransactionsBySeller(
-            @Parameter(description = "Seller ID") @PathVariable Long sellerId) {
+    @Operation(summary = "Get transactions by seller", description = "Transactions where user is the seller, newest first, with cursor pagination")
+    public ResponseEntity<CursorPage<TransactionResponse>> getTransactionsBySeller(
+            @Parameter(description = "Seller ID") @PathVariable Long sellerId,
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size) {
         log.info("Fetching transactions for seller ID: {}", sellerId);
-        List<TransactionResponse> transactions = transactionService.getTransactionsBySeller(sellerId);
+        CursorPage<TransactionResponse> transactions = transactionService.getTransactionsBySeller(sellerId, cursor, size);
         return ResponseEntity.ok(transactions);
     }
 }
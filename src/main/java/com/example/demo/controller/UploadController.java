@@ -1,11 +1,17 @@
 package com.example.demo.controller;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -17,6 +23,7 @@ import com.example.demo.dto.UploadResponse;
 import com.example.demo.service.CarbonCreditService;
 import com.example.demo.service.CarbonWalletService;
 import com.example.demo.service.FileUploadService;
+import com.example.demo.service.UploadJobService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,51 +38,47 @@ public class UploadController {
     private final CarbonWalletService carbonWalletService;
     private final CarbonCreditService carbonCreditService;
     private final com.example.demo.service.UploadRecordService uploadRecordService;
+    private final UploadJobService uploadJobService;
 
+    /**
+     * Estimate on the request thread. Shares the job queue's admission limit, so it
+     * responds 429 rather than parsing when the pipeline is saturated.
+     */
     @PostMapping(value = "/estimate", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-        @Transactional
-        public ResponseEntity<UploadResponse> uploadAndEstimate(
+    public ResponseEntity<?> uploadAndEstimate(
             @RequestParam("file") MultipartFile file,
             @RequestParam("userId") Long userId
-    ) {
-        // preliminary: ensure file contains required journey sections
-        boolean hasSections = fileUploadService.hasRequiredJourneySections(file);
-        String extracted = fileUploadService.extractText(file);
-        if (!hasSections) {
-            UploadResponse bad = new UploadResponse();
-            bad.setEstimatedCo2Kg(BigDecimal.ZERO);
-            bad.setCreditsIssued(BigDecimal.ZERO.setScale(4, RoundingMode.HALF_UP));
-            bad.setMessage("File thiếu phần bắt buộc. Vui lòng kiểm tra lại.");
-            bad.setExtractedText(extracted);
-            return ResponseEntity.badRequest().body(bad);
-        }
-
-        // 1. parse and estimate CO2 in kg
-        BigDecimal co2Kg = fileUploadService.parseAndEstimateCo2Kg(file);
-        if (co2Kg == null) co2Kg = BigDecimal.ZERO;
-
-        // 2. convert kg -> tons (1 ton = 1000 kg), keep 4 decimals
-        BigDecimal creditsTons = co2Kg.divide(BigDecimal.valueOf(1000), 4, RoundingMode.HALF_UP);
-
-        // 3. save upload record (so valid uploads are persisted)
-        try {
-            uploadRecordService.saveUpload(userId, file.getOriginalFilename(), extracted, co2Kg, creditsTons);
-        } catch (Exception ex) {
-            log.error("Failed to save upload record", ex);
-            // continue — do not block credit issuance for storage failure, but log
-        }
-
-        // 4. create CarbonCredit record and credit to user's carbon wallet (credits in tons)
-        if (creditsTons.compareTo(BigDecimal.ZERO) > 0) {
-            // create CarbonCredit record (CarbonCredit.amount is Double)
-            carbonCreditService.issueCredit(userId, creditsTons.doubleValue(), "Uploaded file: " + file.getOriginalFilename());
+    ) throws IOException {
+        // hash, then parse once (unless the same file was uploaded before), record and issue credits
+        return uploadJobService.processInline(userId, file)
+                .<ResponseEntity<?>>map(outcome -> switch (outcome.status()) {
+                    case REJECTED -> ResponseEntity.badRequest().body(outcome.response());
+                    case DUPLICATE -> ResponseEntity.status(HttpStatus.CONFLICT).body(outcome.response());
+                    default -> ResponseEntity.ok(outcome.response());
+                })
+                .orElseGet(UploadController::queueFull);
+    }
 
-            // add to carbon wallet (wallet uses BigDecimal tons)
-            carbonWalletService.credit(userId, creditsTons, "Uploaded file: " + file.getOriginalFilename());
-        }
+    /**
+     * Queue the upload for background processing and return the job id right away.
+     * Responds 429 when the processing queue is full.
+     */
+    @PostMapping(value = "/estimate/async", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> submitEstimateJob(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam("userId") Long userId
+    ) throws IOException {
+        return uploadJobService.submit(userId, file)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.accepted().body(job))
+                .orElseGet(UploadController::queueFull);
+    }
 
-        UploadResponse resp = new UploadResponse(co2Kg, creditsTons, "OK", extracted);
-        return ResponseEntity.ok(resp);
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getEstimateJob(@PathVariable String jobId) {
+        return uploadJobService.getJob(jobId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Job not found or expired")));
     }
 
     @PostMapping(value = "/estimate/form", consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -104,4 +107,10 @@ public class UploadController {
             return ResponseEntity.status(500).body("Failed to issue credits: " + ex.getMessage());
         }
     }
+
+    private static ResponseEntity<?> queueFull() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of("error", "Upload queue is full, please retry later"));
+    }
 }
@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Quantities found in an uploaded document, summed per unit.
+ *
+ * @param explicitCo2Kg CO2 stated directly (kg, tonnes converted to kg)
+ * @param energyKwh     energy usage in kWh
+ * @param distanceKm    distance in km
+ * @param fuelLiters    fuel in litres
+ */
+public record Co2Figures(BigDecimal explicitCo2Kg, BigDecimal energyKwh, BigDecimal distanceKm, BigDecimal fuelLiters) {
+}
@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One quantity recognised in an uploaded document.
+ *
+ * @param kind     CO2_MASS, ENERGY, DISTANCE, FUEL or CO2_NEARBY (a bare number next to "co2")
+ * @param quantity the number as written
+ * @param unit     canonical unit symbol (kg, t, kWh, MWh, km, L)
+ * @param co2Kg    CO2 in kilograms this quantity contributes
+ * @param offset   character offset of the number in the extracted text
+ */
+public record Co2Finding(String kind, BigDecimal quantity, String unit, BigDecimal co2Kg, long offset) {
+}
@@ -0,0 +1,39 @@
+package com.example.demo.dto;
+
+import com.example.demo.util.KeysetCursor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. Pass {@code nextCursor} back as {@code cursor} to get
+ * the following page; it is null on the last page.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor, boolean hasMore) {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * Limit for the page query: one row more than the page, to tell whether another page exists.
+     */
+    public static Pageable fetchLimit(int size) {
+        return PageRequest.ofSize(size + 1);
+    }
+
+    /**
+     * Build the page from up to {@code size + 1} rows fetched in (created_at, id) descending order.
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int size, Function<E, KeysetCursor> key, Function<E, T> mapper) {
+        boolean hasMore = rows.size() > size;
+        List<E> page = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? key.apply(page.get(page.size() - 1)).encode() : null;
+        return new CursorPage<>(page.stream().map(mapper).toList(), nextCursor, hasMore);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.demo.dto;
+
+/**
+ * Published by the dashboard counter store whenever a counter moves.
+ */
+public record DashboardCountersChangedEvent(long version) {}
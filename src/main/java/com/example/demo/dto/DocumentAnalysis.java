@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Result of analysing an uploaded journey document in a single streaming pass.
+ *
+ * @param text                 preview of the extracted text (trimmed, original case)
+ * @param hasRequiredSections  whether Part I and Part II journey headings were found
+ * @param co2Kg                estimated CO2 in kilograms
+ * @param figures              quantities the estimate was computed from
+ * @param findings             itemized quantities (capped; the totals cover all of them)
+ * @param extractedChars       characters scanned
+ * @param truncated            whether extraction stopped at the character cap
+ */
+public record DocumentAnalysis(String text, boolean hasRequiredSections, BigDecimal co2Kg,
+                               Co2Figures figures, List<Co2Finding> findings,
+                               long extractedChars, boolean truncated) {
+}
@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Facet count for a value range {@code [from, to)}; {@code to} is null for an open-ended last bucket.
+ */
+public record FacetBucket(BigDecimal from, BigDecimal to, long count) {
+}
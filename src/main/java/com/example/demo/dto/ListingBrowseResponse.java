@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of the marketplace browse view plus the facet counts for the filter sidebar.
+ * Each facet ignores its own filter (the price histogram is counted without the price
+ * range, and so on), so the sidebar can show what other choices would return.
+ */
+public record ListingBrowseResponse(
+        List<ListingResponse> items,
+        long total,
+        int page,
+        int size,
+        List<FacetBucket> priceHistogram,
+        List<FacetBucket> quantityBuckets,
+        Map<String, Long> statusCounts
+) {}
@@ -0,0 +1,42 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.Listing;
+
+import java.math.BigDecimal;
+
+/**
+ * Published for every listing mutation: creation, edit, status change, (partial) sale or
+ * deletion. Every in-memory view of listings (order book, search and filter indexes, price
+ * distribution, dashboard counters) consumes it after commit.
+ *
+ * @param previousStatus null for a new listing
+ * @param previousPrice  null for a new listing
+ * @param listing        state after the change, null for a deleted listing
+ */
+public record ListingChangedEvent(
+        Long listingId,
+        Listing.ListingStatus previousStatus,
+        BigDecimal previousPrice,
+        ListingSnapshot listing
+) {
+
+    public static ListingChangedEvent created(Listing listing) {
+        return new ListingChangedEvent(listing.getId(), null, null, ListingSnapshot.of(listing));
+    }
+
+    public static ListingChangedEvent updated(Listing.ListingStatus previousStatus, BigDecimal previousPrice,
+                                              Listing listing) {
+        return new ListingChangedEvent(listing.getId(), previousStatus, previousPrice, ListingSnapshot.of(listing));
+    }
+
+    public static ListingChangedEvent deleted(Listing listing) {
+        return new ListingChangedEvent(listing.getId(), listing.getStatus(), listing.getPrice(), null);
+    }
+
+    /**
+     * Status after the change, null for a deleted listing.
+     */
+    public Listing.ListingStatus status() {
+        return listing != null ? listing.status() : null;
+    }
+}
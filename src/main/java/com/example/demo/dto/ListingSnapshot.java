@@ -0,0 +1,29 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.Listing;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Committed state of a listing as carried by {@link ListingChangedEvent}, detached from the
+ * persistence context so listeners can read it after commit.
+ */
+public record ListingSnapshot(
+        Long id,
+        Long sellerId,
+        Listing.ListingStatus status,
+        BigDecimal price,
+        BigDecimal carbonAmount,
+        String title,
+        String description,
+        LocalDateTime createdAt
+) {
+
+    public static ListingSnapshot of(Listing listing) {
+        return new ListingSnapshot(listing.getId(),
+                listing.getSeller() != null ? listing.getSeller().getId() : null,
+                listing.getStatus(), listing.getPrice(), listing.getCarbonAmount(),
+                listing.getTitle(), listing.getDescription(), listing.getCreatedAt());
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarketOrderRequest {
+
+    @NotNull(message = "Buyer ID is required")
+    private Long buyerId;
+
+    @NotNull(message = "Quantity is required")
+    @DecimalMin(value = "0.000001", inclusive = true, message = "Quantity must be positive")
+    private BigDecimal quantity;
+
+    // Giá tối đa chấp nhận (LIMIT order). Để trống = MARKET order
+    @DecimalMin(value = "0.000001", inclusive = true, message = "Limit price must be positive")
+    private BigDecimal limitPrice;
+}
@@ -0,0 +1,23 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarketOrderResponse {
+
+    private Long buyerId;
+    private BigDecimal requestedQuantity;
+    private BigDecimal filledQuantity;
+    private BigDecimal unfilledQuantity;
+    private BigDecimal totalAmount;
+    private BigDecimal averagePrice;
+    // Mỗi listing khớp lệnh tạo ra một Transaction COMPLETED
+    private List<TransactionResponse> fills;
+}
@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+/**
+ * Price distribution of one window. {@code source} is TRADES or ASKS, whichever the
+ * figures come from; every price is null when {@code count} is 0. The suggested band is
+ * {@code p10..p90}, with {@code suggested} a little above the median inside it.
+ */
+public record PriceBand(
+        String window,
+        String source,
+        long count,
+        Double min,
+        Double p10,
+        Double p50,
+        Double p90,
+        Double max,
+        Double mean,
+        Double suggested
+) {}
@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.ReportStatus;
+
+/**
+ * Published when a report is submitted or its review status changes.
+ * {@code from} is null for a newly submitted report.
+ */
+public record ReportStatusChangedEvent(
+        Long reportId,
+        ReportStatus from,
+        ReportStatus to
+) {}
@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published for every completed fill: a confirmed purchase or one slice of a market order.
+ */
+public record TradeExecutedEvent(
+        Long transactionId,
+        Long listingId,
+        BigDecimal price,
+        BigDecimal quantity,
+        LocalDateTime executedAt
+) {}
@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.Transaction;
+
+/**
+ * Published when a transaction is created, confirmed or cancelled.
+ * {@code from} is null for a new transaction.
+ */
+public record TransactionStatusChangedEvent(
+        Long transactionId,
+        Transaction.TransactionStatus from,
+        Transaction.TransactionStatus to
+) {}
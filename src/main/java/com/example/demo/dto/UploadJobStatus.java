@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+import java.time.Instant;
+
+/**
+ * Snapshot of an asynchronous upload-estimate job.
+ *
+ * @param queueMillis   time spent waiting for a worker
+ * @param parseMillis   Tika extraction and CO2 estimation
+ * @param persistMillis upload record and credit issuance
+ * @param result        estimate result once the job has finished (null before)
+ */
+public record UploadJobStatus(
+        String jobId,
+        Long userId,
+        String filename,
+        String status,
+        Instant submittedAt,
+        Instant finishedAt,
+        Long queueMillis,
+        Long parseMillis,
+        Long persistMillis,
+        UploadResponse result,
+        String error) {
+}
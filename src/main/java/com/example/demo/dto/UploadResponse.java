@@ -1,6 +1,8 @@
 package com.example.demo.dto;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -17,4 +19,20 @@ public class UploadResponse {
     private String message;
     // extracted text preview from uploaded file
     private String extractedText;
+    // itemized quantities the estimate was computed from
+    private List<Co2Finding> findings;
+
+    public UploadResponse(BigDecimal estimatedCo2Kg, BigDecimal creditsIssued, String message, String extractedText) {
+        this(estimatedCo2Kg, creditsIssued, message, extractedText, null);
+    }
+
+    // response for documents without the required Part I / Part II journey sections
+    public static UploadResponse missingSections(String extractedText) {
+        UploadResponse bad = new UploadResponse();
+        bad.setEstimatedCo2Kg(BigDecimal.ZERO);
+        bad.setCreditsIssued(BigDecimal.ZERO.setScale(4, RoundingMode.HALF_UP));
+        bad.setMessage("File thiếu phần bắt buộc. Vui lòng kiểm tra lại.");
+        bad.setExtractedText(extractedText);
+        return bad;
+    }
 }
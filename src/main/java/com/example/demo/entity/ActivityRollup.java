@@ -0,0 +1,61 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Platform activity aggregated into one HOUR, DAY or MONTH bucket.
+ */
+@Entity
+@Table(name = "activity_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    @Column(name = "transaction_volume", nullable = false, precision = 19, scale = 4)
+    private BigDecimal transactionVolume;
+
+    @Column(name = "completed_count", nullable = false)
+    private Long completedCount;
+
+    @Column(name = "completed_volume", nullable = false, precision = 19, scale = 4)
+    private BigDecimal completedVolume;
+
+    @Column(name = "co2_approved_count", nullable = false)
+    private Long co2ApprovedCount;
+
+    @Column(name = "co2_credits", nullable = false, precision = 18, scale = 6)
+    private BigDecimal co2Credits;
+
+    @Column(name = "new_users", nullable = false)
+    private Long newUsers;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Granularity {
+        HOUR, DAY, MONTH
+    }
+}
@@ -28,9 +28,13 @@ public class FileMetadata {
     @Column(name = "file_size")
     private Long fileSize;
 
+    // Blob key for files in the blob store; absolute path for files uploaded before it
     @Column(name = "file_path", nullable = false, length = 500)
     private String filePath;
 
+    @Column(name = "content_sha256", length = 64)
+    private String contentSha256;
+
     @CreationTimestamp
     @Column(name = "uploaded_at", updatable = false)
     private LocalDateTime uploadedAt;
@@ -0,0 +1,67 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable journal entry. Every money or carbon movement is one entry with
+ * a DEBIT leg on the source account and a CREDIT leg on the destination account.
+ */
+@Entity
+@Table(name = "ledger_entries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 30)
+    private EntryType entryType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Asset asset;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @Column(length = 100)
+    private String reference;
+
+    @Column(length = 255)
+    private String description;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @OneToMany(mappedBy = "entry", cascade = CascadeType.PERSIST)
+    private List<LedgerPosting> postings = new ArrayList<>();
+
+    public enum Asset {
+        MONEY, CARBON
+    }
+
+    public enum EntryType {
+        PURCHASE,    // buyer -> seller khi mua listing
+        TRANSFER,    // chuyển giữa hai user
+        TOPUP,       // nạp tiền qua VNPay
+        DEPOSIT,     // cộng tiền trực tiếp
+        WITHDRAWAL,  // trừ tiền trực tiếp
+        ISSUANCE,    // phát hành tín chỉ carbon
+        RETIREMENT,  // thu hồi tín chỉ carbon
+        ADJUSTMENT   // admin điều chỉnh số dư
+    }
+}
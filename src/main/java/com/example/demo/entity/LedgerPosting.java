@@ -0,0 +1,63 @@
+package com.example.demo.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One leg of a {@link LedgerEntry}. Postings are append-only; an account balance
+ * is the sum of its CREDIT legs minus the sum of its DEBIT legs.
+ */
+@Entity
+@Table(name = "ledger_postings")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerPosting {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "entry_id", nullable = false)
+    private LedgerEntry entry;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private LedgerEntry.Asset asset;
+
+    // USER:<id> hoặc SYSTEM:<NAME>
+    @Column(nullable = false, length = 50)
+    private String account;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Direction direction;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum Direction {
+        DEBIT, CREDIT
+    }
+
+    public BigDecimal signedAmount() {
+        return direction == Direction.CREDIT ? amount : amount.negate();
+    }
+}
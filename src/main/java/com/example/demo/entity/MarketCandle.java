@@ -0,0 +1,63 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * OHLC candle of completed trades for one MINUTE, HOUR or DAY bucket.
+ */
+@Entity
+@Table(name = "market_candles")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarketCandle {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "candle_interval", nullable = false, length = 10)
+    private Interval interval;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "open_price", nullable = false, precision = 19, scale = 4)
+    private BigDecimal open;
+
+    @Column(name = "high_price", nullable = false, precision = 19, scale = 4)
+    private BigDecimal high;
+
+    @Column(name = "low_price", nullable = false, precision = 19, scale = 4)
+    private BigDecimal low;
+
+    @Column(name = "close_price", nullable = false, precision = 19, scale = 4)
+    private BigDecimal close;
+
+    // Credits traded
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal volume;
+
+    // Sum of price * quantity, for VWAP
+    @Column(nullable = false, precision = 23, scale = 4)
+    private BigDecimal notional;
+
+    @Column(name = "trade_count", nullable = false)
+    private Long tradeCount;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Interval {
+        MINUTE, HOUR, DAY
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Highest id of a source table already folded into the analytics rollups.
+ */
+@Entity
+@Table(name = "rollup_watermarks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupWatermark {
+
+    public static final String TRANSACTIONS = "TRANSACTIONS";
+    public static final String CO2_REDUCTIONS = "CO2_REDUCTIONS";
+    public static final String USERS = "USERS";
+
+    @Id
+    @Column(length = 30)
+    private String source;
+
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
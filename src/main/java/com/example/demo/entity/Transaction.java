@@ -52,6 +52,11 @@ public class Transaction {
     @CreationTimestamp
     private LocalDateTime createdAt;
 
+    // Completed status as folded into the analytics rollups (null until folded); only
+    // AnalyticsRollupService writes it, through TransactionRepository, never the entity
+    @Column(name = "rollup_completed", insertable = false, updatable = false)
+    private Boolean rollupCompleted;
+
     public enum TransactionStatus {
         PENDING,
         CANCELLED,
@@ -29,10 +29,34 @@ public class UploadRecord {
     @Column(name = "filename")
     private String filename;
 
+    // SHA-256 of the file contents; unique, so the same evidence is never credited twice
+    @Column(name = "content_sha256", length = 64, unique = true)
+    private String contentSha256;
+
+    // preview only: the first uploads.extraction.preview-chars characters of the document
     @Lob
     @Column(name = "extracted_text", columnDefinition = "TEXT")
     private String extractedText;
 
+    @Column(name = "extracted_chars")
+    private Long extractedChars;
+
+    @Column(name = "text_truncated")
+    private Boolean textTruncated;
+
+    // quantities the estimate was computed from
+    @Column(name = "explicit_co2_kg", precision = 19, scale = 4)
+    private BigDecimal explicitCo2Kg;
+
+    @Column(name = "energy_kwh", precision = 19, scale = 4)
+    private BigDecimal energyKwh;
+
+    @Column(name = "distance_km", precision = 19, scale = 4)
+    private BigDecimal distanceKm;
+
+    @Column(name = "fuel_liters", precision = 19, scale = 4)
+    private BigDecimal fuelLiters;
+
     @Column(name = "estimated_co2_kg", precision = 19, scale = 4)
     private BigDecimal estimatedCo2Kg;
 
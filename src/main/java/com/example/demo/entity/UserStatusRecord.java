@@ -1,10 +1,12 @@
 package com.example.demo.entity;
 
+import com.example.demo.security.UserStatusRecordListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
 @Table(name = "user_status")
+@EntityListeners(UserStatusRecordListener.class)
 @Data
 public class UserStatusRecord {
 
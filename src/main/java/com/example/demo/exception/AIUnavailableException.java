@@ -0,0 +1,10 @@
+package com.example.demo.exception;
+
+/**
+ * The AI backend was not called: the circuit breaker is open or too many calls are in flight.
+ */
+public class AIUnavailableException extends RuntimeException {
+    public AIUnavailableException(String message) {
+        super(message);
+    }
+}
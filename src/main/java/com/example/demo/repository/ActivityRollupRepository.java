@@ -0,0 +1,53 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.ActivityRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public interface ActivityRollupRepository extends JpaRepository<ActivityRollup, Long> {
+
+    List<ActivityRollup> findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(
+            ActivityRollup.Granularity granularity, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT new map(SUM(r.transactionCount) as transactionCount, SUM(r.transactionVolume) as transactionVolume, " +
+           "SUM(r.completedCount) as completedCount, SUM(r.completedVolume) as completedVolume, " +
+           "SUM(r.co2ApprovedCount) as co2ApprovedCount, SUM(r.co2Credits) as co2Credits, SUM(r.newUsers) as newUsers) " +
+           "FROM ActivityRollup r WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to")
+    Map<String, Object> sumBetween(@Param("granularity") ActivityRollup.Granularity granularity,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+
+    // Adds the deltas to the bucket, creating it on first use
+    @Modifying
+    @Query(value = "INSERT INTO activity_rollups (granularity, bucket_start, transaction_count, transaction_volume, " +
+                   "completed_count, completed_volume, co2_approved_count, co2_credits, new_users) " +
+                   "VALUES (:granularity, :bucketStart, :transactionCount, :transactionVolume, " +
+                   ":completedCount, :completedVolume, :co2ApprovedCount, :co2Credits, :newUsers) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "transaction_count = transaction_count + VALUES(transaction_count), " +
+                   "transaction_volume = transaction_volume + VALUES(transaction_volume), " +
+                   "completed_count = completed_count + VALUES(completed_count), " +
+                   "completed_volume = completed_volume + VALUES(completed_volume), " +
+                   "co2_approved_count = co2_approved_count + VALUES(co2_approved_count), " +
+                   "co2_credits = co2_credits + VALUES(co2_credits), " +
+                   "new_users = new_users + VALUES(new_users)",
+           nativeQuery = true)
+    int accumulate(@Param("granularity") String granularity,
+                   @Param("bucketStart") LocalDateTime bucketStart,
+                   @Param("transactionCount") long transactionCount,
+                   @Param("transactionVolume") BigDecimal transactionVolume,
+                   @Param("completedCount") long completedCount,
+                   @Param("completedVolume") BigDecimal completedVolume,
+                   @Param("co2ApprovedCount") long co2ApprovedCount,
+                   @Param("co2Credits") BigDecimal co2Credits,
+                   @Param("newUsers") long newUsers);
+}
@@ -2,7 +2,9 @@ package com.example.demo.repository;
 
 import com.example.demo.entity.CarbonWallet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -13,6 +15,18 @@ public interface CarbonWalletRepository extends JpaRepository<CarbonWallet, Long
     // nên phương thức truy vấn theo owner.id sẽ viết như sau:
     Optional<CarbonWallet> findByOwner_Id(Long ownerId);
     
+    @Query("SELECT cw.balance FROM CarbonWallet cw WHERE cw.owner.id = :ownerId")
+    Optional<BigDecimal> findBalanceByOwnerId(@Param("ownerId") Long ownerId);
+
+    // Atomic balance deltas: callers check the returned row count instead of read-modify-write
+    @Modifying
+    @Query("UPDATE CarbonWallet cw SET cw.balance = cw.balance + :amount WHERE cw.owner.id = :ownerId")
+    int creditBalance(@Param("ownerId") Long ownerId, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE CarbonWallet cw SET cw.balance = cw.balance - :amount WHERE cw.owner.id = :ownerId AND cw.balance >= :amount")
+    int debitBalance(@Param("ownerId") Long ownerId, @Param("amount") BigDecimal amount);
+    
     // Admin queries
     @Query("SELECT SUM(cw.balance) FROM CarbonWallet cw")
     BigDecimal sumAllBalances();
@@ -1,9 +1,27 @@
 package com.example.demo.repository;
 
 import com.example.demo.entity.Co2Reduction;
+import com.example.demo.entity.Co2Status;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public interface Co2Repository extends JpaRepository<Co2Reduction, Long> {
     List<Co2Reduction> findByUserId(String userId);
+
+    // Rollup ingestion: rows after the watermark that are old enough to be settled
+    @Query("SELECT new map(r.id as id, r.createdAt as createdAt, r.status as status, r.credits as credits) " +
+           "FROM Co2Reduction r WHERE r.id > :afterId AND r.createdAt < :cutoff ORDER BY r.id")
+    List<Map<String, Object>> findRollupRowsAfter(@Param("afterId") Long afterId,
+                                                  @Param("cutoff") LocalDateTime cutoff,
+                                                  Pageable pageable);
+
+    @Query("SELECT SUM(r.credits) FROM Co2Reduction r WHERE r.status = :status")
+    BigDecimal sumCreditsByStatus(@Param("status") Co2Status status);
 }
@@ -0,0 +1,36 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.LedgerEntry;
+import com.example.demo.entity.LedgerPosting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LedgerPostingRepository extends JpaRepository<LedgerPosting, Long> {
+
+    // Tail of an account after its latest snapshot (uses idx_ledger_postings_account)
+    List<LedgerPosting> findTop200ByAssetAndAccountAndIdGreaterThanOrderByIdDesc(LedgerEntry.Asset asset, String account, Long afterId);
+
+    // Net movement (credits - debits) of one account for postings in (afterId, uptoId]
+    @Query("SELECT COALESCE(SUM(CASE WHEN p.direction = :credit THEN p.amount ELSE -p.amount END), 0) " +
+           "FROM LedgerPosting p WHERE p.asset = :asset AND p.account = :account " +
+           "AND p.id > :afterId AND p.id <= :uptoId")
+    BigDecimal sumBetween(@Param("asset") LedgerEntry.Asset asset,
+                          @Param("account") String account,
+                          @Param("afterId") Long afterId,
+                          @Param("uptoId") Long uptoId,
+                          @Param("credit") LedgerPosting.Direction credit);
+
+    // Accounts touched by postings in (afterId, uptoId]; returns [asset, account] pairs
+    @Query("SELECT DISTINCT p.asset, p.account FROM LedgerPosting p WHERE p.id > :afterId AND p.id <= :uptoId")
+    List<Object[]> findAccountsTouchedBetween(@Param("afterId") Long afterId, @Param("uptoId") Long uptoId);
+
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM LedgerPosting p WHERE p.createdAt < :cutoff")
+    Long findMaxIdCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
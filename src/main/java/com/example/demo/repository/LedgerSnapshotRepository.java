@@ -0,0 +1,18 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.LedgerEntry;
+import com.example.demo.entity.LedgerSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface LedgerSnapshotRepository extends JpaRepository<LedgerSnapshot, Long> {
+
+    Optional<LedgerSnapshot> findFirstByAssetAndAccountOrderByIdDesc(LedgerEntry.Asset asset, String account);
+
+    @Query("SELECT COALESCE(MAX(s.lastPostingId), 0) FROM LedgerSnapshot s")
+    Long findSnapshotWatermark();
+}
@@ -5,11 +5,13 @@ import com.example.demo.entity.Listing.ListingStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -35,19 +37,67 @@ List<Listing> findBySellerIdAndStatus(Long sellerId, Listing.ListingStatus statu
                                 @Param("maxCarbon") BigDecimal maxCarbon,
                                 Pageable pageable);
     
+    // Keyset pages, newest first: rows strictly before (createdAt, id); KeysetCursor.START for page one
+    @Query("SELECT l FROM Listing l JOIN FETCH l.seller " +
+           "WHERE l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.id < :id) " +
+           "ORDER BY l.createdAt DESC, l.id DESC")
+    List<Listing> findPageBefore(@Param("createdAt") LocalDateTime createdAt,
+                                 @Param("id") Long id,
+                                 Pageable pageable);
+
+    @Query("SELECT l FROM Listing l JOIN FETCH l.seller WHERE l.status = :status " +
+           "AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.id < :id)) " +
+           "ORDER BY l.createdAt DESC, l.id DESC")
+    List<Listing> findPageByStatusBefore(@Param("status") ListingStatus status,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    @Query("SELECT l FROM Listing l JOIN FETCH l.seller WHERE l.seller.id = :sellerId " +
+           "AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.id < :id)) " +
+           "ORDER BY l.createdAt DESC, l.id DESC")
+    List<Listing> findPageBySellerBefore(@Param("sellerId") Long sellerId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+    
+    // Columns of ListingFilterIndex, without loading entities
+    @Query("SELECT new map(l.id as id, l.status as status, l.price as price, " +
+           "l.carbonAmount as carbonAmount, l.createdAt as createdAt) FROM Listing l")
+    List<java.util.Map<String, Object>> findFilterColumns();
+    
     @Query("SELECT l FROM Listing l WHERE l.title LIKE %:keyword% OR l.description LIKE %:keyword%")
     Page<Listing> findByKeyword(@Param("keyword") String keyword, Pageable pageable);
     
+    // Matching engine: decrement remaining quantity in a single conditional statement
+    @Modifying
+    @Query("UPDATE Listing l SET l.carbonAmount = l.carbonAmount - :quantity " +
+           "WHERE l.id = :id AND l.status = :status AND l.carbonAmount >= :quantity")
+    int decrementCarbonAmount(@Param("id") Long id,
+                              @Param("quantity") BigDecimal quantity,
+                              @Param("status") ListingStatus status);
+
+    @Modifying
+    @Query("UPDATE Listing l SET l.status = :soldStatus WHERE l.id = :id AND l.carbonAmount <= 0")
+    int markSoldIfDepleted(@Param("id") Long id, @Param("soldStatus") ListingStatus soldStatus);
+
+    // State after the bulk updates above, which bypass the persistence context
+    @Query("SELECT new com.example.demo.dto.ListingSnapshot(l.id, l.seller.id, l.status, l.price, " +
+           "l.carbonAmount, l.title, l.description, l.createdAt) FROM Listing l WHERE l.id = :id")
+    java.util.Optional<com.example.demo.dto.ListingSnapshot> findSnapshotById(@Param("id") Long id);
+
     // Admin queries
     long countByStatus(ListingStatus status);
+
+    @Query("SELECT new map(l.status as status, SUM(l.carbonAmount) as amount) FROM Listing l GROUP BY l.status")
+    List<java.util.Map<String, Object>> sumCarbonAmountByStatus();
     
     List<Listing> findTop10ByOrderByCreatedAtDesc();
-    @Query("SELECT AVG(l.price) FROM Listing l")
-    Double getAveragePrice();
-    
-    @Query("SELECT MIN(l.price) FROM Listing l")
-    Double getMinPrice();
 
-    @Query("SELECT MAX(l.price) FROM Listing l")
-    Double getMaxPrice();
+    // Asking prices posted since the given time, to seed PriceDistributionService; pending,
+    // rejected and cancelled listings never stood as asks on the market
+    @Query("SELECT new map(l.price as price, l.createdAt as createdAt) FROM Listing l " +
+           "WHERE l.createdAt >= :since AND l.status IN :statuses")
+    List<java.util.Map<String, Object>> findAskPricesSince(@Param("since") LocalDateTime since,
+                                                           @Param("statuses") java.util.Collection<ListingStatus> statuses);
 }
@@ -0,0 +1,39 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.MarketCandle;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MarketCandleRepository extends JpaRepository<MarketCandle, Long> {
+
+    List<MarketCandle> findByIntervalAndBucketStartGreaterThanEqualOrderByBucketStart(
+            MarketCandle.Interval interval, LocalDateTime from);
+
+    // Writes the candle's current values, creating it on first use
+    @Modifying
+    @Query(value = "INSERT INTO market_candles (candle_interval, bucket_start, open_price, high_price, low_price, " +
+                   "close_price, volume, notional, trade_count) " +
+                   "VALUES (:interval, :bucketStart, :open, :high, :low, :close, :volume, :notional, :tradeCount) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "open_price = VALUES(open_price), high_price = VALUES(high_price), low_price = VALUES(low_price), " +
+                   "close_price = VALUES(close_price), volume = VALUES(volume), notional = VALUES(notional), " +
+                   "trade_count = VALUES(trade_count)",
+           nativeQuery = true)
+    int upsert(@Param("interval") String interval,
+               @Param("bucketStart") LocalDateTime bucketStart,
+               @Param("open") BigDecimal open,
+               @Param("high") BigDecimal high,
+               @Param("low") BigDecimal low,
+               @Param("close") BigDecimal close,
+               @Param("volume") BigDecimal volume,
+               @Param("notional") BigDecimal notional,
+               @Param("tradeCount") long tradeCount);
+}
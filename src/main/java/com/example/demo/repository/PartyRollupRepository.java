@@ -0,0 +1,40 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.ActivityRollup;
+import com.example.demo.entity.PartyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public interface PartyRollupRepository extends JpaRepository<PartyRollup, Long> {
+
+    @Query("SELECT new map(p.userId as userId, SUM(p.transactionCount) as transactionCount, SUM(p.volume) as volume) " +
+           "FROM PartyRollup p WHERE p.role = :role AND p.granularity = :granularity " +
+           "AND p.bucketStart >= :from AND p.bucketStart < :to GROUP BY p.userId")
+    List<Map<String, Object>> sumByUserBetween(@Param("role") PartyRollup.Role role,
+                                               @Param("granularity") ActivityRollup.Granularity granularity,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query(value = "INSERT INTO party_rollups (granularity, bucket_start, role, user_id, transaction_count, volume) " +
+                   "VALUES (:granularity, :bucketStart, :role, :userId, :transactionCount, :volume) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "transaction_count = transaction_count + VALUES(transaction_count), " +
+                   "volume = volume + VALUES(volume)",
+           nativeQuery = true)
+    int accumulate(@Param("granularity") String granularity,
+                   @Param("bucketStart") LocalDateTime bucketStart,
+                   @Param("role") String role,
+                   @Param("userId") Long userId,
+                   @Param("transactionCount") long transactionCount,
+                   @Param("volume") BigDecimal volume);
+}
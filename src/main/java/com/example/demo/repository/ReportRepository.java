@@ -11,4 +11,5 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     Page<Report> findByStatus(ReportStatus status, Pageable pageable);
     Page<Report> findByType(ReportType type, Pageable pageable);
     Page<Report> findByTypeAndStatus(ReportType type, ReportStatus status, Pageable pageable);
+    long countByStatus(ReportStatus status);
 }
@@ -3,6 +3,7 @@ package com.example.demo.repository;
 import com.example.demo.entity.Transaction;
 import com.example.demo.entity.Transaction.TransactionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -21,6 +22,25 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     @Query("SELECT t FROM Transaction t WHERE t.buyer.id = :userId OR t.seller.id = :userId ORDER BY t.createdAt DESC")
     List<Transaction> findByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId);
     
+    // Keyset pages of a user's side of the trade, newest first: rows strictly before (createdAt, id)
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.buyer JOIN FETCH t.seller JOIN FETCH t.listing " +
+           "WHERE t.buyer.id = :buyerId " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findPageByBuyerBefore(@Param("buyerId") Long buyerId,
+                                            @Param("createdAt") java.time.LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            org.springframework.data.domain.Pageable pageable);
+    
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.buyer JOIN FETCH t.seller JOIN FETCH t.listing " +
+           "WHERE t.seller.id = :sellerId " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findPageBySellerBefore(@Param("sellerId") Long sellerId,
+                                             @Param("createdAt") java.time.LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             org.springframework.data.domain.Pageable pageable);
+    
     List<Transaction> findByListingIdOrderByCreatedAtDesc(Long listingId);
     
     @Query("SELECT t FROM Transaction t WHERE t.listing.id = :listingId AND t.status = :status")
@@ -32,6 +52,40 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.status = :status")
     java.math.BigDecimal sumAmountByStatus(@Param("status") TransactionStatus status);
     
+    @Query("SELECT new map(t.status as status, COUNT(t) as count, SUM(t.amount) as amount) FROM Transaction t GROUP BY t.status")
+    List<java.util.Map<String, Object>> summarizeByStatus();
+    
+    // Rollup ingestion: rows after the watermark that are old enough to be settled
+    @Query("SELECT new map(t.id as id, t.createdAt as createdAt, t.amount as amount, t.status as status, " +
+           "t.buyer.id as buyerId, t.seller.id as sellerId) " +
+           "FROM Transaction t WHERE t.id > :afterId AND t.createdAt < :cutoff ORDER BY t.id")
+    List<java.util.Map<String, Object>> findRollupRowsAfter(@Param("afterId") Long afterId,
+                                                            @Param("cutoff") java.time.LocalDateTime cutoff,
+                                                            org.springframework.data.domain.Pageable pageable);
+    
+    // Rollup ingestion: record whether the folded rows were counted as completed
+    @Modifying
+    @Query(value = "UPDATE transactions SET rollup_completed = :completed WHERE id IN (:ids)", nativeQuery = true)
+    int markRollupCompleted(@Param("ids") java.util.Collection<Long> ids, @Param("completed") boolean completed);
+    
+    // Rollup correction: a scalar projection, so it reads the row as committed, not a cached entity
+    @Query("SELECT new map(t.id as id, t.createdAt as createdAt, t.amount as amount, t.status as status, " +
+           "t.rollupCompleted as rollupCompleted) FROM Transaction t WHERE t.id = :id")
+    java.util.Optional<java.util.Map<String, Object>> findRollupRow(@Param("id") Long id);
+    
+    // Rollup reconciliation: folded rows whose completed status has changed since
+    @Query("SELECT t.id FROM Transaction t WHERE t.createdAt >= :since AND t.rollupCompleted IS NOT NULL " +
+           "AND ((t.rollupCompleted = true AND t.status <> :completed) " +
+           "OR (t.rollupCompleted = false AND t.status = :completed)) ORDER BY t.id")
+    List<Long> findRollupMismatchesSince(@Param("since") java.time.LocalDateTime since,
+                                         @Param("completed") TransactionStatus completed);
+    
+    // Executed trade prices since the given time, to seed PriceDistributionService
+    @Query("SELECT new map(t.amount as amount, t.carbonQuantity as quantity, t.createdAt as createdAt) " +
+           "FROM Transaction t WHERE t.status = :status AND t.createdAt >= :since")
+    List<java.util.Map<String, Object>> findPricesByStatusSince(@Param("status") TransactionStatus status,
+                                                                @Param("since") java.time.LocalDateTime since);
+
     List<Transaction> findTop10ByOrderByCreatedAtDesc();
     
     List<Transaction> findByCreatedAtBetween(java.time.LocalDateTime start, java.time.LocalDateTime end);
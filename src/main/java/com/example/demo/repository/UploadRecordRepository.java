@@ -1,5 +1,7 @@
 package com.example.demo.repository;
 
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -7,4 +9,6 @@ import com.example.demo.entity.UploadRecord;
 
 @Repository
 public interface UploadRecordRepository extends JpaRepository<UploadRecord, Long> {
+
+    Optional<UploadRecord> findByContentSha256(String contentSha256);
 }
@@ -1,11 +1,15 @@
 package com.example.demo.repository;
 
 import com.example.demo.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
@@ -22,6 +26,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     List<User> findTop5ByOrderByCreatedAtDesc();
     
+    // Rollup ingestion: rows after the watermark that are old enough to be settled
+    @Query("SELECT new map(u.id as id, u.createdAt as createdAt) FROM User u " +
+           "WHERE u.id > :afterId AND u.createdAt < :cutoff ORDER BY u.id")
+    List<Map<String, Object>> findRollupRowsAfter(@Param("afterId") Long afterId,
+                                                  @Param("cutoff") LocalDateTime cutoff,
+                                                  Pageable pageable);
+    
     List<User> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 }
 
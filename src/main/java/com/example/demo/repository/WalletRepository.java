@@ -2,6 +2,7 @@ package com.example.demo.repository;
 
 import com.example.demo.entity.Wallet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,6 +17,21 @@ public interface WalletRepository extends JpaRepository<Wallet, Long> {
     @Query("SELECT w FROM Wallet w WHERE w.user.id = :userId")
     Wallet findByUserId(@Param("userId") Long userId);
     
+    @Query("SELECT w.id FROM Wallet w WHERE w.user.id = :userId")
+    Optional<Long> findIdByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT w.balance FROM Wallet w WHERE w.user.id = :userId")
+    Optional<BigDecimal> findBalanceByUserId(@Param("userId") Long userId);
+
+    // Atomic balance deltas: callers check the returned row count instead of read-modify-write
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :amount WHERE w.id = :walletId")
+    int creditBalance(@Param("walletId") Long walletId, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance - :amount WHERE w.id = :walletId AND w.balance >= :amount")
+    int debitBalance(@Param("walletId") Long walletId, @Param("amount") BigDecimal amount);
+    
     // Admin queries
     @Query("SELECT SUM(w.balance) FROM Wallet w")
     BigDecimal sumAllBalances();
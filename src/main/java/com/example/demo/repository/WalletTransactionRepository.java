@@ -1,9 +1,13 @@
 package com.example.demo.repository;
 
 import com.example.demo.entity.WalletTransaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,5 +17,21 @@ public interface WalletTransactionRepository extends JpaRepository<WalletTransac
     List<WalletTransaction> findByWallet_User_IdOrderByCreatedAtDesc(Long userId);
     
     Optional<WalletTransaction> findByExternalRef(String externalRef);
+
+    // Keyset pages, newest first: rows strictly before (createdAt, id)
+    @Query("SELECT tx FROM WalletTransaction tx JOIN FETCH tx.wallet w JOIN FETCH w.user " +
+           "WHERE tx.createdAt < :createdAt OR (tx.createdAt = :createdAt AND tx.id < :id) " +
+           "ORDER BY tx.createdAt DESC, tx.id DESC")
+    List<WalletTransaction> findPageBefore(@Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+
+    @Query("SELECT tx FROM WalletTransaction tx WHERE tx.wallet.id = :walletId " +
+           "AND (tx.createdAt < :createdAt OR (tx.createdAt = :createdAt AND tx.id < :id)) " +
+           "ORDER BY tx.createdAt DESC, tx.id DESC")
+    List<WalletTransaction> findPageByWalletBefore(@Param("walletId") Long walletId,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
 }
 
@@ -13,8 +13,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.example.demo.repository.UserRepository;
-
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -28,7 +26,7 @@ import lombok.extern.slf4j.Slf4j;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(
@@ -44,17 +42,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             if (StringUtils.hasText(jwt)) {
                 log.debug("JWT found for path: {}", path);
                 
-                if (jwtUtil.validateToken(jwt)) {
-                    String email = jwtUtil.extractEmail(jwt);
-                    Long userId = jwtUtil.extractUserId(jwt);
-                    List<String> roles = jwtUtil.extractRoles(jwt);
+                var verified = jwtUtil.verify(jwt);
+                if (verified.isPresent()) {
+                    String email = verified.get().email();
+                    Long userId = verified.get().userId();
+                    List<String> roles = verified.get().roles();
 
                     log.debug("JWT valid - email: {}, userId: {}, roles: {}", email, userId, roles);
 
-                    // Verify user exists in database
-                    var userOpt = userRepository.findByEmail(email);
-                    if (userOpt.isPresent()) {
-                        List<SimpleGrantedAuthority> authorities = roles.stream()
+                    // Current user state (existence, ban, roles) from the principal cache
+                    var principalOpt = principalCache.get(email);
+                    if (principalOpt.isEmpty() || (userId != null && !userId.equals(principalOpt.get().userId()))) {
+                        log.warn("User not found in database for email: {}", email);
+                    } else if (principalOpt.get().banned()) {
+                        log.warn("Rejected token of banned user: {}", email);
+                    } else {
+                        // Authorities follow the current DB roles so role changes apply before the token expires
+                        List<String> currentRoles = principalOpt.get().roles();
+                        List<SimpleGrantedAuthority> authorities = currentRoles.stream()
                                 .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
                                 .collect(Collectors.toList());
 
@@ -66,9 +71,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         // Set userId in authentication details for easy access
                         SecurityContextHolder.getContext().setAuthentication(authentication);
                         
-                        log.debug("Set Authentication for user: {} with roles: {}", email, roles);
-                    } else {
-                        log.warn("User not found in database for email: {}", email);
+                        log.debug("Set Authentication for user: {} with roles: {}", email, currentRoles);
                     }
                 } else {
                     log.warn("JWT validation failed for path: {}", path);
@@ -3,15 +3,23 @@ package com.example.demo.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Component
@@ -24,9 +32,92 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
     private Long expiration;
 
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    // Key and parser are immutable and thread-safe: build them once
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Recently verified tokens by SHA-256 digest, so a token is HMAC-verified once per lifetime
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
     private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
+    }
+
+    /**
+     * Verify the token (signature and expiry) and return its claims, or empty if it is invalid.
+     * Verified tokens are cached until they expire, so repeated requests with the same token
+     * skip parsing and HMAC verification.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        String digest = digest(token);
+        long now = System.currentTimeMillis();
+
+        VerifiedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return Optional.of(cached);
+            }
+            verifiedTokens.remove(digest);
+            return Optional.empty();
+        }
+
+        try {
+            Claims claims = extractAllClaims(token);
+            @SuppressWarnings("unchecked")
+            List<String> roles = (List<String>) claims.get("roles");
+            VerifiedToken verified = new VerifiedToken(
+                    claims.getSubject(),
+                    claims.get("userId", Long.class),
+                    roles != null ? List.copyOf(roles) : List.of(),
+                    claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE
+            );
+            remember(digest, verified, now);
+            return Optional.of(verified);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Invalid JWT token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Drop every cached verification (e.g. after the signing secret is rotated).
+     */
+    public void clearVerifiedTokens() {
+        verifiedTokens.clear();
+    }
+
+    private void remember(String digest, VerifiedToken verified, long now) {
+        if (verifiedTokens.size() >= verifiedCacheMaxSize) {
+            // Expired entries first, then arbitrary ones until back under the bound
+            verifiedTokens.values().removeIf(t -> t.expiresAt() <= now);
+            Iterator<String> it = verifiedTokens.keySet().iterator();
+            while (verifiedTokens.size() >= verifiedCacheMaxSize && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        verifiedTokens.put(digest, verified);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     public String generateToken(String email, Long userId, List<String> roles) {
@@ -49,17 +140,21 @@ public class JwtUtil {
                 .compact();
     }
 
+    // The extractors hit the verified-token cache; invalid tokens fall through to a parse that throws
     public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).map(VerifiedToken::email)
+                .orElseGet(() -> extractClaim(token, Claims::getSubject));
     }
 
     public Long extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", Long.class));
+        return verify(token).map(VerifiedToken::userId)
+                .orElseGet(() -> extractClaim(token, claims -> claims.get("userId", Long.class)));
     }
 
     @SuppressWarnings("unchecked")
     public List<String> extractRoles(String token) {
-        return extractClaim(token, claims -> (List<String>) claims.get("roles"));
+        return verify(token).map(VerifiedToken::roles)
+                .orElseGet(() -> extractClaim(token, claims -> (List<String>) claims.get("roles")));
     }
 
     public Date extractExpiration(String token) {
@@ -72,11 +167,7 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     private Boolean isTokenExpired(String token) {
@@ -100,16 +191,13 @@ public class JwtUtil {
     }
 
     public Boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
-            return false;
-        }
+        return verify(token).isPresent();
+    }
+
+    /**
+     * Claims of a token whose signature and expiry have been checked.
+     */
+    public record VerifiedToken(String email, Long userId, List<String> roles, long expiresAt) {
     }
 }
 
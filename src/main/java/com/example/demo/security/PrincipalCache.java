@@ -0,0 +1,135 @@
+package com.example.demo.security;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.entity.Role;
+import com.example.demo.entity.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.repository.UserStatusRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Short-lived cache of the authenticated user's current state (id, roles, ban status),
+ * so {@link JwtAuthenticationFilter} does not query the users table on every request.
+ * Entries expire after a TTL and are evicted explicitly when an admin bans, deletes or
+ * changes the roles of a user; eviction is repeated after commit so a concurrent request
+ * cannot re-cache the pre-change row.
+ */
+@Component
+@Slf4j
+public class PrincipalCache {
+
+    private static final String BANNED = "BANNED";
+
+    private final UserRepository userRepository;
+    private final UserStatusRepository userStatusRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long ttlMillis;
+    private final int maxSize;
+
+    private final Map<String, CachedPrincipal> byEmail = new ConcurrentHashMap<>();
+
+    public PrincipalCache(
+            UserRepository userRepository,
+            UserStatusRepository userStatusRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${security.principal-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${security.principal-cache.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.userStatusRepository = userStatusRepository;
+        this.eventPublisher = eventPublisher;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Current state of the user with this email, loaded from the database on a miss.
+     * Empty when the user no longer exists.
+     */
+    public Optional<CachedPrincipal> get(String email) {
+        long now = System.currentTimeMillis();
+        CachedPrincipal cached = byEmail.get(email);
+        if (cached != null && cached.loadedAt() + ttlMillis > now) {
+            return Optional.of(cached);
+        }
+
+        Optional<CachedPrincipal> loaded = userRepository.findByEmail(email).map(user -> load(user, now));
+        if (loaded.isPresent()) {
+            if (byEmail.size() >= maxSize) {
+                evictExpired(now);
+            }
+            if (byEmail.size() < maxSize) {
+                byEmail.put(email, loaded.get());
+            }
+        } else {
+            byEmail.remove(email);
+        }
+        return loaded;
+    }
+
+    public void invalidate(String email) {
+        if (email == null) {
+            return;
+        }
+        byEmail.remove(email);
+        eventPublisher.publishEvent(new Invalidated(email, null));
+    }
+
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        removeUser(userId);
+        eventPublisher.publishEvent(new Invalidated(null, userId));
+    }
+
+    /**
+     * Repeats an eviction once the transaction that changed the user commits. Outside a
+     * transaction the listener does not run; the eager eviction is enough there.
+     */
+    @TransactionalEventListener
+    public void onInvalidated(Invalidated event) {
+        if (event.email() != null) {
+            byEmail.remove(event.email());
+        }
+        if (event.userId() != null) {
+            removeUser(event.userId());
+        }
+    }
+
+    public void clear() {
+        byEmail.clear();
+    }
+
+    private CachedPrincipal load(User user, long now) {
+        List<String> roles = user.getRoles() == null ? List.of()
+                : user.getRoles().stream().map(Role::getName).toList();
+        boolean banned = userStatusRepository.findByUserId(user.getId())
+                .map(record -> BANNED.equals(record.getStatus()))
+                .orElse(false);
+        return new CachedPrincipal(user.getId(), user.getEmail(), roles, banned, now);
+    }
+
+    private void removeUser(Long userId) {
+        byEmail.values().removeIf(p -> userId.equals(p.userId()));
+    }
+
+    private void evictExpired(long now) {
+        byEmail.values().removeIf(p -> p.loadedAt() + ttlMillis <= now);
+    }
+
+    public record CachedPrincipal(Long userId, String email, List<String> roles, boolean banned, long loadedAt) {
+    }
+
+    public record Invalidated(String email, Long userId) {
+    }
+}
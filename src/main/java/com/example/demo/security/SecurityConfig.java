@@ -63,6 +63,7 @@ public class SecurityConfig {
                         
                         // Protected user endpoints
                         .requestMatchers(HttpMethod.GET, "/api/listings/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/market/**").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/listings/**").authenticated()
                         .requestMatchers(HttpMethod.PUT, "/api/listings/**").authenticated()
                         .requestMatchers(HttpMethod.DELETE, "/api/listings/**").authenticated()
@@ -0,0 +1,32 @@
+package com.example.demo.security;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entity.UserStatusRecord;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Evicts the cached principal whenever a user's status row changes, whichever code path
+ * saved it. The cache is looked up lazily because Hibernate creates this listener while
+ * the EntityManagerFactory the cache depends on is still being built.
+ */
+@Component
+public class UserStatusRecordListener {
+
+    private final ObjectProvider<PrincipalCache> principalCache;
+
+    public UserStatusRecordListener(ObjectProvider<PrincipalCache> principalCache) {
+        this.principalCache = principalCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(UserStatusRecord record) {
+        principalCache.ifAvailable(cache -> cache.invalidate(record.getUserId()));
+    }
+}
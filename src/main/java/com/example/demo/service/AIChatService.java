@@ -1,42 +1,53 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.PriceBand;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class AIChatService {
 
-    @Value("${openrouter.api.key}")
-    private String apiKey;
-
-    @Value("${openrouter.api.endpoint}")
-    private String endpoint;
-
-    @Value("${openrouter.api.model}")
-    private String model;
-
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final AIGatewayService aiGatewayService;
     private final PriceAnalyticsService priceAnalyticsService;
 
     // ============================================================
     // HÀM CHÍNH — XỬ LÝ LOGIC CHAT
     // ============================================================
     public String ask(String msg) {
+        return respond(msg, this::safeAI);
+    }
+
+    /**
+     * Trả lời dạng stream: các nhánh giá trả lời ngay (một delta duy nhất),
+     * câu hỏi khác chuyển tiếp từng đoạn token của AI qua {@code onDelta}.
+     */
+    public void askStreaming(String msg, Consumer<String> onDelta) {
+        String local = respond(msg, (userMessage, systemInfo) -> {
+            safeStreamAI(userMessage, systemInfo, onDelta);
+            return null;
+        });
+        if (local != null) {
+            onDelta.accept(local);
+        }
+    }
+
+    // Nhánh giá trả lời tại chỗ; câu hỏi khác giao cho {@code ai}(userMessage, systemInfo)
+    private String respond(String msg, BiFunction<String, String, String> ai) {
 
         if (msg == null) msg = "";
         String lower = msg.toLowerCase().trim();
 
-        Double avg = nvl(priceAnalyticsService.getAveragePrice());
-        Double min = nvl(priceAnalyticsService.getMinPrice());
-        Double max = nvl(priceAnalyticsService.getMaxPrice());
-        Double suggested = nvl(priceAnalyticsService.getSuggestedPrice());
+        // Một lần đọc phân phối giá trong bộ nhớ cho cả 4 số liệu
+        PriceBand band = priceAnalyticsService.getPriceBand();
+        Double avg = nvl(band.mean());
+        Double min = nvl(band.min());
+        Double max = nvl(band.max());
+        Double suggested = nvl(band.suggested());
 
         boolean hasData = avg > 0;
 
@@ -95,7 +106,7 @@ public class AIChatService {
         // ====================================================
         // 3) CÂU HỎI KHÁC → GỌI AI
         // ====================================================
-        return safeAI(msg, "Dữ liệu hệ thống: avg=" + avg + ", suggested=" + suggested);
+        return ai.apply(msg, "Dữ liệu hệ thống: avg=" + format(avg) + ", suggested=" + format(suggested));
     }
 
 
@@ -103,41 +114,37 @@ public class AIChatService {
     // ============================================================
     // SAFE AI (không crash)
     // ============================================================
+    private static final String FALLBACK_REPLY = "Mình chưa hiểu ý bạn, bạn thử nói lại giúp mình nhé! 😊";
+
     private String safeAI(String userMessage, String systemInfo) {
         try {
             return callAI(userMessage, systemInfo);
         } catch (Exception e) {
-            return "Mình chưa hiểu ý bạn, bạn thử nói lại giúp mình nhé! 😊";
+            return FALLBACK_REPLY;
+        }
+    }
+
+    private void safeStreamAI(String userMessage, String systemInfo, Consumer<String> onDelta) {
+        AtomicBoolean started = new AtomicBoolean();
+        try {
+            aiGatewayService.stream(systemInfo, userMessage, delta -> {
+                started.set(true);
+                onDelta.accept(delta);
+            });
+        } catch (Exception e) {
+            // Đã gửi một phần thì không chèn câu xin lỗi vào giữa câu trả lời
+            if (!started.get()) {
+                onDelta.accept(FALLBACK_REPLY);
+            }
         }
     }
 
 
     // ============================================================
-    // GỌI OPENROUTER API
+    // GỌI AI QUA GATEWAY (cache, gộp request trùng, giới hạn đồng thời)
     // ============================================================
     private String callAI(String userMessage, String systemInfo) {
-
-        Map<String, Object> body = Map.of(
-                "model", model,
-                "messages", List.of(
-                        Map.of("role", "system", "content", systemInfo),
-                        Map.of("role", "user", "content", userMessage)
-                )
-        );
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Bearer " + apiKey);
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
-
-        ResponseEntity<Map> res = restTemplate.exchange(endpoint, HttpMethod.POST, request, Map.class);
-
-        List choices = (List) res.getBody().get("choices");
-        Map first = (Map) choices.get(0);
-        Map msg = (Map) first.get("message");
-
-        return msg.get("content").toString();
+        return aiGatewayService.complete(systemInfo, userMessage);
     }
 
 
@@ -0,0 +1,299 @@
+package com.example.demo.service;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.ai.ChatBackend;
+import com.example.demo.exception.AIUnavailableException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Front door to the {@link ChatBackend}. Prompts are normalised (case, accents kept,
+ * whitespace and trailing punctuation collapsed) and repeats are answered from a bounded
+ * LRU cache with a TTL. Identical prompts that arrive while one is already upstream wait
+ * for that call instead of issuing their own.
+ * <p>
+ * Upstream calls are capped by a semaphore; when it stays full past the acquire timeout
+ * the call fails fast. After {@code failure-threshold} consecutive failures the circuit
+ * opens and calls fail immediately for {@code open-seconds}; then a single trial call is
+ * let through and its outcome closes or re-opens the circuit. Both refusals throw
+ * {@link AIUnavailableException}.
+ */
+@Service
+@Slf4j
+public class AIGatewayService {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[\\s?!.…]+$");
+
+    private final ChatBackend backend;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long acquireTimeoutMillis;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final int maxConcurrent;
+
+    private final Semaphore permits;
+    private final Map<String, CachedReply> cache;
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    // Circuit breaker state, guarded by this
+    private int consecutiveFailures;
+    private long openUntil;
+    private boolean trialInFlight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder upstreamCalls = new LongAdder();
+    private final LongAdder upstreamMillis = new LongAdder();
+
+    public AIGatewayService(
+            ChatBackend backend,
+            @Value("${ai.cache.max-entries:500}") int maxEntries,
+            @Value("${ai.cache.ttl-seconds:600}") long ttlSeconds,
+            @Value("${ai.max-concurrent:8}") int maxConcurrent,
+            @Value("${ai.acquire-timeout-ms:2000}") long acquireTimeoutMillis,
+            @Value("${ai.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${ai.breaker.open-seconds:30}") long openSeconds) {
+        this.backend = backend;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = Duration.ofSeconds(ttlSeconds).toMillis();
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = Duration.ofSeconds(openSeconds).toMillis();
+        this.permits = new Semaphore(maxConcurrent);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedReply> eldest) {
+                return size() > AIGatewayService.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Reply to {@code userMessage} given the system prompt, from the cache when possible.
+     */
+    public String complete(String systemPrompt, String userMessage) {
+        return resolve(key(systemPrompt, userMessage), () -> backend.complete(systemPrompt, userMessage));
+    }
+
+    /**
+     * Streaming variant of {@link #complete}: upstream deltas are passed on as they arrive,
+     * while cached and coalesced replies are delivered whole as a single delta. The full
+     * reply is cached like a blocking one. {@code onDelta} should not throw; a client that
+     * went away must not count as a backend failure.
+     */
+    public void stream(String systemPrompt, String userMessage, Consumer<String> onDelta) {
+        AtomicBoolean streamed = new AtomicBoolean();
+        String reply = resolve(key(systemPrompt, userMessage), () -> {
+            StringBuilder full = new StringBuilder();
+            backend.stream(systemPrompt, userMessage, delta -> {
+                streamed.set(true);
+                full.append(delta);
+                onDelta.accept(delta);
+            });
+            return full.toString();
+        });
+        if (!streamed.get()) {
+            onDelta.accept(reply);
+        }
+    }
+
+    private String resolve(String key, Supplier<String> upstream) {
+        String cached = cached(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+
+        try {
+            // The previous holder of the key may have filled the cache after our first look
+            String late = cached(key);
+            if (late != null) {
+                hits.increment();
+                mine.complete(late);
+                return late;
+            }
+            misses.increment();
+            String reply = callUpstream(upstream);
+            store(key, reply);
+            mine.complete(reply);
+            return reply;
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Cache and breaker figures for the admin dashboard.
+     */
+    public Map<String, Object> getMetrics() {
+        long calls = upstreamCalls.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        synchronized (cache) {
+            metrics.put("cacheEntries", cache.size());
+        }
+        metrics.put("cacheHits", hits.sum());
+        metrics.put("cacheMisses", misses.sum());
+        metrics.put("upstreamCalls", calls);
+        metrics.put("coalesced", coalesced.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("failures", failures.sum());
+        metrics.put("inFlight", maxConcurrent - permits.availablePermits());
+        metrics.put("avgUpstreamMillis", calls == 0 ? 0L : upstreamMillis.sum() / calls);
+        metrics.put("circuit", circuitState());
+        return metrics;
+    }
+
+    /**
+     * Lowercase, Unicode-composed, single-spaced, without trailing ?/!/. so that
+     * "Giá hôm nay?" and "giá  hôm nay" share a cache entry.
+     */
+    static String normalize(String text) {
+        if (text == null) return "";
+        String s = Normalizer.normalize(text, Normalizer.Form.NFC).toLowerCase().trim();
+        s = WHITESPACE.matcher(s).replaceAll(" ");
+        return TRAILING_PUNCTUATION.matcher(s).replaceAll("");
+    }
+
+    private static String key(String systemPrompt, String userMessage) {
+        return normalize(systemPrompt) + "\u0000" + normalize(userMessage);
+    }
+
+    private String callUpstream(Supplier<String> upstream) {
+        boolean trial = admit();
+        boolean acquired = false;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!acquired) {
+            if (trial) releaseTrial();
+            rejected.increment();
+            throw new AIUnavailableException("Too many AI requests in flight");
+        }
+
+        long started = System.currentTimeMillis();
+        try {
+            String reply = upstream.get();
+            onSuccess();
+            return reply;
+        } catch (RuntimeException ex) {
+            failures.increment();
+            onFailure();
+            log.warn("AI backend call failed: {}", ex.getMessage());
+            throw ex;
+        } finally {
+            upstreamCalls.increment();
+            upstreamMillis.add(System.currentTimeMillis() - started);
+            permits.release();
+        }
+    }
+
+    // ==================== Circuit breaker ====================
+
+    /**
+     * Let the call through or throw; true when it is the half-open trial call.
+     */
+    private synchronized boolean admit() {
+        if (consecutiveFailures < failureThreshold) {
+            return false;
+        }
+        if (System.currentTimeMillis() < openUntil || trialInFlight) {
+            rejected.increment();
+            throw new AIUnavailableException("AI backend circuit is open");
+        }
+        trialInFlight = true;
+        return true;
+    }
+
+    private synchronized void releaseTrial() {
+        trialInFlight = false;
+    }
+
+    private synchronized void onSuccess() {
+        if (consecutiveFailures >= failureThreshold) {
+            log.info("AI backend recovered, closing circuit");
+        }
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    private synchronized void onFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (consecutiveFailures >= failureThreshold) {
+            openUntil = System.currentTimeMillis() + openMillis;
+            log.warn("AI backend failed {} times in a row, opening circuit for {} ms", consecutiveFailures, openMillis);
+        }
+    }
+
+    private synchronized String circuitState() {
+        if (consecutiveFailures < failureThreshold) return "CLOSED";
+        return System.currentTimeMillis() < openUntil ? "OPEN" : "HALF_OPEN";
+    }
+
+    // ==================== Cache ====================
+
+    private String cached(String key) {
+        synchronized (cache) {
+            CachedReply entry = cache.get(key);
+            if (entry == null) return null;
+            if (entry.expiresAt() < System.currentTimeMillis()) {
+                cache.remove(key);
+                return null;
+            }
+            return entry.reply();
+        }
+    }
+
+    private void store(String key, String reply) {
+        if (maxEntries <= 0 || ttlMillis <= 0) return;
+        synchronized (cache) {
+            cache.put(key, new CachedReply(reply, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    private static String join(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            throw ex;
+        }
+    }
+
+    private record CachedReply(String reply, long expiresAt) {}
+}
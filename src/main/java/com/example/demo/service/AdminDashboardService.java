@@ -21,6 +21,9 @@ public class AdminDashboardService {
     private final WalletTransactionRepository walletTransactionRepository;
     private final CarbonWalletRepository carbonWalletRepository;
     private final DisputeRepository disputeRepository;
+    private final AnalyticsRollupService analyticsRollupService;
+
+    private static final int TOP_PARTIES = 10;
 
     /**
      * Get comprehensive dashboard statistics
@@ -109,20 +112,11 @@ public class AdminDashboardService {
                 "end", endDate
         ));
 
-        // Users in period
-        long usersCreated = userRepository.countByCreatedAtBetween(startDate, endDate);
-        report.put("newUsers", usersCreated);
-
-        // Transactions in period
-        List<com.example.demo.entity.Transaction> transactions = 
-                transactionRepository.findByCreatedAtBetween(startDate, endDate);
-        
-        BigDecimal totalVolume = transactions.stream()
-                .map(com.example.demo.entity.Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        report.put("transactionCount", transactions.size());
-        report.put("totalVolume", totalVolume);
+        // Period figures come from the hourly/daily/monthly rollups
+        AnalyticsRollupService.Totals totals = analyticsRollupService.getTotals(startDate, endDate);
+        report.put("newUsers", totals.newUsers());
+        report.put("transactionCount", totals.transactionCount());
+        report.put("totalVolume", totals.transactionVolume());
 
         // Top sellers
         report.put("topSellers", getTopSellers(startDate, endDate));
@@ -137,14 +131,38 @@ public class AdminDashboardService {
             java.time.LocalDateTime startDate,
             java.time.LocalDateTime endDate
     ) {
-        return transactionRepository.findTopSellersByPeriod(startDate, endDate);
+        return describeParties(analyticsRollupService.getTopParties(
+                com.example.demo.entity.PartyRollup.Role.SELLER, startDate, endDate, TOP_PARTIES), "totalSales");
     }
 
     private List<Map<String, Object>> getTopBuyers(
             java.time.LocalDateTime startDate,
             java.time.LocalDateTime endDate
     ) {
-        return transactionRepository.findTopBuyersByPeriod(startDate, endDate);
+        return describeParties(analyticsRollupService.getTopParties(
+                com.example.demo.entity.PartyRollup.Role.BUYER, startDate, endDate, TOP_PARTIES), "totalPurchases");
+    }
+
+    private List<Map<String, Object>> describeParties(
+            List<AnalyticsRollupService.PartyTotal> parties,
+            String totalKey
+    ) {
+        Map<Long, com.example.demo.entity.User> users = new HashMap<>();
+        userRepository.findAllById(parties.stream().map(AnalyticsRollupService.PartyTotal::userId).toList())
+                .forEach(u -> users.put(u.getId(), u));
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (AnalyticsRollupService.PartyTotal party : parties) {
+            com.example.demo.entity.User user = users.get(party.userId());
+            Map<String, Object> row = new HashMap<>();
+            row.put("userId", party.userId());
+            row.put("email", user != null ? user.getEmail() : null);
+            row.put("name", user != null ? user.getFullName() : null);
+            row.put(totalKey, party.volume());
+            row.put("transactionCount", party.transactionCount());
+            result.add(row);
+        }
+        return result;
     }
 }
 
@@ -0,0 +1,473 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TransactionStatusChangedEvent;
+import com.example.demo.entity.ActivityRollup;
+import com.example.demo.entity.ActivityRollup.Granularity;
+import com.example.demo.entity.Co2Status;
+import com.example.demo.entity.PartyRollup;
+import com.example.demo.entity.RollupWatermark;
+import com.example.demo.entity.Transaction;
+import com.example.demo.repository.ActivityRollupRepository;
+import com.example.demo.repository.Co2Repository;
+import com.example.demo.repository.PartyRollupRepository;
+import com.example.demo.repository.RollupWatermarkRepository;
+import com.example.demo.repository.TransactionRepository;
+import com.example.demo.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Maintains hourly, daily and monthly rollups of transactions, CO2 reductions and user
+ * registrations, and answers range queries from them.
+ * <p>
+ * New source rows are folded in by a scheduled job that walks each table past its
+ * watermark; rows younger than {@code analytics.rollup.settle-seconds} are left for the
+ * next run so rows of still-open transactions (lower id, later commit) are not skipped.
+ * Each folded transaction records whether it was counted as completed; transactions that
+ * become (or stop being) COMPLETED after they were folded in are corrected against that
+ * flag from {@link TransactionStatusChangedEvent}, and a periodic reconciliation picks up
+ * any correction that was missed.
+ * <p>
+ * Range queries are split into whole months, days and hours, so their cost depends on
+ * the number of buckets, not rows. Ranges are widened to whole hours.
+ */
+@Service
+@Slf4j
+public class AnalyticsRollupService {
+
+    private static final Granularity[] GRANULARITIES = Granularity.values();
+
+    private final ActivityRollupRepository activityRollupRepository;
+    private final PartyRollupRepository partyRollupRepository;
+    private final RollupWatermarkRepository watermarkRepository;
+    private final TransactionRepository transactionRepository;
+    private final Co2Repository co2Repository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate batchTransaction;
+
+    @Value("${analytics.rollup.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${analytics.rollup.settle-seconds:30}")
+    private long settleSeconds;
+
+    @Value("${analytics.rollup.reconcile-days:7}")
+    private long reconcileDays;
+
+    public AnalyticsRollupService(ActivityRollupRepository activityRollupRepository,
+                                  PartyRollupRepository partyRollupRepository,
+                                  RollupWatermarkRepository watermarkRepository,
+                                  TransactionRepository transactionRepository,
+                                  Co2Repository co2Repository,
+                                  UserRepository userRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.activityRollupRepository = activityRollupRepository;
+        this.partyRollupRepository = partyRollupRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.transactionRepository = transactionRepository;
+        this.co2Repository = co2Repository;
+        this.userRepository = userRepository;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ==================== Ingestion ====================
+
+    /**
+     * Fold every settled source row past the watermarks into the rollups, one batch per
+     * DB transaction. The first run after the migration backfills all history.
+     */
+    @Scheduled(fixedDelayString = "${analytics.rollup.interval-ms:30000}",
+               initialDelayString = "${analytics.rollup.initial-delay-ms:20000}")
+    public void ingest() {
+        int rows = drain(RollupWatermark.TRANSACTIONS, this::ingestTransactions)
+                + drain(RollupWatermark.CO2_REDUCTIONS, this::ingestCo2Reductions)
+                + drain(RollupWatermark.USERS, this::ingestUsers);
+        if (rows > 0) {
+            log.info("Analytics rollups: folded in {} new rows", rows);
+        }
+    }
+
+    private int drain(String source, Function<RollupWatermark, Integer> batch) {
+        int total = 0;
+        while (true) {
+            Integer rows = batchTransaction.execute(status -> watermarkRepository.lockBySource(source)
+                    .map(batch)
+                    .orElse(0));
+            total += rows != null ? rows : 0;
+            if (rows == null || rows < batchSize) {
+                return total;
+            }
+        }
+    }
+
+    private int ingestTransactions(RollupWatermark watermark) {
+        List<Map<String, Object>> rows = transactionRepository.findRollupRowsAfter(
+                watermark.getLastId(), cutoff(), PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) return 0;
+
+        Map<BucketKey, Delta> activity = new HashMap<>();
+        Map<PartyKey, Delta> parties = new HashMap<>();
+        List<Long> foldedCompleted = new ArrayList<>();
+        List<Long> foldedOther = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            LocalDateTime createdAt = (LocalDateTime) row.get("createdAt");
+            BigDecimal amount = decimal(row.get("amount"));
+            boolean completed = row.get("status") == Transaction.TransactionStatus.COMPLETED;
+            (completed ? foldedCompleted : foldedOther).add((Long) row.get("id"));
+            for (Granularity g : GRANULARITIES) {
+                LocalDateTime bucket = bucketStart(g, createdAt);
+                Delta d = activity.computeIfAbsent(new BucketKey(g, bucket), k -> new Delta());
+                d.transactionCount++;
+                d.transactionVolume = d.transactionVolume.add(amount);
+                if (completed) {
+                    d.completedCount++;
+                    d.completedVolume = d.completedVolume.add(amount);
+                }
+                addParty(parties, g, bucket, PartyRollup.Role.BUYER, (Long) row.get("buyerId"), amount);
+                addParty(parties, g, bucket, PartyRollup.Role.SELLER, (Long) row.get("sellerId"), amount);
+            }
+        }
+        flush(activity);
+        parties.forEach((k, d) -> partyRollupRepository.accumulate(
+                k.granularity().name(), k.bucketStart(), k.role().name(), k.userId(),
+                d.transactionCount, d.transactionVolume));
+        if (!foldedCompleted.isEmpty()) transactionRepository.markRollupCompleted(foldedCompleted, true);
+        if (!foldedOther.isEmpty()) transactionRepository.markRollupCompleted(foldedOther, false);
+
+        return advance(watermark, rows);
+    }
+
+    private int ingestCo2Reductions(RollupWatermark watermark) {
+        List<Map<String, Object>> rows = co2Repository.findRollupRowsAfter(
+                watermark.getLastId(), cutoff(), PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) return 0;
+
+        Map<BucketKey, Delta> activity = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            if (row.get("status") != Co2Status.APPROVED) continue;
+            LocalDateTime createdAt = (LocalDateTime) row.get("createdAt");
+            BigDecimal credits = decimal(row.get("credits"));
+            for (Granularity g : GRANULARITIES) {
+                Delta d = activity.computeIfAbsent(new BucketKey(g, bucketStart(g, createdAt)), k -> new Delta());
+                d.co2ApprovedCount++;
+                d.co2Credits = d.co2Credits.add(credits);
+            }
+        }
+        flush(activity);
+
+        return advance(watermark, rows);
+    }
+
+    private int ingestUsers(RollupWatermark watermark) {
+        List<Map<String, Object>> rows = userRepository.findRollupRowsAfter(
+                watermark.getLastId(), cutoff(), PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) return 0;
+
+        Map<BucketKey, Delta> activity = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            LocalDateTime createdAt = (LocalDateTime) row.get("createdAt");
+            for (Granularity g : GRANULARITIES) {
+                activity.computeIfAbsent(new BucketKey(g, bucketStart(g, createdAt)), k -> new Delta()).newUsers++;
+            }
+        }
+        flush(activity);
+
+        return advance(watermark, rows);
+    }
+
+    /**
+     * Correct the completed figures of a transaction that was already folded in. The event
+     * only says which row to look at: the correction compares the row's current status with
+     * the completed flag ingestion recorded for it, under the TRANSACTIONS watermark lock, so
+     * it is applied at most once however it interleaves with ingestion or other events.
+     * Rows not folded in yet are left to ingestion. A failed correction is picked up by
+     * {@link #reconcile()}.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionStatusChanged(TransactionStatusChangedEvent event) {
+        boolean wasCompleted = event.from() == Transaction.TransactionStatus.COMPLETED;
+        boolean isCompleted = event.to() == Transaction.TransactionStatus.COMPLETED;
+        if (event.from() == null || wasCompleted == isCompleted) {
+            return;
+        }
+        try {
+            correct(event.transactionId());
+        } catch (RuntimeException ex) {
+            log.warn("Could not apply status change of transaction {} to rollups, reconciliation will retry: {}",
+                    event.transactionId(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Re-apply status corrections for folded transactions of the last
+     * {@code analytics.rollup.reconcile-days} whose completed flag no longer matches their
+     * status, e.g. because the event-driven correction failed or the process stopped first.
+     */
+    @Scheduled(fixedDelayString = "${analytics.rollup.reconcile-interval-ms:600000}",
+               initialDelayString = "${analytics.rollup.initial-delay-ms:20000}")
+    public void reconcile() {
+        int corrected = 0;
+        for (Long id : transactionRepository.findRollupMismatchesSince(
+                LocalDateTime.now().minusDays(reconcileDays), Transaction.TransactionStatus.COMPLETED)) {
+            try {
+                if (correct(id)) corrected++;
+            } catch (RuntimeException ex) {
+                log.warn("Could not reconcile transaction {} with rollups: {}", id, ex.getMessage());
+            }
+        }
+        if (corrected > 0) {
+            log.info("Analytics rollups: reconciled {} transaction status changes", corrected);
+        }
+    }
+
+    /**
+     * Move one folded transaction between completed and not completed in its buckets if its
+     * status no longer matches the recorded flag. True when a correction was applied.
+     */
+    private boolean correct(Long transactionId) {
+        Boolean applied = batchTransaction.execute(status -> watermarkRepository.lockBySource(RollupWatermark.TRANSACTIONS)
+                .flatMap(w -> transactionRepository.findRollupRow(transactionId))
+                .filter(row -> row.get("rollupCompleted") != null && row.get("createdAt") != null)
+                .map(row -> {
+                    boolean folded = (Boolean) row.get("rollupCompleted");
+                    boolean completed = row.get("status") == Transaction.TransactionStatus.COMPLETED;
+                    if (folded == completed) return false;
+                    long sign = completed ? 1 : -1;
+                    BigDecimal amount = decimal(row.get("amount"));
+                    LocalDateTime createdAt = (LocalDateTime) row.get("createdAt");
+                    for (Granularity g : GRANULARITIES) {
+                        activityRollupRepository.accumulate(g.name(), bucketStart(g, createdAt),
+                                0, BigDecimal.ZERO, sign,
+                                sign > 0 ? amount : amount.negate(),
+                                0, BigDecimal.ZERO, 0);
+                    }
+                    transactionRepository.markRollupCompleted(List.of(transactionId), completed);
+                    return true;
+                })
+                .orElse(false));
+        return Boolean.TRUE.equals(applied);
+    }
+
+    private void flush(Map<BucketKey, Delta> activity) {
+        activity.forEach((k, d) -> activityRollupRepository.accumulate(
+                k.granularity().name(), k.bucketStart(),
+                d.transactionCount, d.transactionVolume,
+                d.completedCount, d.completedVolume,
+                d.co2ApprovedCount, d.co2Credits,
+                d.newUsers));
+    }
+
+    private int advance(RollupWatermark watermark, List<Map<String, Object>> rows) {
+        watermark.setLastId((Long) rows.get(rows.size() - 1).get("id"));
+        watermarkRepository.save(watermark);
+        return rows.size();
+    }
+
+    private void addParty(Map<PartyKey, Delta> parties, Granularity g, LocalDateTime bucket,
+                          PartyRollup.Role role, Long userId, BigDecimal amount) {
+        if (userId == null) return;
+        Delta d = parties.computeIfAbsent(new PartyKey(g, bucket, role, userId), k -> new Delta());
+        d.transactionCount++;
+        d.transactionVolume = d.transactionVolume.add(amount);
+    }
+
+    private LocalDateTime cutoff() {
+        return LocalDateTime.now().minusSeconds(settleSeconds);
+    }
+
+    // ==================== Range queries ====================
+
+    /**
+     * Activity totals for {@code [start, end)}.
+     */
+    public Totals getTotals(LocalDateTime start, LocalDateTime end) {
+        Totals totals = Totals.EMPTY;
+        for (Segment segment : segments(start, end)) {
+            Map<String, Object> row = activityRollupRepository.sumBetween(segment.granularity(), segment.from(), segment.to());
+            if (row != null) {
+                totals = totals.plus(new Totals(
+                        number(row.get("transactionCount")),
+                        decimal(row.get("transactionVolume")),
+                        number(row.get("completedCount")),
+                        decimal(row.get("completedVolume")),
+                        number(row.get("co2ApprovedCount")),
+                        decimal(row.get("co2Credits")),
+                        number(row.get("newUsers"))
+                ));
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Monthly buckets from {@code first} to {@code last} inclusive; months without activity are absent.
+     */
+    public Map<YearMonth, ActivityRollup> getMonthly(YearMonth first, YearMonth last) {
+        Map<YearMonth, ActivityRollup> months = new LinkedHashMap<>();
+        for (ActivityRollup rollup : activityRollupRepository
+                .findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(
+                        Granularity.MONTH, first.atDay(1).atStartOfDay(), last.plusMonths(1).atDay(1).atStartOfDay())) {
+            months.put(YearMonth.from(rollup.getBucketStart()), rollup);
+        }
+        return months;
+    }
+
+    /**
+     * Buyers or sellers of {@code [start, end)} ranked by volume. All parties of the range are
+     * returned when {@code limit} is not positive; the list size is the distinct party count.
+     */
+    public List<PartyTotal> getTopParties(PartyRollup.Role role, LocalDateTime start, LocalDateTime end, int limit) {
+        Map<Long, PartyTotal> byUser = new HashMap<>();
+        for (Segment segment : segments(start, end)) {
+            for (Map<String, Object> row : partyRollupRepository.sumByUserBetween(
+                    role, segment.granularity(), segment.from(), segment.to())) {
+                Long userId = (Long) row.get("userId");
+                PartyTotal part = new PartyTotal(userId, number(row.get("transactionCount")), decimal(row.get("volume")));
+                byUser.merge(userId, part, PartyTotal::plus);
+            }
+        }
+        List<PartyTotal> ranked = new ArrayList<>(byUser.values());
+        ranked.sort(Comparator.comparing(PartyTotal::volume).reversed());
+        return limit > 0 && ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+    }
+
+    /**
+     * Split {@code [start, end)} (widened to whole hours) into the fewest aligned bucket ranges:
+     * leading hours, leading days, whole months, trailing days, trailing hours.
+     */
+    static List<Segment> segments(LocalDateTime start, LocalDateTime end) {
+        List<Segment> segments = new ArrayList<>();
+        LocalDateTime from = start.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime to = end.truncatedTo(ChronoUnit.HOURS);
+        if (to.isBefore(end)) to = to.plusHours(1);
+        if (!from.isBefore(to)) return segments;
+
+        LocalDateTime firstDay = ceil(Granularity.DAY, from);
+        LocalDateTime lastDay = bucketStart(Granularity.DAY, to);
+        if (!firstDay.isBefore(lastDay)) {
+            addSegment(segments, Granularity.HOUR, from, to);
+            return segments;
+        }
+        addSegment(segments, Granularity.HOUR, from, firstDay);
+
+        LocalDateTime firstMonth = ceil(Granularity.MONTH, firstDay);
+        LocalDateTime lastMonth = bucketStart(Granularity.MONTH, lastDay);
+        if (!firstMonth.isBefore(lastMonth)) {
+            addSegment(segments, Granularity.DAY, firstDay, lastDay);
+        } else {
+            addSegment(segments, Granularity.DAY, firstDay, firstMonth);
+            addSegment(segments, Granularity.MONTH, firstMonth, lastMonth);
+            addSegment(segments, Granularity.DAY, lastMonth, lastDay);
+        }
+
+        addSegment(segments, Granularity.HOUR, lastDay, to);
+        return segments;
+    }
+
+    private static void addSegment(List<Segment> segments, Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        if (from.isBefore(to)) {
+            segments.add(new Segment(granularity, from, to));
+        }
+    }
+
+    static LocalDateTime bucketStart(Granularity granularity, LocalDateTime time) {
+        return switch (granularity) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case MONTH -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        };
+    }
+
+    private static LocalDateTime ceil(Granularity granularity, LocalDateTime time) {
+        LocalDateTime floor = bucketStart(granularity, time);
+        if (floor.equals(time)) return floor;
+        return granularity == Granularity.MONTH ? floor.plusMonths(1) : floor.plusDays(1);
+    }
+
+    private static long number(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    private static BigDecimal decimal(Object value) {
+        if (value == null) return BigDecimal.ZERO;
+        if (value instanceof BigDecimal decimal) return decimal;
+        return new BigDecimal(value.toString());
+    }
+
+    // ==================== Types ====================
+
+    record Segment(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+    }
+
+    private record BucketKey(Granularity granularity, LocalDateTime bucketStart) {
+    }
+
+    private record PartyKey(Granularity granularity, LocalDateTime bucketStart, PartyRollup.Role role, Long userId) {
+    }
+
+    private static final class Delta {
+        private long transactionCount;
+        private BigDecimal transactionVolume = BigDecimal.ZERO;
+        private long completedCount;
+        private BigDecimal completedVolume = BigDecimal.ZERO;
+        private long co2ApprovedCount;
+        private BigDecimal co2Credits = BigDecimal.ZERO;
+        private long newUsers;
+    }
+
+    /**
+     * Activity summed over a range of buckets.
+     */
+    public record Totals(
+            long transactionCount,
+            BigDecimal transactionVolume,
+            long completedCount,
+            BigDecimal completedVolume,
+            long co2ApprovedCount,
+            BigDecimal co2Credits,
+            long newUsers
+    ) {
+        static final Totals EMPTY = new Totals(0, BigDecimal.ZERO, 0, BigDecimal.ZERO, 0, BigDecimal.ZERO, 0);
+
+        Totals plus(Totals o) {
+            return new Totals(
+                    transactionCount + o.transactionCount,
+                    transactionVolume.add(o.transactionVolume),
+                    completedCount + o.completedCount,
+                    completedVolume.add(o.completedVolume),
+                    co2ApprovedCount + o.co2ApprovedCount,
+                    co2Credits.add(o.co2Credits),
+                    newUsers + o.newUsers
+            );
+        }
+    }
+
+    /**
+     * One buyer's or seller's totals over a range.
+     */
+    public record PartyTotal(Long userId, long transactionCount, BigDecimal volume) {
+        PartyTotal plus(PartyTotal o) {
+            return new PartyTotal(userId, transactionCount + o.transactionCount, volume.add(o.volume));
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.entity.CarbonWallet;
+import com.example.demo.entity.LedgerEntry;
 import com.example.demo.entity.User;
 import com.example.demo.repository.CarbonWalletRepository;
 import com.example.demo.repository.UserRepository;
@@ -21,29 +22,58 @@ public class CarbonWalletService {
 
     private final CarbonWalletRepository carbonWalletRepository;
     private final UserRepository userRepository;
+    private final LedgerService ledgerService;
 
     @Transactional
     public BigDecimal getBalance(Long ownerId) {
-        CarbonWallet cw = carbonWalletRepository.findByOwner_Id(ownerId)
+        return carbonWalletRepository.findBalanceByOwnerId(ownerId)
                 .orElseThrow(() -> new EntityNotFoundException("Carbon wallet not found for user: " + ownerId));
-        return cw.getBalance();
     }
 
     @Transactional
     public void credit(Long ownerId, BigDecimal creditsInTons, String description) {
+        credit(ownerId, creditsInTons, description, LedgerEntry.EntryType.ISSUANCE);
+    }
+
+    @Transactional
+    public void credit(Long ownerId, BigDecimal creditsInTons, String description, LedgerEntry.EntryType entryType) {
         if (creditsInTons == null || creditsInTons.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Credits must be greater than zero");
         }
 
-        CarbonWallet cw = carbonWalletRepository.findByOwner_Id(ownerId)
-                .orElseGet(() -> createCarbonWalletForUser(ownerId));
-
-        cw.setBalance(cw.getBalance().add(creditsInTons));
-        carbonWalletRepository.save(cw);
+        // single-statement delta; create the wallet only when the owner has none yet
+        if (carbonWalletRepository.creditBalance(ownerId, creditsInTons) == 0) {
+            createCarbonWalletForUser(ownerId);
+            carbonWalletRepository.creditBalance(ownerId, creditsInTons);
+        }
+        ledgerService.post(entryType, LedgerEntry.Asset.CARBON,
+                LedgerService.systemAccountFor(entryType), LedgerService.userAccount(ownerId),
+                creditsInTons, null, description);
 
         log.info("Carbon wallet credited: owner={}, credits(t)= {}, description={}", ownerId, creditsInTons, description);
     }
 
+    @Transactional
+    public void debit(Long ownerId, BigDecimal creditsInTons, String description) {
+        debit(ownerId, creditsInTons, description, LedgerEntry.EntryType.RETIREMENT);
+    }
+
+    @Transactional
+    public void debit(Long ownerId, BigDecimal creditsInTons, String description, LedgerEntry.EntryType entryType) {
+        if (creditsInTons == null || creditsInTons.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Credits must be greater than zero");
+        }
+
+        if (carbonWalletRepository.debitBalance(ownerId, creditsInTons) == 0) {
+            throw new IllegalStateException("Insufficient carbon balance");
+        }
+        ledgerService.post(entryType, LedgerEntry.Asset.CARBON,
+                LedgerService.userAccount(ownerId), LedgerService.systemAccountFor(entryType),
+                creditsInTons, null, description);
+
+        log.info("Carbon wallet debited: owner={}, credits(t)= {}, description={}", ownerId, creditsInTons, description);
+    }
+
     private CarbonWallet createCarbonWalletForUser(Long ownerId) {
         User user = userRepository.findById(ownerId)
                 .orElseThrow(() -> new EntityNotFoundException("User not found: " + ownerId));
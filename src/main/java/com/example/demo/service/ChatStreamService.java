@@ -0,0 +1,107 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams chat replies as server-sent events: one {@code delta} event per piece of text
+ * ({@code {"text": "..."}}) followed by a {@code done} event. Each stream runs on its own
+ * virtual thread, so the Tomcat worker is released as soon as the emitter is returned and
+ * a long generation only parks a cheap thread while it waits on the upstream socket.
+ * Open streams are capped; callers get an empty result when the cap is reached.
+ */
+@Service
+@Slf4j
+public class ChatStreamService {
+
+    private final AIChatService aiChatService;
+    private final long timeoutMillis;
+    private final Semaphore openStreams;
+    private final ExecutorService streams = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ChatStreamService(
+            AIChatService aiChatService,
+            @Value("${chat.stream.max-open:200}") int maxOpen,
+            @Value("${chat.stream.timeout-ms:120000}") long timeoutMillis) {
+        this.aiChatService = aiChatService;
+        this.timeoutMillis = timeoutMillis;
+        this.openStreams = new Semaphore(maxOpen);
+    }
+
+    public Optional<SseEmitter> open(Long userId, String message) {
+        if (!openStreams.tryAcquire()) {
+            log.warn("Chat stream limit reached, refusing user {}", userId);
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        AtomicBoolean closed = new AtomicBoolean();
+        emitter.onCompletion(() -> closed.set(true));
+        emitter.onTimeout(() -> closed.set(true));
+        emitter.onError(e -> closed.set(true));
+
+        try {
+            streams.execute(() -> run(emitter, closed, message));
+        } catch (RuntimeException ex) {
+            openStreams.release();
+            throw ex;
+        }
+        return Optional.of(emitter);
+    }
+
+    private void run(SseEmitter emitter, AtomicBoolean closed, String message) {
+        long started = System.currentTimeMillis();
+        long[] firstDelta = {-1};
+        try {
+            aiChatService.askStreaming(message, delta -> {
+                if (firstDelta[0] < 0) {
+                    firstDelta[0] = System.currentTimeMillis() - started;
+                }
+                send(emitter, closed, "delta", Map.of("text", delta));
+            });
+            send(emitter, closed, "done", Map.of());
+            if (!closed.get()) {
+                emitter.complete();
+            }
+            log.info("Chat stream finished in {} ms (first delta after {} ms)",
+                    System.currentTimeMillis() - started, firstDelta[0]);
+        } catch (RuntimeException ex) {
+            log.warn("Chat stream failed: {}", ex.getMessage());
+            if (!closed.get()) {
+                emitter.completeWithError(ex);
+            }
+        } finally {
+            openStreams.release();
+        }
+    }
+
+    /**
+     * Send one event; once the client has gone, later events are dropped silently so the
+     * upstream reply still completes (and is cached) instead of failing.
+     */
+    private static void send(SseEmitter emitter, AtomicBoolean closed, String name, Object data) {
+        if (closed.get()) return;
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            closed.set(true);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streams.shutdownNow();
+    }
+}
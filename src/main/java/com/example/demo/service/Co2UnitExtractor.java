@@ -0,0 +1,311 @@
+package com.example.demo.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.dto.Co2Figures;
+import com.example.demo.dto.Co2Finding;
+
+/**
+ * Single-pass extractor for CO2-relevant quantities ("12,5 kg CO2", "0.5 t", "320 kWh",
+ * "120km", "40 lít"). Characters are tokenized once into numbers and words; a number
+ * followed (after optional whitespace) by a known unit word is a finding. Unit words
+ * must be whole words, so "5 tables" is not 5 tonnes; a mass unit may carry the gas as a
+ * suffix ("150 kgCO2", "0.5 tCO2e"). When no unit is found at all, the first number within
+ * 20 non-digit characters of "co2" is used, as before.
+ * <p>
+ * Input can arrive in chunks of any size. Not thread-safe: use one extractor per document.
+ */
+public final class Co2UnitExtractor {
+
+    public enum Kind { CO2_MASS, ENERGY, DISTANCE, FUEL, CO2_NEARBY }
+
+    private record Unit(Kind kind, BigDecimal multiplier, String symbol) {
+    }
+
+    private static final Unit KG = new Unit(Kind.CO2_MASS, BigDecimal.ONE, "kg");
+    private static final Unit TONNE = new Unit(Kind.CO2_MASS, BigDecimal.valueOf(1000), "t");
+    private static final Unit KWH = new Unit(Kind.ENERGY, BigDecimal.ONE, "kWh");
+    private static final Unit MWH = new Unit(Kind.ENERGY, BigDecimal.valueOf(1000), "MWh");
+    private static final Unit KM = new Unit(Kind.DISTANCE, BigDecimal.ONE, "km");
+    private static final Unit LITRE = new Unit(Kind.FUEL, BigDecimal.ONE, "L");
+
+    private static final Map<String, Unit> UNITS = Map.ofEntries(
+            Map.entry("kg", KG), Map.entry("kgs", KG), Map.entry("kilo", KG), Map.entry("kilos", KG),
+            Map.entry("kilogram", KG), Map.entry("kilograms", KG),
+            Map.entry("t", TONNE), Map.entry("ton", TONNE), Map.entry("tons", TONNE),
+            Map.entry("tonne", TONNE), Map.entry("tonnes", TONNE), Map.entry("tấn", TONNE),
+            Map.entry("kwh", KWH), Map.entry("mwh", MWH),
+            Map.entry("km", KM), Map.entry("kilometer", KM), Map.entry("kilometers", KM),
+            Map.entry("kilometre", KM), Map.entry("kilometres", KM),
+            Map.entry("l", LITRE), Map.entry("lit", LITRE), Map.entry("lít", LITRE), Map.entry("liter", LITRE),
+            Map.entry("liters", LITRE), Map.entry("litre", LITRE), Map.entry("litres", LITRE));
+
+    // Longer tokens are never a unit or a sensible quantity
+    private static final int MAX_TOKEN = 32;
+    // "co2" and a bare number may be this many non-digit characters apart
+    private static final int NEARBY = 20;
+
+    /**
+     * CO2 emission factors (kg CO2 per unit) for the indirect quantities.
+     */
+    public record Factors(BigDecimal kgPerKwh, BigDecimal kgPerKm, BigDecimal kgPerLiter) {
+
+        public static final Factors DEFAULTS =
+                new Factors(new BigDecimal("0.475"), new BigDecimal("0.21"), new BigDecimal("2.31"));
+
+        public BigDecimal co2Kg(Co2Figures figures) {
+            BigDecimal totalKg = BigDecimal.ZERO;
+            if (figures.explicitCo2Kg() != null) totalKg = totalKg.add(figures.explicitCo2Kg());
+            if (figures.energyKwh() != null) totalKg = totalKg.add(figures.energyKwh().multiply(kgPerKwh));
+            if (figures.distanceKm() != null) totalKg = totalKg.add(figures.distanceKm().multiply(kgPerKm));
+            if (figures.fuelLiters() != null) totalKg = totalKg.add(figures.fuelLiters().multiply(kgPerLiter));
+            return totalKg.setScale(4, RoundingMode.HALF_UP);
+        }
+
+        BigDecimal kgPer(Kind kind) {
+            return switch (kind) {
+                case ENERGY -> kgPerKwh;
+                case DISTANCE -> kgPerKm;
+                case FUEL -> kgPerLiter;
+                default -> BigDecimal.ONE;
+            };
+        }
+    }
+
+    /**
+     * @param findings     the first {@code maxFindings} findings, in document order
+     * @param findingCount all findings, including those not itemized
+     */
+    public record Result(Co2Figures figures, BigDecimal co2Kg, List<Co2Finding> findings, int findingCount) {
+    }
+
+    private enum Lex { NONE, WORD, NUMBER, NUMBER_SEPARATOR }
+
+    private final Factors factors;
+    private final int maxFindings;
+
+    // current token
+    private Lex lex = Lex.NONE;
+    private final StringBuilder token = new StringBuilder(MAX_TOKEN);
+    private boolean tokenOverflow;
+    private long tokenStart;
+    private long offset;
+
+    // last number, waiting for a unit while only whitespace follows it
+    private BigDecimal pendingNumber;
+    private long pendingStart;
+    private long pendingEnd;
+    private boolean pendingOpen;
+
+    // end of the last "co2" word with no digit after it, or -1
+    private long co2End = -1;
+    private BigDecimal nearbyValue;
+    private long nearbyOffset;
+
+    private final BigDecimal[] totals = {BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO};
+    private final List<Co2Finding> findings = new ArrayList<>();
+    private int findingCount;
+
+    public Co2UnitExtractor(Factors factors, int maxFindings) {
+        this.factors = factors;
+        this.maxFindings = maxFindings;
+    }
+
+    public void accept(char[] ch, int start, int length) {
+        for (int i = start; i < start + length; i++) {
+            accept(ch[i]);
+        }
+    }
+
+    public void accept(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            accept(text.charAt(i));
+        }
+    }
+
+    public Result finish() {
+        endToken();
+
+        boolean anyUnit = findingCount > 0;
+        BigDecimal explicitKg = totals[Kind.CO2_MASS.ordinal()];
+        if (!anyUnit && nearbyValue != null) {
+            explicitKg = nearbyValue;
+            addFinding(Kind.CO2_NEARBY, nearbyValue, "kg", nearbyValue, nearbyOffset);
+        }
+        Co2Figures figures = new Co2Figures(explicitKg, totals[Kind.ENERGY.ordinal()],
+                totals[Kind.DISTANCE.ordinal()], totals[Kind.FUEL.ordinal()]);
+        return new Result(figures, factors.co2Kg(figures), List.copyOf(findings), findingCount);
+    }
+
+    private void accept(char raw) {
+        char c = Character.toLowerCase(raw);
+        switch (lex) {
+            case WORD -> {
+                if (Character.isLetterOrDigit(c)) {
+                    append(c);
+                    return;
+                }
+                endToken();
+            }
+            case NUMBER -> {
+                if (isDigit(c)) {
+                    append(c);
+                    return;
+                }
+                if ((c == '.' || c == ',') && token.indexOf(".") < 0) {
+                    append('.');
+                    lex = Lex.NUMBER_SEPARATOR;
+                    return;
+                }
+                endToken();
+            }
+            case NUMBER_SEPARATOR -> {
+                if (isDigit(c)) {
+                    append(c);
+                    lex = Lex.NUMBER;
+                    return;
+                }
+                // "12." or "12," ending a sentence: the separator is not part of the number
+                token.setLength(token.length() - 1);
+                endToken();
+            }
+            default -> {
+            }
+        }
+
+        if (Character.isLetter(c)) {
+            startToken(Lex.WORD, c);
+        } else if (isDigit(c)) {
+            startToken(Lex.NUMBER, c);
+        } else {
+            if (!Character.isWhitespace(c)) {
+                pendingOpen = false;
+            }
+            offset++;
+        }
+    }
+
+    private void startToken(Lex type, char c) {
+        lex = type;
+        token.setLength(0);
+        tokenOverflow = false;
+        tokenStart = offset;
+        append(c);
+    }
+
+    private void append(char c) {
+        if (token.length() < MAX_TOKEN) {
+            token.append(c);
+        } else {
+            tokenOverflow = true;
+        }
+        offset++;
+    }
+
+    private void endToken() {
+        Lex type = lex;
+        lex = Lex.NONE;
+        if (type == Lex.WORD) {
+            endWord(tokenOverflow ? "" : token.toString());
+        } else if (type == Lex.NUMBER || type == Lex.NUMBER_SEPARATOR) {
+            endNumber(tokenOverflow ? null : parse(token));
+        }
+    }
+
+    private void endNumber(BigDecimal value) {
+        if (value == null) {
+            pendingNumber = null;
+            co2End = -1;
+            return;
+        }
+        // "co2 ... 123": first bare number after co2
+        if (nearbyValue == null && co2End >= 0 && tokenStart - co2End <= NEARBY) {
+            nearbyValue = value;
+            nearbyOffset = tokenStart;
+        }
+        co2End = -1;
+        pendingNumber = value;
+        pendingStart = tokenStart;
+        pendingEnd = offset;
+        pendingOpen = true;
+    }
+
+    private void endWord(String word) {
+        if (pendingNumber != null && pendingOpen) {
+            Unit unit = unitOf(word);
+            if (unit != null) {
+                BigDecimal quantity = pendingNumber.multiply(unit.multiplier());
+                totals[unit.kind().ordinal()] = totals[unit.kind().ordinal()].add(quantity);
+                addFinding(unit.kind(), pendingNumber, unit.symbol(),
+                        quantity.multiply(factors.kgPer(unit.kind())), pendingStart);
+                pendingNumber = null;
+            }
+        }
+
+        if (word.startsWith("co2")) {
+            // "123 ... co2": bare number shortly before co2
+            if (nearbyValue == null && pendingNumber != null && tokenStart - pendingEnd <= NEARBY) {
+                nearbyValue = pendingNumber;
+                nearbyOffset = pendingStart;
+            }
+            co2End = offset;
+            pendingNumber = null;
+        } else if (hasDigit(word)) {
+            // digits inside words ("euro5") break the "co2" proximity
+            co2End = -1;
+            pendingNumber = null;
+        }
+        pendingOpen = false;
+    }
+
+    // "kgco2", "tco2e", "tấnco2": a mass unit written together with the gas
+    private static Unit unitOf(String word) {
+        Unit unit = UNITS.get(word);
+        if (unit != null) {
+            return unit;
+        }
+        String prefix = word.endsWith("co2") ? word.substring(0, word.length() - 3)
+                : word.endsWith("co2e") ? word.substring(0, word.length() - 4)
+                : null;
+        if (prefix == null) {
+            return null;
+        }
+        unit = UNITS.get(prefix);
+        return unit != null && unit.kind() == Kind.CO2_MASS ? unit : null;
+    }
+
+    private void addFinding(Kind kind, BigDecimal quantity, String unit, BigDecimal co2Kg, long at) {
+        findingCount++;
+        if (findings.size() < maxFindings) {
+            findings.add(new Co2Finding(kind.name(), quantity, unit, co2Kg.setScale(4, RoundingMode.HALF_UP), at));
+        }
+    }
+
+    private static BigDecimal parse(CharSequence number) {
+        if (number.length() == 0) {
+            return null;
+        }
+        try {
+            return new BigDecimal(number.toString());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean hasDigit(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (isDigit(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
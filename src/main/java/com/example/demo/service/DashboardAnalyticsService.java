@@ -0,0 +1,161 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ActivityRollup;
+import com.example.demo.entity.Co2Status;
+import com.example.demo.entity.Listing;
+import com.example.demo.entity.Transaction;
+import com.example.demo.repository.Co2Repository;
+import com.example.demo.repository.ListingRepository;
+import com.example.demo.repository.TransactionRepository;
+import com.example.demo.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates behind the admin dashboard views. Counts and sums are computed by grouped
+ * queries in the database and month figures come from the monthly rollups, so each view
+ * issues a fixed number of queries no matter how many rows the tables hold.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardAnalyticsService {
+
+    private final UserRepository userRepository;
+    private final ListingRepository listingRepository;
+    private final TransactionRepository transactionRepository;
+    private final Co2Repository co2Repository;
+    private final AnalyticsRollupService analyticsRollupService;
+
+    /**
+     * Totals, transaction status breakdown and month-over-month figures (5 queries).
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSummary() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("totalUsers", userRepository.count());
+        data.put("totalListings", listingRepository.count());
+
+        long totalTransactions = 0;
+        Map<Transaction.TransactionStatus, Long> countByStatus = new HashMap<>();
+        BigDecimal platformRevenue = BigDecimal.ZERO;
+        for (Map<String, Object> row : transactionRepository.summarizeByStatus()) {
+            Transaction.TransactionStatus status = (Transaction.TransactionStatus) row.get("status");
+            long count = asLong(row.get("count"));
+            totalTransactions += count;
+            countByStatus.put(status, count);
+            if (status == Transaction.TransactionStatus.COMPLETED) {
+                platformRevenue = asDecimal(row.get("amount"));
+            }
+        }
+        data.put("totalTransactions", totalTransactions);
+        data.put("transactionsCompleted", countByStatus.getOrDefault(Transaction.TransactionStatus.COMPLETED, 0L));
+        data.put("transactionsCancelled", countByStatus.getOrDefault(Transaction.TransactionStatus.CANCELLED, 0L));
+        data.put("transactionsPending", countByStatus.getOrDefault(Transaction.TransactionStatus.PENDING, 0L));
+        data.put("transactionsConfirmed", 0L); // Trạng thái CONFIRMED đã bị xóa khỏi Entity
+        data.put("platformRevenue", platformRevenue);
+
+        data.put("creditsVerified", orZero(co2Repository.sumCreditsByStatus(Co2Status.APPROVED)));
+
+        // Month-over-month deltas (current month vs previous month), read from the monthly rollups
+        YearMonth thisMonth = YearMonth.now(ZoneId.systemDefault());
+        YearMonth prevMonth = thisMonth.minusMonths(1);
+        Map<YearMonth, ActivityRollup> monthly = analyticsRollupService.getMonthly(prevMonth, thisMonth);
+        ActivityRollup current = monthly.get(thisMonth);
+        ActivityRollup previous = monthly.get(prevMonth);
+
+        data.put("usersThisMonth", current != null ? current.getNewUsers() : 0L);
+        data.put("usersPrevMonth", previous != null ? previous.getNewUsers() : 0L);
+        data.put("revenueThisMonth", current != null ? current.getCompletedVolume() : BigDecimal.ZERO);
+        data.put("revenuePrevMonth", previous != null ? previous.getCompletedVolume() : BigDecimal.ZERO);
+        data.put("creditsThisMonth", current != null ? current.getCo2Credits() : BigDecimal.ZERO);
+        data.put("creditsPrevMonth", previous != null ? previous.getCo2Credits() : BigDecimal.ZERO);
+
+        return data;
+    }
+
+    /**
+     * Transaction counts and approved credit volume for the last {@code months} months,
+     * oldest first (1 query on the monthly rollups).
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getMonthlyVolume(int months) {
+        YearMonth current = YearMonth.now(ZoneId.systemDefault());
+        YearMonth first = current.minusMonths(Math.max(months, 1) - 1L);
+        Map<YearMonth, ActivityRollup> monthly = analyticsRollupService.getMonthly(first, current);
+
+        List<String> labels = new ArrayList<>();
+        List<Long> transactionsCounts = new ArrayList<>();
+        List<Double> volumes = new ArrayList<>();
+        for (YearMonth ym = first; !ym.isAfter(current); ym = ym.plusMonths(1)) {
+            // Label like 'Jul' or 'Nov'
+            String name = ym.getMonth().toString();
+            labels.add(name.substring(0, 1).toUpperCase() + name.substring(1, 3).toLowerCase());
+            ActivityRollup rollup = monthly.get(ym);
+            transactionsCounts.add(rollup != null ? rollup.getTransactionCount() : 0L);
+            volumes.add(rollup != null ? rollup.getCo2Credits().doubleValue() : 0.0);
+        }
+
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("labels", labels);
+        resp.put("transactions", transactionsCounts);
+        resp.put("volumes", volumes);
+        return resp;
+    }
+
+    /**
+     * Approved credits split into listed / sold / available (2 queries).
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getCreditStatus() {
+        BigDecimal totalCredits = orZero(co2Repository.sumCreditsByStatus(Co2Status.APPROVED));
+
+        BigDecimal listed = BigDecimal.ZERO;
+        BigDecimal sold = BigDecimal.ZERO;
+        for (Map<String, Object> row : listingRepository.sumCarbonAmountByStatus()) {
+            Listing.ListingStatus status = (Listing.ListingStatus) row.get("status");
+            BigDecimal amount = asDecimal(row.get("amount"));
+            if (status == Listing.ListingStatus.OPEN || status == Listing.ListingStatus.RESERVED
+                    || status == Listing.ListingStatus.APPROVED) {
+                listed = listed.add(amount);
+            } else if (status == Listing.ListingStatus.SOLD) {
+                sold = sold.add(amount);
+            }
+        }
+
+        // available = total - listed - sold (floor at zero)
+        BigDecimal available = totalCredits.subtract(listed).subtract(sold);
+        if (available.compareTo(BigDecimal.ZERO) < 0) available = BigDecimal.ZERO;
+
+        Map<String, Object> out = new HashMap<>();
+        out.put("total", totalCredits.doubleValue());
+        out.put("available", available.doubleValue());
+        out.put("listed", listed.doubleValue());
+        out.put("sold", sold.doubleValue());
+        return out;
+    }
+
+    private static long asLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    private static BigDecimal asDecimal(Object value) {
+        if (value == null) return BigDecimal.ZERO;
+        if (value instanceof BigDecimal decimal) return decimal;
+        return new BigDecimal(value.toString());
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
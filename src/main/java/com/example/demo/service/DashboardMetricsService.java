@@ -0,0 +1,152 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DashboardCountersChangedEvent;
+import com.example.demo.dto.ListingChangedEvent;
+import com.example.demo.dto.ReportStatusChangedEvent;
+import com.example.demo.dto.TransactionStatusChangedEvent;
+import com.example.demo.entity.Listing;
+import com.example.demo.entity.ReportStatus;
+import com.example.demo.entity.Transaction;
+import com.example.demo.repository.ListingRepository;
+import com.example.demo.repository.ReportRepository;
+import com.example.demo.repository.TransactionRepository;
+import com.example.demo.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-status counters for listings, transactions and reports, kept up to date from
+ * status-change events so dashboard reads never touch the tables. Events are applied
+ * after commit; anything missed (bulk updates, manual SQL) is corrected by the periodic
+ * reconcile against {@code countByStatus}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardMetricsService {
+
+    private final UserRepository userRepository;
+    private final ListingRepository listingRepository;
+    private final TransactionRepository transactionRepository;
+    private final ReportRepository reportRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Listing.ListingStatus, AtomicLong> listings = counters(Listing.ListingStatus.class);
+    private final Map<Transaction.TransactionStatus, AtomicLong> transactions = counters(Transaction.TransactionStatus.class);
+    private final Map<ReportStatus, AtomicLong> reports = counters(ReportStatus.class);
+    private final AtomicLong users = new AtomicLong();
+
+    // Bumped on every applied change and announced via DashboardCountersChangedEvent
+    private final AtomicLong version = new AtomicLong();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        apply(listings, event.previousStatus(), event.status());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionStatusChanged(TransactionStatusChangedEvent event) {
+        apply(transactions, event.from(), event.to());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReportStatusChanged(ReportStatusChangedEvent event) {
+        apply(reports, event.from(), event.to());
+    }
+
+    /**
+     * Reload every counter from the database. Runs once on startup and then periodically.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${dashboard.metrics.reconcile-interval-ms:600000}",
+               initialDelayString = "${dashboard.metrics.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        long drift = 0;
+        for (Map.Entry<Listing.ListingStatus, AtomicLong> e : listings.entrySet()) {
+            drift += reset(e.getValue(), listingRepository.countByStatus(e.getKey()));
+        }
+        for (Map.Entry<Transaction.TransactionStatus, AtomicLong> e : transactions.entrySet()) {
+            drift += reset(e.getValue(), transactionRepository.countByStatus(e.getKey()));
+        }
+        for (Map.Entry<ReportStatus, AtomicLong> e : reports.entrySet()) {
+            drift += reset(e.getValue(), reportRepository.countByStatus(e.getKey()));
+        }
+        drift += reset(users, userRepository.count());
+
+        if (drift > 0) {
+            eventPublisher.publishEvent(new DashboardCountersChangedEvent(version.incrementAndGet()));
+            log.info("Dashboard counters reconciled, corrected drift of {}", drift);
+        }
+    }
+
+    public long getUserCount() {
+        return users.get();
+    }
+
+    public long getListingCount(Listing.ListingStatus status) {
+        return listings.get(status).get();
+    }
+
+    public long getListingTotal() {
+        return sum(listings);
+    }
+
+    public long getTransactionCount(Transaction.TransactionStatus status) {
+        return transactions.get(status).get();
+    }
+
+    public long getTransactionTotal() {
+        return sum(transactions);
+    }
+
+    public long getReportCount(ReportStatus status) {
+        return reports.get(status).get();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    private <E extends Enum<E>> void apply(Map<E, AtomicLong> counters, E from, E to) {
+        if (from == to) {
+            return;
+        }
+        if (from != null) {
+            counters.get(from).decrementAndGet();
+        }
+        if (to != null) {
+            counters.get(to).incrementAndGet();
+        }
+        eventPublisher.publishEvent(new DashboardCountersChangedEvent(version.incrementAndGet()));
+    }
+
+    private long reset(AtomicLong counter, long actual) {
+        return Math.abs(counter.getAndSet(actual) - actual);
+    }
+
+    private <E extends Enum<E>> long sum(Map<E, AtomicLong> counters) {
+        long total = 0;
+        for (AtomicLong counter : counters.values()) {
+            total += counter.get();
+        }
+        return total;
+    }
+
+    private static <E extends Enum<E>> Map<E, AtomicLong> counters(Class<E> type) {
+        Map<E, AtomicLong> map = new EnumMap<>(type);
+        for (E value : type.getEnumConstants()) {
+            map.put(value, new AtomicLong());
+        }
+        return map;
+    }
+}
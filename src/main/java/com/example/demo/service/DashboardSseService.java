@@ -1,88 +1,340 @@
 package com.example.demo.service;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.springframework.scheduling.TaskScheduler;
-import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.example.demo.dto.DashboardCountersChangedEvent;
 import com.example.demo.dto.DashboardResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Event-driven dashboard stream. Each counter change is serialized once into a full
+ * "dashboard" frame and a "dashboard-delta" frame holding only the changed fields; the
+ * shared frames are then queued to every client. Each client has its own bounded queue
+ * drained by a small sender pool; when a queue overflows the backlog is collapsed into
+ * the latest full snapshot.
+ * <p>
+ * A send that blocks on a stalled connection holds its sender thread until the write
+ * returns, which with a fixed pool would delay every other client. A client whose send
+ * has been in progress past {@code dashboard.sse.send-timeout-ms} is therefore evicted
+ * and, on a platform-thread pool, a replacement sender is added until that write returns
+ * (up to {@code dashboard.sse.max-sender-threads}). Emitters also expire after
+ * {@code dashboard.sse.emitter-timeout-ms}; browsers reconnect and resume from
+ * {@code Last-Event-ID}, for which recent deltas are kept.
+ */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class DashboardSseService {
 
+    private static final TypeReference<Map<String, Object>> STATE_TYPE = new TypeReference<>() {};
+    private static final Frame HEARTBEAT = new Frame(-1, null, null);
+
     private final DashboardService dashboardService;
+    private final ObjectMapper objectMapper;
+    private final int clientQueueCapacity;
+    private final int replayCapacity;
+    private final long emitterTimeoutMillis;
+    private final long sendTimeoutNanos;
+    private final int senderThreads;
+    private final int maxSenderThreads;
 
-    private final CopyOnWriteArrayList<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService publisher;
+    private final ExecutorService senders;
+    // Null with virtual threads, where a stalled write costs no pool slot
+    private final ThreadPoolExecutor senderPool;
+    private final AtomicBoolean publishPending = new AtomicBoolean();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final AtomicLong evictedClients = new AtomicLong();
 
-    private final TaskScheduler scheduler = new ConcurrentTaskScheduler();
-    private ScheduledFuture<?> scheduledTask;
-    private long refreshInterval = 5000; // milliseconds
-    private boolean isRefreshing = true;
+    // Publisher thread only
+    private Map<String, Object> lastState = Map.of();
 
-    public SseEmitter registerEmitter() {
-        SseEmitter emitter = new SseEmitter(0L);
-        emitters.add(emitter);
+    // Guarded by replay, which also orders fan-out against client registration
+    private final Deque<Frame> replay = new ArrayDeque<>();
+    private long sequence;
+    private Frame snapshotFrame;
 
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> emitters.remove(emitter));
-        emitter.onError((e) -> emitters.remove(emitter));
+    private ScheduledFuture<?> heartbeatTask;
+    private volatile long refreshInterval = 5000; // milliseconds
+    private volatile boolean isRefreshing = true;
 
-        // send initial snapshot
-        try {
-            DashboardResponse snapshot = dashboardService.getDashboard();
-            emitter.send(SseEmitter.event().name("dashboard").data(snapshot));
-        } catch (IOException ex) {
-            emitters.remove(emitter);
+    public DashboardSseService(
+            DashboardService dashboardService,
+            ObjectMapper objectMapper,
+            @Value("${dashboard.sse.sender-threads:4}") int senderThreads,
+            @Value("${dashboard.sse.client-queue-capacity:16}") int clientQueueCapacity,
+            @Value("${dashboard.sse.replay-capacity:256}") int replayCapacity,
+            @Value("${dashboard.sse.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+            @Value("${dashboard.sse.send-timeout-ms:10000}") long sendTimeoutMillis,
+            @Value("${dashboard.sse.max-sender-threads:16}") int maxSenderThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.dashboardService = dashboardService;
+        this.objectMapper = objectMapper;
+        this.clientQueueCapacity = clientQueueCapacity;
+        this.replayCapacity = replayCapacity;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.senderThreads = senderThreads;
+        this.maxSenderThreads = Math.max(senderThreads, maxSenderThreads);
+        this.publisher = Executors.newSingleThreadScheduledExecutor(daemonThreads("dashboard-sse-publisher-"));
+        // A slow client blocks its sender in a socket write; with virtual threads that no
+        // longer holds up other clients, so each drain gets its own thread
+        if (virtualThreads) {
+            this.senderPool = null;
+            this.senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dashboard-sse-sender-", 0).factory());
+        } else {
+            // Core size is raised while evicted clients hold a sender in a stalled write
+            this.senderPool = new ThreadPoolExecutor(senderThreads, this.maxSenderThreads, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), daemonThreads("dashboard-sse-sender-"));
+            this.senders = senderPool;
         }
+    }
+
+    /**
+     * Register a dashboard client. With a known {@code lastEventId} only the deltas the
+     * client missed are replayed; otherwise (or if they already left the buffer) it gets
+     * a full snapshot.
+     */
+    public SseEmitter registerEmitter(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Client client = new Client(emitter);
+
+        emitter.onCompletion(client::close);
+        emitter.onTimeout(client::close);
+        emitter.onError((e) -> client.close());
+
+        synchronized (replay) {
+            if (snapshotFrame == null) {
+                snapshotFrame = new Frame(sequence, "dashboard", write(stateOf(dashboardService.getDashboard())));
+            }
+            List<Frame> missed = missedSince(parseEventId(lastEventId));
+            if (missed == null) {
+                client.enqueue(snapshotFrame, snapshotFrame);
+            } else {
+                missed.forEach(frame -> client.enqueue(frame, snapshotFrame));
+            }
+            clients.add(client);
+        }
+        client.scheduleDrain();
 
         return emitter;
     }
 
+    public SseEmitter registerEmitter() {
+        return registerEmitter(null);
+    }
+
     public void manualPublish() {
-        // Always publish regardless of isRefreshing
-        publishToEmitters(dashboardService.getDashboard());
+        // Always publish regardless of isRefreshing; unchanged counters still resend the full snapshot
+        publisher.execute(() -> publish(true));
     }
 
-    private void publishUpdates() {
-        if (!isRefreshing || emitters.isEmpty()) return;
-        publishToEmitters(dashboardService.getDashboard());
+    @EventListener
+    public void onCountersChanged(DashboardCountersChangedEvent event) {
+        if (isRefreshing) {
+            requestPublish();
+        }
     }
 
-    private void publishToEmitters(DashboardResponse data) {
-        List<SseEmitter> dead = new ArrayList<>();
-        for (SseEmitter emitter : emitters) {
-            try {
-                emitter.send(SseEmitter.event().name("dashboard").data(data));
-            } catch (IOException e) {
-                dead.add(emitter);
+    private void requestPublish() {
+        // Coalesce bursts of changes into one publish
+        if (publishPending.compareAndSet(false, true)) {
+            publisher.execute(() -> {
+                publishPending.set(false);
+                publish(false);
+            });
+        }
+    }
+
+    private void publish(boolean force) {
+        try {
+            Map<String, Object> state = stateOf(dashboardService.getDashboard());
+            Map<String, Object> changed = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> e : state.entrySet()) {
+                if (!Objects.equals(lastState.get(e.getKey()), e.getValue())) {
+                    changed.put(e.getKey(), e.getValue());
+                }
+            }
+
+            if (changed.isEmpty()) {
+                if (force) {
+                    synchronized (replay) {
+                        Frame snapshot = snapshotFrame;
+                        if (snapshot != null) {
+                            clients.forEach(c -> c.enqueue(snapshot, snapshot));
+                        }
+                    }
+                    clients.forEach(Client::scheduleDrain);
+                }
+                return;
+            }
+
+            lastState = state;
+            String stateJson = write(state);
+            String changedJson = write(changed);
+
+            synchronized (replay) {
+                long id = ++sequence;
+                Frame snapshot = new Frame(id, "dashboard", stateJson);
+                Frame delta = new Frame(id, "dashboard-delta", changedJson);
+                snapshotFrame = snapshot;
+                replay.addLast(delta);
+                while (replay.size() > replayCapacity) {
+                    replay.removeFirst();
+                }
+                Frame outgoing = force ? snapshot : delta;
+                clients.forEach(c -> c.enqueue(outgoing, snapshot));
             }
+            clients.forEach(Client::scheduleDrain);
+        } catch (RuntimeException ex) {
+            log.warn("Dashboard publish failed: {}", ex.getMessage());
         }
-        if (!dead.isEmpty()) {
-            emitters.removeAll(dead);
+    }
+
+    /**
+     * Deltas after {@code lastId}, or null when the client must start from a snapshot.
+     */
+    private List<Frame> missedSince(Long lastId) {
+        if (lastId == null || lastId > sequence) {
+            return null;
+        }
+        List<Frame> missed = new ArrayList<>();
+        if (lastId == sequence) {
+            return missed;
+        }
+        Frame oldest = replay.peekFirst();
+        if (oldest == null || oldest.id() > lastId + 1) {
+            return null;
+        }
+        for (Frame frame : replay) {
+            if (frame.id() > lastId) {
+                missed.add(frame);
+            }
+        }
+        return missed;
+    }
+
+    /**
+     * Evict clients whose current send has been blocked past the send timeout. Their queue
+     * is dropped and they stop receiving frames; the emitter is completed by the sender once
+     * the write returns (the emitter's send and complete share a lock, so it cannot be
+     * completed from here). A replacement sender covers the blocked one meanwhile.
+     */
+    private void evictStalledClients() {
+        long now = System.nanoTime();
+        for (Client client : clients) {
+            long started = client.sendStartedAt;
+            if (started != 0L && now - started > sendTimeoutNanos && client.evict()) {
+                evictedClients.incrementAndGet();
+                log.warn("Evicted dashboard client stalled in a send for over {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+            }
+        }
+    }
+
+    /**
+     * Grow (+1) or shrink (-1) the platform sender pool around a stalled write; false when
+     * the pool is at its cap or uses virtual threads.
+     */
+    private synchronized boolean adjustSenderPool(int delta) {
+        if (senderPool == null) {
+            return false;
+        }
+        int size = senderPool.getCorePoolSize() + delta;
+        if (size < senderThreads || size > maxSenderThreads) {
+            return false;
+        }
+        senderPool.setCorePoolSize(size);
+        return true;
+    }
+
+    private void heartbeat() {
+        for (Client client : clients) {
+            client.enqueueHeartbeat();
+            client.scheduleDrain();
+        }
+    }
+
+    private Map<String, Object> stateOf(DashboardResponse response) {
+        return objectMapper.convertValue(response, STATE_TYPE);
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize dashboard frame", e);
         }
     }
 
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static CustomizableThreadFactory daemonThreads(String prefix) {
+        CustomizableThreadFactory factory = new CustomizableThreadFactory(prefix);
+        factory.setDaemon(true);
+        return factory;
+    }
+
     @PostConstruct
     public void init() {
         scheduleTask();
+        long checkMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos) / 2);
+        publisher.scheduleWithFixedDelay(this::evictStalledClients, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
     }
 
-    private void scheduleTask() {
-        if (scheduledTask != null) {
-            scheduledTask.cancel(false);
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private synchronized void scheduleTask() {
+        if (heartbeatTask != null) {
+            heartbeatTask.cancel(false);
         }
+        // Updates are pushed on change; the timer only keeps idle connections alive
         if (isRefreshing) {
-            scheduledTask = scheduler.scheduleAtFixedRate(this::publishUpdates, refreshInterval);
+            heartbeatTask = publisher.scheduleAtFixedRate(this::heartbeat,
+                    refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
         }
     }
 
@@ -94,9 +346,144 @@ public class DashboardSseService {
     public void setRefreshing(boolean enabled) {
         this.isRefreshing = enabled;
         scheduleTask();
+        if (enabled) {
+            requestPublish();
+        }
     }
 
     public int getConnectedClientCount() {
-        return emitters.size();
+        return clients.size();
+    }
+
+    public long getDroppedFrameCount() {
+        return droppedFrames.get();
+    }
+
+    public long getEvictedClientCount() {
+        return evictedClients.get();
+    }
+
+    /**
+     * A pre-serialized SSE frame shared by all clients.
+     */
+    private record Frame(long id, String name, String json) {
+    }
+
+    private final class Client {
+        private final SseEmitter emitter;
+        private final ArrayDeque<Frame> queue = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        // System.nanoTime() when the current send started; 0 when not sending
+        private volatile long sendStartedAt;
+        // Guarded by this
+        private boolean evicted;
+        private boolean borrowedSender;
+
+        private Client(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void enqueue(Frame frame, Frame snapshot) {
+            if (closed) {
+                return;
+            }
+            if (queue.size() >= clientQueueCapacity) {
+                // Falling behind: every queued delta is superseded by the latest snapshot
+                droppedFrames.addAndGet(queue.size());
+                queue.clear();
+                queue.add(snapshot);
+                return;
+            }
+            queue.add(frame);
+        }
+
+        synchronized void enqueueHeartbeat() {
+            if (!closed && queue.isEmpty()) {
+                queue.add(HEARTBEAT);
+            }
+        }
+
+        void scheduleDrain() {
+            if (!closed && draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RuntimeException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Frame frame;
+                while (!closed && (frame = poll()) != null) {
+                    sendStartedAt = System.nanoTime();
+                    if (frame == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("keepalive"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(frame.id()))
+                                .name(frame.name())
+                                .data(frame.json()));
+                    }
+                    sendStartedAt = 0L;
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                sendStartedAt = 0L;
+                draining.set(false);
+            }
+            if (returnSender()) {
+                emitter.complete();
+                return;
+            }
+            if (hasPending()) {
+                scheduleDrain();
+            }
+        }
+
+        /**
+         * Stop serving this client because its send is stalled; false if already evicted.
+         */
+        boolean evict() {
+            synchronized (this) {
+                if (evicted) {
+                    return false;
+                }
+                evicted = true;
+                borrowedSender = adjustSenderPool(1);
+            }
+            close();
+            return true;
+        }
+
+        /**
+         * After a drain: give back the replacement sender if this client was evicted; true when evicted.
+         */
+        private synchronized boolean returnSender() {
+            if (borrowedSender) {
+                borrowedSender = false;
+                adjustSenderPool(-1);
+            }
+            return evicted;
+        }
+
+        private synchronized Frame poll() {
+            return queue.poll();
+        }
+
+        private synchronized boolean hasPending() {
+            return !closed && !queue.isEmpty();
+        }
+
+        void close() {
+            closed = true;
+            clients.remove(this);
+            synchronized (this) {
+                queue.clear();
+            }
+        }
     }
 }
@@ -2,18 +2,20 @@ package com.example.demo.service;
 
 import java.io.InputStream;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.text.Normalizer;
-import java.util.Locale;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.parser.AutoDetectParser;
 import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
 import org.apache.tika.sax.BodyContentHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.example.demo.dto.Co2Figures;
+import com.example.demo.dto.DocumentAnalysis;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -21,111 +23,108 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class FileUploadService {
 
-    // parse file and estimate CO2 in kilograms using simple heuristics
-    public BigDecimal parseAndEstimateCo2Kg(MultipartFile file) {
-        try (InputStream is = file.getInputStream()) {
-            AutoDetectParser parser = new AutoDetectParser();
-            BodyContentHandler handler = new BodyContentHandler(-1);
-            Metadata metadata = new Metadata();
-            parser.parse(is, handler, metadata, new ParseContext());
-
-            String text = handler.toString().toLowerCase(Locale.ROOT);
-            log.info("Parsed text length: {}", text.length());
-
-            BigDecimal totalKg = BigDecimal.ZERO;
-
-            // 1) explicit CO2 quantities: e.g. "123 kg co2", "0.5 t co2", "2 tons co2"
-            Pattern co2Pattern = Pattern.compile("(\\d+[\\.,]?\\d*)\\s*(kg|kilos|kilograms|t|ton|tons|tonne|tonnes)\\s*(co2)?");
-            Matcher m = co2Pattern.matcher(text);
-            while (m.find()) {
-                String numRaw = m.group(1).replace(',', '.');
-                BigDecimal val = new BigDecimal(numRaw);
-                String unit = m.group(2);
-                if (unit.startsWith("t") || unit.contains("ton")) {
-                    totalKg = totalKg.add(val.multiply(BigDecimal.valueOf(1000)));
-                } else {
-                    totalKg = totalKg.add(val);
-                }
-            }
-
-            // 2) energy usage kWh -> approximate factor 0.475 kg CO2 / kWh (example)
-            Pattern kwhPattern = Pattern.compile("(\\d+[\\.,]?\\d*)\\s*(kwh)\b");
-            m = kwhPattern.matcher(text);
-            while (m.find()) {
-                String numRaw = m.group(1).replace(',', '.');
-                BigDecimal val = new BigDecimal(numRaw);
-                BigDecimal kg = val.multiply(BigDecimal.valueOf(0.475));
-                totalKg = totalKg.add(kg);
-            }
-
-            // 3) distance km -> approximate factor 0.21 kg CO2 / km (average car)
-            Pattern kmPattern = Pattern.compile("(\\d+[\\.,]?\\d*)\\s*(km)\b");
-            m = kmPattern.matcher(text);
-            while (m.find()) {
-                String numRaw = m.group(1).replace(',', '.');
-                BigDecimal val = new BigDecimal(numRaw);
-                BigDecimal kg = val.multiply(BigDecimal.valueOf(0.21));
-                totalKg = totalKg.add(kg);
-            }
-
-            // 4) liters of petrol (l) -> approx 2.31 kg CO2 / liter
-            Pattern lPattern = Pattern.compile("(\\d+[\\.,]?\\d*)\\s*(l|liters|litres)\b");
-            m = lPattern.matcher(text);
-            while (m.find()) {
-                String numRaw = m.group(1).replace(',', '.');
-                BigDecimal val = new BigDecimal(numRaw);
-                BigDecimal kg = val.multiply(BigDecimal.valueOf(2.31));
-                totalKg = totalKg.add(kg);
-            }
+    // AutoDetectParser is thread-safe; building it loads the Tika config and every parser, so do it once
+    private final Parser parser = new AutoDetectParser();
+
+    // SystemSetting keys for the emission factors (kg CO2 per unit)
+    public static final String FACTOR_KWH_KEY = "co2_factor_kg_per_kwh";
+    public static final String FACTOR_KM_KEY = "co2_factor_kg_per_km";
+    public static final String FACTOR_LITER_KEY = "co2_factor_kg_per_liter";
+
+    private final SystemSettingService systemSettingService;
+    private final int previewChars;
+    private final long maxChars;
+
+    public FileUploadService(
+            SystemSettingService systemSettingService,
+            @Value("${uploads.extraction.preview-chars:4000}") int previewChars,
+            @Value("${uploads.extraction.max-chars:20000000}") long maxChars) {
+        this.systemSettingService = systemSettingService;
+        this.previewChars = previewChars;
+        this.maxChars = maxChars;
+    }
 
-            // If nothing found, try to find any number followed by possible unit words
-            if (totalKg.compareTo(BigDecimal.ZERO) == 0) {
-                // try to detect standalone numbers with "co2" nearby
-                Pattern looseCo2 = Pattern.compile("(co2)\\D{0,20}(\\d+[\\.,]?\\d*)|(\\d+[\\.,]?\\d*)\\D{0,20}(co2)");
-                m = looseCo2.matcher(text);
-                if (m.find()) {
-                    String num = m.group(2) != null ? m.group(2) : m.group(3);
-                    if (num != null) {
-                        BigDecimal val = new BigDecimal(num.replace(',', '.'));
-                        totalKg = totalKg.add(val);
-                    }
-                }
-            }
+    /**
+     * Current emission factors from system settings, falling back to the defaults.
+     */
+    public Co2UnitExtractor.Factors emissionFactors() {
+        Co2UnitExtractor.Factors defaults = Co2UnitExtractor.Factors.DEFAULTS;
+        try {
+            return new Co2UnitExtractor.Factors(
+                    systemSettingService.getDecimal(FACTOR_KWH_KEY, defaults.kgPerKwh()),
+                    systemSettingService.getDecimal(FACTOR_KM_KEY, defaults.kgPerKm()),
+                    systemSettingService.getDecimal(FACTOR_LITER_KEY, defaults.kgPerLiter()));
+        } catch (Exception ex) {
+            log.warn("Could not load emission factors, using defaults: {}", ex.getMessage());
+            return defaults;
+        }
+    }
 
-            // final rounding
-            return totalKg.setScale(4, RoundingMode.HALF_UP);
+    /**
+     * Parse the file once, streaming Tika's text into a {@link JourneyTextScanner} that
+     * detects the required sections and sums CO2 quantities as it goes. Only a preview of
+     * the text is kept. Parse failures yield an empty analysis.
+     */
+    public DocumentAnalysis analyze(MultipartFile file) {
+        try (InputStream is = file.getInputStream()) {
+            return analyze(is);
         } catch (Exception ex) {
             log.error("Error parsing uploaded file", ex);
-            return BigDecimal.ZERO;
+            return analyze(new JourneyTextScanner(0, 0, Co2UnitExtractor.Factors.DEFAULTS));
         }
     }
 
-    // extract full text from uploaded file (not lowercased) for preview
-    public String extractText(MultipartFile file) {
-        try (InputStream is = file.getInputStream()) {
-            AutoDetectParser parser = new AutoDetectParser();
-            BodyContentHandler handler = new BodyContentHandler(-1);
-            Metadata metadata = new Metadata();
-            parser.parse(is, handler, metadata, new ParseContext());
-            String text = handler.toString();
-            return text == null ? "" : text.trim();
+    /**
+     * Same as {@link #analyze(MultipartFile)} for a raw stream; the caller closes it.
+     */
+    public DocumentAnalysis analyze(InputStream is) {
+        JourneyTextScanner scanner = new JourneyTextScanner(previewChars, maxChars, emissionFactors());
+        try {
+            parser.parse(is, new BodyContentHandler(new ScannerHandler(scanner)), new Metadata(), new ParseContext());
         } catch (Exception ex) {
-            log.error("Error extracting text from file", ex);
-            return "";
+            // Hitting the character cap aborts the parse; what was scanned so far is still valid
+            if (!scanner.isTruncated()) {
+                log.error("Error parsing uploaded file", ex);
+                return analyze(new JourneyTextScanner(0, 0, Co2UnitExtractor.Factors.DEFAULTS));
+            }
         }
+        DocumentAnalysis analysis = analyze(scanner);
+        log.info("Parsed text length: {}{}", analysis.extractedChars(), analysis.truncated() ? " (truncated)" : "");
+        return analysis;
+    }
+
+    /**
+     * Analyse text that is already in memory.
+     */
+    public DocumentAnalysis analyze(String text) {
+        JourneyTextScanner scanner = new JourneyTextScanner(previewChars, maxChars, emissionFactors());
+        scanner.feed(text == null ? "" : text);
+        return analyze(scanner);
+    }
+
+    private DocumentAnalysis analyze(JourneyTextScanner scanner) {
+        JourneyTextScanner.Result result = scanner.finish();
+        Co2UnitExtractor.Result extraction = result.extraction();
+        return new DocumentAnalysis(result.preview(), result.hasRequiredSections(), extraction.co2Kg(),
+                extraction.figures(), extraction.findings(), result.charCount(), result.truncated());
+    }
+
+    // parse file and estimate CO2 in kilograms using simple heuristics
+    public BigDecimal parseAndEstimateCo2Kg(MultipartFile file) {
+        return analyze(file).co2Kg();
+    }
+
+    // extract text preview from uploaded file (not lowercased)
+    public String extractText(MultipartFile file) {
+        return analyze(file).text();
     }
 
     /**
      * Estimate CO2 (kg) from explicit numeric fields provided in a form.
      */
     public BigDecimal estimateFromFields(BigDecimal distanceKm, BigDecimal energyKwh, BigDecimal liters, BigDecimal explicitCo2Kg) {
-        BigDecimal totalKg = BigDecimal.ZERO;
         try {
-            if (explicitCo2Kg != null) totalKg = totalKg.add(explicitCo2Kg);
-            if (energyKwh != null) totalKg = totalKg.add(energyKwh.multiply(BigDecimal.valueOf(0.475)));
-            if (distanceKm != null) totalKg = totalKg.add(distanceKm.multiply(BigDecimal.valueOf(0.21)));
-            if (liters != null) totalKg = totalKg.add(liters.multiply(BigDecimal.valueOf(2.31)));
-            return totalKg.setScale(4, RoundingMode.HALF_UP);
+            return emissionFactors().co2Kg(new Co2Figures(explicitCo2Kg, energyKwh, distanceKm, liters));
         } catch (Exception ex) {
             log.error("Error estimating from fields", ex);
             return BigDecimal.ZERO;
@@ -134,32 +133,30 @@ public class FileUploadService {
 
     // Check the uploaded document contains required journey sections (Vietnamese headings)
     public boolean hasRequiredJourneySections(MultipartFile file) {
-        try (InputStream is = file.getInputStream()) {
-            AutoDetectParser parser = new AutoDetectParser();
-            BodyContentHandler handler = new BodyContentHandler(-1);
-            Metadata metadata = new Metadata();
-            parser.parse(is, handler, metadata, new ParseContext());
-
-            String raw = handler.toString();
-            if (raw == null) return false;
+        return analyze(file).hasRequiredSections();
+    }
 
-            // normalize and remove diacritics to allow matching variants
-            String normalized = Normalizer.normalize(raw, Normalizer.Form.NFD)
-                    .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
-                    .toLowerCase(Locale.ROOT);
+    /**
+     * Forwards body text from Tika's SAX events to the scanner and stops the parse once
+     * the character cap is reached.
+     */
+    private static final class ScannerHandler extends DefaultHandler {
+        private final JourneyTextScanner scanner;
 
-            // look for Part I related phrases
-            boolean hasPartI = (normalized.contains("phan i") || normalized.contains("phan1") || normalized.contains("phani") || normalized.contains("phần i"))
-                    && (normalized.contains("thong tin chu so huu") || normalized.contains("thong tin") && normalized.contains("phuong tien") || normalized.contains("chu so huu") || normalized.contains("chủ sở hữu"));
+        private ScannerHandler(JourneyTextScanner scanner) {
+            this.scanner = scanner;
+        }
 
-            // look for Part II related phrases
-            boolean hasPartII = (normalized.contains("phan ii") || normalized.contains("phan2") || normalized.contains("phanii") || normalized.contains("phần ii"))
-                    && (normalized.contains("du lieu hanh trinh") || normalized.contains("hanh trinh tong hop") || (normalized.contains("du lieu") && normalized.contains("hanh trinh")) || normalized.contains("hành trình"));
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (!scanner.feed(ch, start, length)) {
+                throw new SAXException("Extraction character limit reached");
+            }
+        }
 
-            return hasPartI && hasPartII;
-        } catch (Exception ex) {
-            log.error("Error checking required journey sections", ex);
-            return false;
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+            characters(ch, start, length);
         }
     }
 }
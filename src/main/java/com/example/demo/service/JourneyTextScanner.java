@@ -0,0 +1,155 @@
+package com.example.demo.service;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Incremental scanner for journey documents. Text is fed in chunks as the parser
+ * produces it: quantities go straight through a {@link Co2UnitExtractor} and section
+ * headings are matched chunk by chunk, so memory stays bounded no matter how large the
+ * document is. Only the first {@code previewLimit} characters are kept, and input beyond
+ * {@code maxChars} is refused. Not thread-safe: use one scanner per document.
+ */
+public final class JourneyTextScanner {
+
+    private static final int SCAN_CHUNK = 16 * 1024;
+    private static final int MAX_FINDINGS = 200;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+
+    private enum Phrase {
+        PHAN_I("phan i"), PHAN_1("phan1"), PHANI("phani"), PHAN_I_VN("phần i"),
+        THONG_TIN_CHU_SO_HUU("thong tin chu so huu"), THONG_TIN("thong tin"), PHUONG_TIEN("phuong tien"),
+        CHU_SO_HUU("chu so huu"), CHU_SO_HUU_VN("chủ sở hữu"),
+        PHAN_II("phan ii"), PHAN_2("phan2"), PHANII("phanii"), PHAN_II_VN("phần ii"),
+        DU_LIEU_HANH_TRINH("du lieu hanh trinh"), HANH_TRINH_TONG_HOP("hanh trinh tong hop"),
+        DU_LIEU("du lieu"), HANH_TRINH("hanh trinh"), HANH_TRINH_VN("hành trình");
+
+        private final String text;
+
+        Phrase(String text) {
+            this.text = text;
+        }
+    }
+
+    private static final int LONGEST_PHRASE = longestPhrase();
+
+    private final int previewLimit;
+    private final long maxChars;
+
+    private final StringBuilder preview = new StringBuilder();
+    private final StringBuilder pending = new StringBuilder();
+    private long charCount;
+    private boolean truncated;
+
+    private final Co2UnitExtractor extractor;
+
+    // diacritic-folded tail kept so headings split across chunks still match
+    private String foldedTail = "";
+    private final boolean[] found = new boolean[Phrase.values().length];
+
+    public JourneyTextScanner(int previewLimit, long maxChars, Co2UnitExtractor.Factors factors) {
+        this.previewLimit = previewLimit;
+        this.maxChars = maxChars;
+        this.extractor = new Co2UnitExtractor(factors, MAX_FINDINGS);
+    }
+
+    /**
+     * Feed the next chunk of text. Returns false once the character cap is reached;
+     * the remainder of the chunk (and any later input) is ignored.
+     */
+    public boolean feed(char[] ch, int start, int length) {
+        if (truncated) {
+            return false;
+        }
+        int accepted = (int) Math.min(length, maxChars - charCount);
+        if (accepted < length) {
+            truncated = true;
+        }
+        charCount += accepted;
+
+        int forPreview = Math.min(accepted, previewLimit - preview.length());
+        if (forPreview > 0) {
+            preview.append(ch, start, forPreview);
+        }
+        extractor.accept(ch, start, accepted);
+        pending.append(ch, start, accepted);
+        if (pending.length() >= SCAN_CHUNK) {
+            flush();
+        }
+        return !truncated;
+    }
+
+    public boolean feed(String text) {
+        return feed(text.toCharArray(), 0, text.length());
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Scan whatever is still buffered and return the totals.
+     */
+    public Result finish() {
+        flush();
+        return new Result(preview.toString().trim(), charCount, truncated, hasRequiredSections(), extractor.finish());
+    }
+
+    private void flush() {
+        if (!pending.isEmpty()) {
+            matchPhrases(pending.toString());
+            pending.setLength(0);
+        }
+    }
+
+    private void matchPhrases(String chunk) {
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(chunk, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        String haystack = foldedTail + folded;
+        for (Phrase phrase : Phrase.values()) {
+            if (!found[phrase.ordinal()] && haystack.contains(phrase.text)) {
+                found[phrase.ordinal()] = true;
+            }
+        }
+        int keep = Math.min(haystack.length(), LONGEST_PHRASE - 1);
+        foldedTail = haystack.substring(haystack.length() - keep);
+    }
+
+    private boolean hasRequiredSections() {
+        // look for Part I related phrases
+        boolean hasPartI = (has(Phrase.PHAN_I) || has(Phrase.PHAN_1) || has(Phrase.PHANI) || has(Phrase.PHAN_I_VN))
+                && (has(Phrase.THONG_TIN_CHU_SO_HUU) || has(Phrase.THONG_TIN) && has(Phrase.PHUONG_TIEN)
+                        || has(Phrase.CHU_SO_HUU) || has(Phrase.CHU_SO_HUU_VN));
+
+        // look for Part II related phrases
+        boolean hasPartII = (has(Phrase.PHAN_II) || has(Phrase.PHAN_2) || has(Phrase.PHANII) || has(Phrase.PHAN_II_VN))
+                && (has(Phrase.DU_LIEU_HANH_TRINH) || has(Phrase.HANH_TRINH_TONG_HOP)
+                        || (has(Phrase.DU_LIEU) && has(Phrase.HANH_TRINH)) || has(Phrase.HANH_TRINH_VN));
+
+        return hasPartI && hasPartII;
+    }
+
+    private boolean has(Phrase phrase) {
+        return found[phrase.ordinal()];
+    }
+
+    private static int longestPhrase() {
+        int longest = 0;
+        for (Phrase phrase : Phrase.values()) {
+            longest = Math.max(longest, phrase.text.length());
+        }
+        return longest;
+    }
+
+    /**
+     * @param preview   first characters of the document, trimmed
+     * @param charCount characters scanned (capped at {@code maxChars})
+     * @param truncated whether the document was longer than the cap
+     */
+    public record Result(String preview, long charCount, boolean truncated, boolean hasRequiredSections,
+                         Co2UnitExtractor.Result extraction) {
+    }
+}
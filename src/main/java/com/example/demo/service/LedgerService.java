@@ -0,0 +1,171 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.LedgerEntry;
+import com.example.demo.entity.LedgerPosting;
+import com.example.demo.entity.LedgerSnapshot;
+import com.example.demo.repository.LedgerEntryRepository;
+import com.example.demo.repository.LedgerPostingRepository;
+import com.example.demo.repository.LedgerSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Append-only double-entry ledger. Balances are read as the latest snapshot of an
+ * account plus the short tail of postings written after it; snapshots are rolled
+ * forward periodically so the tail stays small.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerService {
+
+    public static final String SYSTEM_EXTERNAL = "SYSTEM:EXTERNAL";
+    public static final String SYSTEM_VNPAY = "SYSTEM:VNPAY";
+    public static final String SYSTEM_CARBON_REGISTRY = "SYSTEM:CARBON_REGISTRY";
+    public static final String SYSTEM_ADJUSTMENT = "SYSTEM:ADJUSTMENT";
+
+    private final LedgerEntryRepository entryRepository;
+    private final LedgerPostingRepository postingRepository;
+    private final LedgerSnapshotRepository snapshotRepository;
+
+    // Postings younger than this are left for the next snapshot run, so rows of
+    // transactions still in flight (lower id, later commit) are never skipped.
+    @Value("${ledger.snapshot.settle-seconds:60}")
+    private long settleSeconds;
+
+    public static String userAccount(Long userId) {
+        return "USER:" + userId;
+    }
+
+    /**
+     * Platform counter-account for one-sided wallet movements of the given type.
+     */
+    public static String systemAccountFor(LedgerEntry.EntryType type) {
+        return switch (type) {
+            case TOPUP -> SYSTEM_VNPAY;
+            case ISSUANCE, RETIREMENT -> SYSTEM_CARBON_REGISTRY;
+            case ADJUSTMENT -> SYSTEM_ADJUSTMENT;
+            default -> SYSTEM_EXTERNAL;
+        };
+    }
+
+    /**
+     * Journal one movement of {@code amount} from {@code fromAccount} (DEBIT leg)
+     * to {@code toAccount} (CREDIT leg).
+     */
+    @Transactional
+    public LedgerEntry post(LedgerEntry.EntryType type, LedgerEntry.Asset asset,
+                            String fromAccount, String toAccount, BigDecimal amount,
+                            String reference, String description) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Ledger amount must be greater than zero");
+        }
+
+        LedgerEntry entry = new LedgerEntry();
+        entry.setEntryType(type);
+        entry.setAsset(asset);
+        entry.setAmount(amount);
+        entry.setReference(reference);
+        entry.setDescription(description != null && description.length() > 255 ? description.substring(0, 255) : description);
+        entry.getPostings().add(leg(entry, fromAccount, LedgerPosting.Direction.DEBIT));
+        entry.getPostings().add(leg(entry, toAccount, LedgerPosting.Direction.CREDIT));
+
+        return entryRepository.save(entry);
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance(LedgerEntry.Asset asset, String account) {
+        return getStatement(asset, account).balance();
+    }
+
+    /**
+     * Latest snapshot of the account plus the postings written after it (most recent first).
+     */
+    @Transactional(readOnly = true)
+    public Statement getStatement(LedgerEntry.Asset asset, String account) {
+        Optional<LedgerSnapshot> snapshot = snapshotRepository.findFirstByAssetAndAccountOrderByIdDesc(asset, account);
+        BigDecimal base = snapshot.map(LedgerSnapshot::getBalance).orElse(BigDecimal.ZERO);
+        Long afterId = snapshot.map(LedgerSnapshot::getLastPostingId).orElse(0L);
+
+        BigDecimal tailSum = postingRepository.sumBetween(asset, account, afterId, Long.MAX_VALUE, LedgerPosting.Direction.CREDIT);
+        List<LedgerPosting> tail = postingRepository
+                .findTop200ByAssetAndAccountAndIdGreaterThanOrderByIdDesc(asset, account, afterId);
+
+        return new Statement(
+                asset,
+                account,
+                base,
+                snapshot.map(LedgerSnapshot::getCreatedAt).orElse(null),
+                afterId,
+                base.add(tailSum),
+                tail
+        );
+    }
+
+    /**
+     * Roll snapshots forward for every account that received postings since the last run.
+     */
+    @Scheduled(fixedDelayString = "${ledger.snapshot.interval-ms:300000}",
+               initialDelayString = "${ledger.snapshot.initial-delay-ms:60000}")
+    @Transactional
+    public int takeSnapshots() {
+        Long watermark = snapshotRepository.findSnapshotWatermark();
+        Long upto = postingRepository.findMaxIdCreatedBefore(LocalDateTime.now().minusSeconds(settleSeconds));
+        if (upto <= watermark) {
+            return 0;
+        }
+
+        List<Object[]> accounts = postingRepository.findAccountsTouchedBetween(watermark, upto);
+        for (Object[] row : accounts) {
+            LedgerEntry.Asset asset = (LedgerEntry.Asset) row[0];
+            String account = (String) row[1];
+
+            Optional<LedgerSnapshot> previous = snapshotRepository.findFirstByAssetAndAccountOrderByIdDesc(asset, account);
+            BigDecimal base = previous.map(LedgerSnapshot::getBalance).orElse(BigDecimal.ZERO);
+            Long from = previous.map(LedgerSnapshot::getLastPostingId).orElse(0L);
+
+            LedgerSnapshot next = new LedgerSnapshot();
+            next.setAsset(asset);
+            next.setAccount(account);
+            next.setBalance(base.add(postingRepository.sumBetween(asset, account, from, upto, LedgerPosting.Direction.CREDIT)));
+            next.setLastPostingId(upto);
+            snapshotRepository.save(next);
+        }
+
+        log.info("Ledger snapshots rolled forward for {} accounts up to posting {}", accounts.size(), upto);
+        return accounts.size();
+    }
+
+    private LedgerPosting leg(LedgerEntry entry, String account, LedgerPosting.Direction direction) {
+        LedgerPosting posting = new LedgerPosting();
+        posting.setEntry(entry);
+        posting.setAsset(entry.getAsset());
+        posting.setAccount(account);
+        posting.setDirection(direction);
+        posting.setAmount(entry.getAmount());
+        return posting;
+    }
+
+    /**
+     * Balance view of one account: snapshot + tail.
+     */
+    public record Statement(
+            LedgerEntry.Asset asset,
+            String account,
+            BigDecimal snapshotBalance,
+            LocalDateTime snapshotAt,
+            Long snapshotPostingId,
+            BigDecimal balance,
+            List<LedgerPosting> tail
+    ) {
+    }
+}
@@ -0,0 +1,400 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.FacetBucket;
+import com.example.demo.dto.ListingChangedEvent;
+import com.example.demo.dto.ListingSnapshot;
+import com.example.demo.entity.Listing;
+import com.example.demo.repository.ListingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory columnar index of listings for the marketplace browse view. Each listing
+ * occupies a slot in primitive columns (price and carbon amount as fixed-point longs,
+ * creation time); one bitset per status marks which slots are in that status, and slot
+ * orders sorted by price, amount and creation time answer range filters and sorted pages
+ * with binary search. Facet counts come from bitset intersections, so a query never
+ * touches the database; only the listings on the returned page are loaded afterwards.
+ * <p>
+ * Built on startup and updated after commit from {@link ListingChangedEvent}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ListingFilterIndex {
+
+    public enum Sort { NEWEST, PRICE_ASC, PRICE_DESC, AMOUNT_ASC, AMOUNT_DESC }
+
+    /**
+     * Null bounds are open. {@code priceBuckets} is the number of equal-width histogram bars.
+     */
+    public record Query(Set<Listing.ListingStatus> statuses,
+                        BigDecimal minPrice, BigDecimal maxPrice,
+                        BigDecimal minCarbon, BigDecimal maxCarbon,
+                        Sort sort, int page, int size, int priceBuckets) {
+    }
+
+    public record Result(List<Long> ids, long total,
+                         List<FacetBucket> priceHistogram,
+                         List<FacetBucket> quantityBuckets,
+                         Map<String, Long> statusCounts) {
+    }
+
+    // Same scale as listings.price and listings.carbon_amount
+    private static final int SCALE = 4;
+    // Quantity facet edges in credits (tCO2): <1, 1-10, 10-100, 100-1000, >=1000
+    private static final long[] QUANTITY_EDGES = {units(BigDecimal.ONE), units(BigDecimal.TEN),
+            units(BigDecimal.valueOf(100)), units(BigDecimal.valueOf(1000))};
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ListingRepository listingRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Columns, indexed by slot
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private long[] created = new long[INITIAL_CAPACITY];
+    private Listing.ListingStatus[] statuses = new Listing.ListingStatus[INITIAL_CAPACITY];
+
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private int slotCount;
+    private final Map<Listing.ListingStatus, BitSet> byStatus = new EnumMap<>(Listing.ListingStatus.class);
+
+    private final SortedColumn priceOrder = new SortedColumn(Column.PRICE);
+    private final SortedColumn amountOrder = new SortedColumn(Column.AMOUNT);
+    private final SortedColumn createdOrder = new SortedColumn(Column.CREATED);
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Map<String, Object>> rows = listingRepository.findFilterColumns();
+        lock.writeLock().lock();
+        try {
+            slotsById.clear();
+            freeSlots.clear();
+            slotCount = 0;
+            byStatus.clear();
+            priceOrder.clear();
+            amountOrder.clear();
+            createdOrder.clear();
+            for (Map<String, Object> row : rows) {
+                put((Long) row.get("id"), (Listing.ListingStatus) row.get("status"), (BigDecimal) row.get("price"),
+                        (BigDecimal) row.get("carbonAmount"), (LocalDateTime) row.get("createdAt"));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Listing filter index rebuilt with {} listings", rows.size());
+    }
+
+    /**
+     * Re-index a listing after it was created, edited, sold, changed status or was deleted.
+     * Applied after the surrounding transaction commits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        ListingSnapshot listing = event.listing();
+        lock.writeLock().lock();
+        try {
+            if (listing == null) {
+                remove(event.listingId());
+            } else {
+                put(listing.id(), listing.status(), listing.price(), listing.carbonAmount(), listing.createdAt());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Result query(Query query) {
+        lock.readLock().lock();
+        try {
+            BitSet inStatus = new BitSet();
+            for (Listing.ListingStatus status : query.statuses()) {
+                BitSet bits = byStatus.get(status);
+                if (bits != null) {
+                    inStatus.or(bits);
+                }
+            }
+            BitSet inPrice = priceOrder.between(query.minPrice(), query.maxPrice());
+            BitSet inAmount = amountOrder.between(query.minCarbon(), query.maxCarbon());
+
+            BitSet matches = (BitSet) inStatus.clone();
+            and(matches, inPrice);
+            and(matches, inAmount);
+
+            List<Long> page = page(matches, query);
+
+            BitSet priceBase = (BitSet) inStatus.clone();
+            and(priceBase, inAmount);
+            BitSet amountBase = (BitSet) inStatus.clone();
+            and(amountBase, inPrice);
+
+            return new Result(page, matches.cardinality(),
+                    priceHistogram(priceBase, query.priceBuckets()),
+                    quantityBuckets(amountBase),
+                    statusCounts(inPrice, inAmount));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the read lock
+    private List<Long> page(BitSet matches, Query query) {
+        List<Long> page = new ArrayList<>(query.size());
+        long skip = (long) query.page() * query.size();
+        SortedColumn order = switch (query.sort()) {
+            case PRICE_ASC, PRICE_DESC -> priceOrder;
+            case AMOUNT_ASC, AMOUNT_DESC -> amountOrder;
+            case NEWEST -> createdOrder;
+        };
+        boolean descending = query.sort() == Sort.NEWEST
+                || query.sort() == Sort.PRICE_DESC || query.sort() == Sort.AMOUNT_DESC;
+        for (int i = 0; i < order.size && page.size() < query.size(); i++) {
+            int slot = order.order[descending ? order.size - 1 - i : i];
+            if (!matches.get(slot)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            page.add(ids[slot]);
+        }
+        return page;
+    }
+
+    // Caller holds the read lock
+    private List<FacetBucket> priceHistogram(BitSet base, int buckets) {
+        if (base.isEmpty() || buckets <= 0) {
+            return List.of();
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int slot = base.nextSetBit(0); slot >= 0; slot = base.nextSetBit(slot + 1)) {
+            min = Math.min(min, prices[slot]);
+            max = Math.max(max, prices[slot]);
+        }
+        long width = Math.max(1L, (max - min) / buckets + 1);
+        long[] counts = new long[buckets];
+        for (int slot = base.nextSetBit(0); slot >= 0; slot = base.nextSetBit(slot + 1)) {
+            counts[(int) Math.min(buckets - 1, (prices[slot] - min) / width)]++;
+        }
+        List<FacetBucket> histogram = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            long from = min + i * width;
+            histogram.add(new FacetBucket(decimal(from), decimal(from + width), counts[i]));
+        }
+        return histogram;
+    }
+
+    // Caller holds the read lock
+    private List<FacetBucket> quantityBuckets(BitSet base) {
+        long[] counts = new long[QUANTITY_EDGES.length + 1];
+        for (int slot = base.nextSetBit(0); slot >= 0; slot = base.nextSetBit(slot + 1)) {
+            int bucket = 0;
+            while (bucket < QUANTITY_EDGES.length && amounts[slot] >= QUANTITY_EDGES[bucket]) {
+                bucket++;
+            }
+            counts[bucket]++;
+        }
+        List<FacetBucket> facets = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            BigDecimal from = decimal(i == 0 ? 0L : QUANTITY_EDGES[i - 1]);
+            BigDecimal to = i < QUANTITY_EDGES.length ? decimal(QUANTITY_EDGES[i]) : null;
+            facets.add(new FacetBucket(from, to, counts[i]));
+        }
+        return facets;
+    }
+
+    // Caller holds the read lock
+    private Map<String, Long> statusCounts(BitSet inPrice, BitSet inAmount) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Map.Entry<Listing.ListingStatus, BitSet> e : byStatus.entrySet()) {
+            BitSet bits = (BitSet) e.getValue().clone();
+            and(bits, inPrice);
+            and(bits, inAmount);
+            if (!bits.isEmpty()) {
+                counts.put(e.getKey().name(), (long) bits.cardinality());
+            }
+        }
+        return counts;
+    }
+
+    // Caller holds the write lock
+    private void put(Long listingId, Listing.ListingStatus status, BigDecimal price, BigDecimal amount,
+                     LocalDateTime createdAt) {
+        if (listingId == null || status == null || price == null || amount == null) {
+            return;
+        }
+        Integer existing = slotsById.get(listingId);
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            detach(slot);
+        } else {
+            slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+            ensureCapacity(slotCount);
+            slotsById.put(listingId, slot);
+        }
+        ids[slot] = listingId;
+        statuses[slot] = status;
+        prices[slot] = units(price);
+        amounts[slot] = units(amount);
+        created[slot] = (createdAt != null ? createdAt : LocalDateTime.now()).toInstant(ZoneOffset.UTC).toEpochMilli();
+        statusBits(status).set(slot);
+        priceOrder.insert(slot);
+        amountOrder.insert(slot);
+        createdOrder.insert(slot);
+    }
+
+    // Caller holds the write lock
+    private void remove(Long listingId) {
+        Integer slot = slotsById.remove(listingId);
+        if (slot != null) {
+            detach(slot);
+            statuses[slot] = null;
+            freeSlots.push(slot);
+        }
+    }
+
+    // Take the slot out of the sorted orders and status bits before its values change
+    private void detach(int slot) {
+        priceOrder.remove(slot);
+        amountOrder.remove(slot);
+        createdOrder.remove(slot);
+        byStatus.get(statuses[slot]).clear(slot);
+    }
+
+    private BitSet statusBits(Listing.ListingStatus status) {
+        return byStatus.computeIfAbsent(status, s -> new BitSet());
+    }
+
+    private void ensureCapacity(int slots) {
+        if (slots <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(slots, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        created = Arrays.copyOf(created, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+    }
+
+    private static void and(BitSet target, BitSet filter) {
+        if (filter != null) {
+            target.and(filter);
+        }
+    }
+
+    private static long units(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal decimal(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    private enum Column { PRICE, AMOUNT, CREATED }
+
+    /**
+     * Slots ordered by one column (ties broken by listing id), kept sorted on every change.
+     */
+    private final class SortedColumn {
+        private final Column column;
+        private int[] order = new int[INITIAL_CAPACITY];
+        private int size;
+
+        private SortedColumn(Column column) {
+            this.column = column;
+        }
+
+        private long value(int slot) {
+            return switch (column) {
+                case PRICE -> prices[slot];
+                case AMOUNT -> amounts[slot];
+                case CREATED -> created[slot];
+            };
+        }
+
+        private void clear() {
+            size = 0;
+        }
+
+        private void insert(int slot) {
+            if (size == order.length) {
+                order = Arrays.copyOf(order, size * 2);
+            }
+            int at = position(value(slot), ids[slot]);
+            System.arraycopy(order, at, order, at + 1, size - at);
+            order[at] = slot;
+            size++;
+        }
+
+        private void remove(int slot) {
+            int at = position(value(slot), ids[slot]);
+            if (at < size && order[at] == slot) {
+                System.arraycopy(order, at + 1, order, at, size - at - 1);
+                size--;
+            }
+        }
+
+        /**
+         * Slots whose value lies in {@code [min, max]}; null when both bounds are open (no filter).
+         */
+        private BitSet between(BigDecimal min, BigDecimal max) {
+            if (min == null && max == null) {
+                return null;
+            }
+            int from = min == null ? 0 : position(units(min), Long.MIN_VALUE);
+            int to = max == null ? size : position(units(max), Long.MAX_VALUE);
+            BitSet bits = new BitSet();
+            for (int i = from; i < to; i++) {
+                bits.set(order[i]);
+            }
+            return bits;
+        }
+
+        // First position whose (value, id) is not below the given key
+        private int position(long value, long id) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int slot = order[mid];
+                long v = value(slot);
+                if (v < value || v == value && ids[slot] < id) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ListingChangedEvent;
+import com.example.demo.dto.ListingSnapshot;
+import com.example.demo.entity.Listing;
+import com.example.demo.repository.ListingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the title and description of OPEN listings, so keyword
+ * search does not scan the listings table. Text is folded (Vietnamese diacritics removed,
+ * "đ" to "d", lowercased) and split into words; every query word must match, and the last
+ * one also matches as a prefix so results follow the user's typing. Hits are ranked by
+ * field weight and term rarity.
+ * <p>
+ * Built from the listings table on startup and kept in sync, after commit, from
+ * {@link ListingChangedEvent}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ListingSearchIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    // Exact word matches rank above prefix matches of the last query word
+    private static final double PREFIX_FACTOR = 0.5;
+    // Caps the expansion of very short prefixes ("a" could match thousands of terms)
+    private static final int MAX_PREFIX_TERMS = 256;
+
+    private final ListingRepository listingRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> listing id -> weighted occurrences
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> termsByListing = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Listing> openListings = listingRepository.findByStatusOrderByCreatedAtDesc(Listing.ListingStatus.OPEN);
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByListing.clear();
+            for (Listing listing : openListings) {
+                put(listing.getId(), listing.getTitle(), listing.getDescription());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Listing search index rebuilt with {} open listings, {} terms", termsByListing.size(), postings.size());
+    }
+
+    /**
+     * Re-index a listing after it was created, edited, sold or changed status. Only OPEN
+     * listings stay searchable. Applied after the surrounding transaction commits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        ListingSnapshot listing = event.listing();
+        lock.writeLock().lock();
+        try {
+            remove(event.listingId());
+            if (listing != null && listing.status() == Listing.ListingStatus.OPEN) {
+                put(listing.id(), listing.title(), listing.description());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the OPEN listings matching every word of the query, best match first.
+     * The page's sort is ignored: results are always ordered by relevance, then newest id.
+     */
+    public Page<Long> search(String query, Pageable pageable) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        Map<Long, Double> scores = null;
+        lock.readLock().lock();
+        try {
+            int indexed = termsByListing.size();
+            for (int i = 0; i < words.size(); i++) {
+                Map<Long, Double> matches = match(words.get(i), i == words.size() - 1);
+                if (matches.isEmpty()) {
+                    return Page.empty(pageable);
+                }
+                double idf = Math.log(1.0 + (double) indexed / matches.size());
+                if (scores == null) {
+                    scores = new HashMap<>();
+                    for (Map.Entry<Long, Double> e : matches.entrySet()) {
+                        scores.put(e.getKey(), e.getValue() * idf);
+                    }
+                } else {
+                    scores.keySet().retainAll(matches.keySet());
+                    for (Map.Entry<Long, Double> e : scores.entrySet()) {
+                        e.setValue(e.getValue() + matches.get(e.getKey()) * idf);
+                    }
+                    if (scores.isEmpty()) {
+                        return Page.empty(pageable);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey(Comparator.reverseOrder())));
+
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(ranked.stream().map(Map.Entry::getKey).toList(), pageable, ranked.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageable.getPageSize(), ranked.size());
+        List<Long> ids = ranked.subList(from, to).stream().map(Map.Entry::getKey).toList();
+        return new PageImpl<>(ids, pageable, ranked.size());
+    }
+
+    /**
+     * Lowercase, diacritic-free form of the text ("Điện" -> "dien").
+     */
+    public static String fold(String text) {
+        String withoutMarks = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return withoutMarks.replace('đ', 'd').replace('Đ', 'D').toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return words;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    // Caller holds the read lock
+    private Map<Long, Double> match(String word, boolean prefix) {
+        Map<Long, Double> matches = new HashMap<>();
+        Map<Long, Integer> exact = postings.get(word);
+        if (exact != null) {
+            exact.forEach((id, weight) -> matches.put(id, (double) weight));
+        }
+        if (prefix) {
+            int expanded = 0;
+            for (Map.Entry<String, Map<Long, Integer>> term
+                    : postings.subMap(word, false, word + Character.MAX_VALUE, false).entrySet()) {
+                if (++expanded > MAX_PREFIX_TERMS) {
+                    break;
+                }
+                term.getValue().forEach((id, weight) -> matches.merge(id, weight * PREFIX_FACTOR, Math::max));
+            }
+        }
+        return matches;
+    }
+
+    // Caller holds the write lock
+    private void put(Long listingId, String title, String description) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String word : tokenize(title)) {
+            weights.merge(word, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String word : tokenize(description)) {
+            weights.merge(word, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> e : weights.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(listingId, e.getValue());
+        }
+        termsByListing.put(listingId, new HashSet<>(weights.keySet()));
+    }
+
+    // Caller holds the write lock
+    private void remove(Long listingId) {
+        Set<String> terms = termsByListing.remove(listingId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> ids = postings.get(term);
+            if (ids != null) {
+                ids.remove(listingId);
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
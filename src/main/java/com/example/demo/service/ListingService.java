@@ -1,19 +1,29 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.ListingBrowseResponse;
 import com.example.demo.dto.ListingRequest;
 import com.example.demo.dto.ListingResponse;
+import com.example.demo.dto.ListingChangedEvent;
 import com.example.demo.entity.Listing;
 import com.example.demo.entity.User;
 import com.example.demo.repository.ListingRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,6 +33,9 @@ public class ListingService {
     
     private final ListingRepository listingRepository;
     private final UserRepository userRepository;
+    private final ListingSearchIndex listingSearchIndex;
+    private final ListingFilterIndex listingFilterIndex;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public ListingResponse createListing(ListingRequest request) {
@@ -41,6 +54,7 @@ public class ListingService {
         listing.setStatus(Listing.ListingStatus.PENDING);
         
         Listing savedListing = listingRepository.save(listing);
+        eventPublisher.publishEvent(ListingChangedEvent.created(savedListing));
         log.info("Listing created with ID: {}", savedListing.getId());
         
         return ListingResponse.fromListing(savedListing);
@@ -59,12 +73,13 @@ public class ListingService {
         return ListingResponse.fromListing(listing);
     }
     
-    public List<ListingResponse> getListingsBySeller(Long sellerId) {
+    public CursorPage<ListingResponse> getListingsBySeller(Long sellerId, String cursor, int size) {
         log.info("Fetching listings for seller ID: {}", sellerId);
-        List<Listing> listings = listingRepository.findBySellerIdOrderByCreatedAtDesc(sellerId);
-        return listings.stream()
-                .map(ListingResponse::fromListing)
-                .collect(Collectors.toList());
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int limit = CursorPage.clampSize(size);
+        List<Listing> rows = listingRepository.findPageBySellerBefore(
+                sellerId, after.createdAt(), after.id(), CursorPage.fetchLimit(limit));
+        return CursorPage.of(rows, limit, ListingService::cursorOf, ListingResponse::fromListing);
     }
     
     public Page<ListingResponse> getOpenListings(Pageable pageable) {
@@ -73,10 +88,58 @@ public class ListingService {
         return listings.map(ListingResponse::fromListing);
     }
     
+    /**
+     * Newest-first listings after the cursor; every page costs the same as the first.
+     */
+    public CursorPage<ListingResponse> scrollListings(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int limit = CursorPage.clampSize(size);
+        List<Listing> rows = listingRepository.findPageBefore(after.createdAt(), after.id(), CursorPage.fetchLimit(limit));
+        return CursorPage.of(rows, limit, ListingService::cursorOf, ListingResponse::fromListing);
+    }
+    
+    public CursorPage<ListingResponse> scrollOpenListings(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int limit = CursorPage.clampSize(size);
+        List<Listing> rows = listingRepository.findPageByStatusBefore(
+                Listing.ListingStatus.OPEN, after.createdAt(), after.id(), CursorPage.fetchLimit(limit));
+        return CursorPage.of(rows, limit, ListingService::cursorOf, ListingResponse::fromListing);
+    }
+    
+    /**
+     * Marketplace browse: filters, sort and facet counts come from {@link ListingFilterIndex};
+     * only the listings on the requested page are loaded.
+     */
+    @Transactional(readOnly = true)
+    public ListingBrowseResponse browseListings(ListingFilterIndex.Query query) {
+        ListingFilterIndex.Result result = listingFilterIndex.query(query);
+        Map<Long, Listing> listings = listingRepository.findAllById(result.ids()).stream()
+                .collect(Collectors.toMap(Listing::getId, Function.identity()));
+        List<ListingResponse> items = result.ids().stream()
+                .map(listings::get)
+                .filter(Objects::nonNull)
+                .map(ListingResponse::fromListing)
+                .collect(Collectors.toList());
+        return new ListingBrowseResponse(items, result.total(), query.page(), query.size(),
+                result.priceHistogram(), result.quantityBuckets(), result.statusCounts());
+    }
+    
+    /**
+     * Ranked keyword search over OPEN listings, answered from {@link ListingSearchIndex};
+     * only the listings on the requested page are loaded.
+     */
+    @Transactional(readOnly = true)
     public Page<ListingResponse> searchListings(String keyword, Pageable pageable) {
         log.info("Searching listings with keyword: {}", keyword);
-        Page<Listing> listings = listingRepository.findByKeyword(keyword, pageable);
-        return listings.map(ListingResponse::fromListing);
+        Page<Long> ids = listingSearchIndex.search(keyword, pageable);
+        Map<Long, Listing> listings = listingRepository.findAllById(ids.getContent()).stream()
+                .collect(Collectors.toMap(Listing::getId, Function.identity()));
+        List<ListingResponse> content = ids.getContent().stream()
+                .map(listings::get)
+                .filter(Objects::nonNull)
+                .map(ListingResponse::fromListing)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
     }
     
     @Transactional
@@ -91,12 +154,15 @@ public class ListingService {
             throw new RuntimeException("Cannot update listing that is not OPEN");
         }
         
+        Listing.ListingStatus previousStatus = listing.getStatus();
+        BigDecimal previousPrice = listing.getPrice();
         listing.setTitle(request.getTitle());
         listing.setDescription(request.getDescription());
         listing.setCarbonAmount(request.getCarbonAmount());
         listing.setPrice(request.getPrice());
         
         Listing updatedListing = listingRepository.save(listing);
+        eventPublisher.publishEvent(ListingChangedEvent.updated(previousStatus, previousPrice, updatedListing));
         log.info("Listing updated with ID: {}", updatedListing.getId());
         
         return ListingResponse.fromListing(updatedListing);
@@ -115,6 +181,7 @@ public class ListingService {
         }
         
         listingRepository.delete(listing);
+        eventPublisher.publishEvent(ListingChangedEvent.deleted(listing));
         log.info("Listing deleted with ID: {}", id);
     }
     
@@ -125,8 +192,14 @@ public class ListingService {
         Listing listing = listingRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Listing not found with ID: " + id));
         
+        Listing.ListingStatus previous = listing.getStatus();
         listing.setStatus(status);
         listingRepository.save(listing);
+        eventPublisher.publishEvent(ListingChangedEvent.updated(previous, listing.getPrice(), listing));
         log.info("Listing status updated for ID: {}", id);
     }
+    
+    private static KeysetCursor cursorOf(Listing listing) {
+        return new KeysetCursor(listing.getCreatedAt(), listing.getId());
+    }
 }
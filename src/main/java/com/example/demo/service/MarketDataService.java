@@ -0,0 +1,390 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TradeExecutedEvent;
+import com.example.demo.entity.MarketCandle;
+import com.example.demo.entity.MarketCandle.Interval;
+import com.example.demo.repository.MarketCandleRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory market data built from completed fills: 1 minute, 1 hour and 1 day OHLC
+ * candles with volume and VWAP, plus the last traded price.
+ * <p>
+ * Each interval keeps its recent closed candles in a fixed-size ring buffer next to the
+ * bar that is still open, so a trade touches three bars and chart reads never hit the
+ * database. Touched bars are written back to {@code market_candles} by a scheduled
+ * flush and reloaded on startup. 24 hour statistics are summed from the hourly bars.
+ */
+@Service
+@Slf4j
+public class MarketDataService {
+
+    private static final int SCALE = 4;
+
+    private final MarketCandleRepository candleRepository;
+    private final TransactionTemplate flushTransaction;
+    private final Map<Interval, Series> series = new EnumMap<>(Interval.class);
+    private final Set<Bar> dirty = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private BigDecimal lastPrice;
+    private LocalDateTime lastTradeAt;
+
+    public MarketDataService(MarketCandleRepository candleRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${market.candles.minute-capacity:1440}") int minuteCapacity,
+                             @Value("${market.candles.hour-capacity:720}") int hourCapacity,
+                             @Value("${market.candles.day-capacity:365}") int dayCapacity) {
+        this.candleRepository = candleRepository;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        series.put(Interval.MINUTE, new Series(Interval.MINUTE, minuteCapacity));
+        series.put(Interval.HOUR, new Series(Interval.HOUR, hourCapacity));
+        series.put(Interval.DAY, new Series(Interval.DAY, dayCapacity));
+    }
+
+    public record Candle(
+            Interval interval,
+            LocalDateTime bucketStart,
+            BigDecimal open,
+            BigDecimal high,
+            BigDecimal low,
+            BigDecimal close,
+            BigDecimal volume,
+            BigDecimal vwap,
+            long tradeCount
+    ) {}
+
+    /**
+     * Last trade and the rolling 24 hour window (current hour plus the 23 before it).
+     * The 24 hour figures are null when nothing traded in the window.
+     */
+    public record MarketStats(
+            BigDecimal lastPrice,
+            LocalDateTime lastTradeAt,
+            BigDecimal open24h,
+            BigDecimal high24h,
+            BigDecimal low24h,
+            BigDecimal vwap24h,
+            BigDecimal volume24h,
+            long tradeCount24h,
+            BigDecimal changePercent24h
+    ) {}
+
+    // ==================== Ingestion ====================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradeExecuted(TradeExecutedEvent event) {
+        if (event.price() == null || event.quantity() == null || event.quantity().signum() <= 0) {
+            return;
+        }
+        LocalDateTime at = event.executedAt() != null ? event.executedAt() : LocalDateTime.now();
+        lock.lock();
+        try {
+            for (Series s : series.values()) {
+                Bar bar = s.barFor(at);
+                bar.add(event.price(), event.quantity());
+                dirty.add(bar);
+            }
+            if (lastTradeAt == null || !at.isBefore(lastTradeAt)) {
+                lastPrice = event.price();
+                lastTradeAt = at;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reload the most recent candles of every interval so charts survive a restart.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Interval, List<MarketCandle>> loaded = new EnumMap<>(Interval.class);
+        for (Series s : series.values()) {
+            LocalDateTime from = s.bucketStart(now).minus((long) s.capacity, s.unit);
+            loaded.put(s.interval, candleRepository
+                    .findByIntervalAndBucketStartGreaterThanEqualOrderByBucketStart(s.interval, from));
+        }
+
+        lock.lock();
+        try {
+            loaded.forEach((interval, candles) -> {
+                Series s = series.get(interval);
+                // Trades that arrived before startup finished already own the newest bars
+                if (s.current != null) return;
+                for (MarketCandle c : candles) {
+                    s.append(Bar.from(c));
+                }
+            });
+            List<MarketCandle> minutes = loaded.get(Interval.MINUTE);
+            if (lastPrice == null && !minutes.isEmpty()) {
+                MarketCandle newest = minutes.get(minutes.size() - 1);
+                lastPrice = newest.getClose();
+                lastTradeAt = newest.getUpdatedAt() != null ? newest.getUpdatedAt() : newest.getBucketStart();
+            }
+        } finally {
+            lock.unlock();
+        }
+        log.info("Market data reloaded: {} minute, {} hour, {} day candles",
+                loaded.get(Interval.MINUTE).size(), loaded.get(Interval.HOUR).size(), loaded.get(Interval.DAY).size());
+    }
+
+    /**
+     * Write every bar touched since the last flush. Bars that fail to save are retried next time.
+     */
+    @Scheduled(fixedDelayString = "${market.candles.flush-interval-ms:10000}")
+    public void flush() {
+        List<Bar> bars;
+        List<Bar> snapshots = new ArrayList<>();
+        lock.lock();
+        try {
+            if (dirty.isEmpty()) return;
+            bars = new ArrayList<>(dirty);
+            for (Bar bar : bars) {
+                snapshots.add(bar.copy());
+            }
+            dirty.clear();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            flushTransaction.executeWithoutResult(status -> snapshots.forEach(b -> candleRepository.upsert(
+                    b.interval.name(), b.start, scaled(b.open), scaled(b.high), scaled(b.low), scaled(b.close),
+                    scaled(b.volume), scaled(b.notional), b.tradeCount)));
+        } catch (RuntimeException ex) {
+            log.warn("Could not flush {} market candles: {}", snapshots.size(), ex.getMessage());
+            lock.lock();
+            try {
+                dirty.addAll(bars);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // ==================== Queries ====================
+
+    /**
+     * The newest {@code limit} candles of an interval, oldest first, including the open bar.
+     */
+    public List<Candle> getCandles(Interval interval, int limit) {
+        lock.lock();
+        try {
+            return series.get(interval).latest(limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public MarketStats getStats() {
+        LocalDateTime windowStart = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(23);
+        lock.lock();
+        try {
+            Series hours = series.get(Interval.HOUR);
+            BigDecimal open = null;
+            BigDecimal high = null;
+            BigDecimal low = null;
+            BigDecimal volume = BigDecimal.ZERO;
+            BigDecimal notional = BigDecimal.ZERO;
+            long trades = 0;
+            // Newest first; stop at the first bar outside the window
+            for (int i = 0; i < hours.size(); i++) {
+                Bar bar = hours.fromNewest(i);
+                if (bar.start.isBefore(windowStart)) break;
+                open = bar.open;
+                high = high == null ? bar.high : high.max(bar.high);
+                low = low == null ? bar.low : low.min(bar.low);
+                volume = volume.add(bar.volume);
+                notional = notional.add(bar.notional);
+                trades += bar.tradeCount;
+            }
+            if (trades == 0) {
+                return new MarketStats(lastPrice, lastTradeAt, null, null, null, null, BigDecimal.ZERO, 0, null);
+            }
+            BigDecimal change = lastPrice == null || open.signum() == 0 ? null : lastPrice.subtract(open)
+                    .multiply(BigDecimal.valueOf(100))
+                    .divide(open, 2, RoundingMode.HALF_UP);
+            return new MarketStats(lastPrice, lastTradeAt, open, high, low,
+                    notional.divide(volume, SCALE, RoundingMode.HALF_UP), volume, trades, change);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static BigDecimal scaled(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP);
+    }
+
+    // ==================== Internals ====================
+
+    /**
+     * Closed bars of one interval in a ring buffer, plus the bar that is still open.
+     */
+    private static final class Series {
+        private final Interval interval;
+        private final ChronoUnit unit;
+        private final int capacity;
+        private final Bar[] ring;
+        private int head;
+        private int count;
+        private Bar current;
+
+        private Series(Interval interval, int capacity) {
+            this.interval = interval;
+            this.unit = switch (interval) {
+                case MINUTE -> ChronoUnit.MINUTES;
+                case HOUR -> ChronoUnit.HOURS;
+                case DAY -> ChronoUnit.DAYS;
+            };
+            this.capacity = Math.max(1, capacity);
+            this.ring = new Bar[this.capacity];
+        }
+
+        private LocalDateTime bucketStart(LocalDateTime at) {
+            return at.truncatedTo(unit);
+        }
+
+        /**
+         * The bar a trade at {@code at} belongs to, opening a new one when its bucket has
+         * started. A trade older than the open bar (clock skew between nodes) goes to its
+         * own closed bar if still in the ring, otherwise to the open bar.
+         */
+        private Bar barFor(LocalDateTime at) {
+            LocalDateTime start = bucketStart(at);
+            if (current == null || start.isAfter(current.start)) {
+                append(new Bar(interval, start));
+                return current;
+            }
+            if (start.isBefore(current.start)) {
+                for (int i = 1; i < size(); i++) {
+                    Bar bar = fromNewest(i);
+                    if (bar.start.equals(start)) return bar;
+                    if (bar.start.isBefore(start)) break;
+                }
+            }
+            return current;
+        }
+
+        /**
+         * Make {@code bar} the open bar, moving the previous one into the ring.
+         */
+        private void append(Bar bar) {
+            if (current != null) {
+                ring[head] = current;
+                head = (head + 1) % capacity;
+                count = Math.min(count + 1, capacity);
+            }
+            current = bar;
+        }
+
+        // Closed bars plus the open one
+        private int size() {
+            return current == null ? 0 : count + 1;
+        }
+
+        // 0 is the open bar, 1 the newest closed one
+        private Bar fromNewest(int index) {
+            if (index == 0) return current;
+            return ring[Math.floorMod(head - index, capacity)];
+        }
+
+        private List<Candle> latest(int limit) {
+            int n = Math.min(Math.max(limit, 0), size());
+            List<Candle> candles = new ArrayList<>(n);
+            for (int i = n - 1; i >= 0; i--) {
+                candles.add(fromNewest(i).toCandle());
+            }
+            return candles;
+        }
+    }
+
+    private static final class Bar {
+        private final Interval interval;
+        private final LocalDateTime start;
+        private BigDecimal open;
+        private BigDecimal high;
+        private BigDecimal low;
+        private BigDecimal close;
+        private BigDecimal volume = BigDecimal.ZERO;
+        private BigDecimal notional = BigDecimal.ZERO;
+        private long tradeCount;
+
+        private Bar(Interval interval, LocalDateTime start) {
+            this.interval = interval;
+            this.start = start;
+        }
+
+        private static Bar from(MarketCandle c) {
+            Bar bar = new Bar(c.getInterval(), c.getBucketStart());
+            bar.open = c.getOpen();
+            bar.high = c.getHigh();
+            bar.low = c.getLow();
+            bar.close = c.getClose();
+            bar.volume = c.getVolume();
+            bar.notional = c.getNotional();
+            bar.tradeCount = c.getTradeCount() != null ? c.getTradeCount() : 0L;
+            return bar;
+        }
+
+        private Bar copy() {
+            Bar bar = new Bar(interval, start);
+            bar.open = open;
+            bar.high = high;
+            bar.low = low;
+            bar.close = close;
+            bar.volume = volume;
+            bar.notional = notional;
+            bar.tradeCount = tradeCount;
+            return bar;
+        }
+
+        private void add(BigDecimal price, BigDecimal quantity) {
+            if (open == null) {
+                open = high = low = price;
+            } else {
+                high = high.max(price);
+                low = low.min(price);
+            }
+            close = price;
+            volume = volume.add(quantity);
+            notional = notional.add(price.multiply(quantity));
+            tradeCount++;
+        }
+
+        private Candle toCandle() {
+            BigDecimal vwap = volume.signum() == 0 ? close : notional.divide(volume, SCALE, RoundingMode.HALF_UP);
+            return new Candle(interval, start, open, high, low, close, volume, vwap, tradeCount);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ListingChangedEvent;
+import com.example.demo.dto.ListingSnapshot;
+import com.example.demo.entity.Listing;
+import com.example.demo.repository.ListingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory price-time priority book of OPEN listings (asks) for the carbon credit market.
+ * The book is rebuilt from the listings table on startup and follows {@link ListingChangedEvent}
+ * after commit; buy orders reserve liquidity here first and the reservation is rolled back if
+ * the surrounding DB transaction fails.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderBookService {
+
+    private static final Comparator<Ask> PRICE_TIME_PRIORITY = Comparator
+            .comparing((Ask a) -> a.price)
+            .thenComparing(a -> a.createdAt)
+            .thenComparing(a -> a.listingId);
+
+    private final ListingRepository listingRepository;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TreeSet<Ask> asks = new TreeSet<>(PRICE_TIME_PRIORITY);
+    private final Map<Long, Ask> asksByListing = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Listing> openListings = listingRepository.findByStatusOrderByCreatedAtDesc(Listing.ListingStatus.OPEN);
+        lock.lock();
+        try {
+            asks.clear();
+            asksByListing.clear();
+            for (Listing listing : openListings) {
+                putAsk(listing.getId(), listing.getSeller().getId(), listing.getPrice(),
+                        listing.getCreatedAt(), listing.getCarbonAmount());
+            }
+        } finally {
+            lock.unlock();
+        }
+        log.info("Order book rebuilt with {} open listings", asks.size());
+    }
+
+    /**
+     * Walk the book from the best ask and reserve up to {@code quantity} credits for the buyer.
+     * Listings owned by the buyer are skipped. When {@code limitPrice} is set, asks priced above
+     * it are not matched. Must be called inside a transaction: reserved quantities are released
+     * automatically on rollback and depleted asks are dropped on commit.
+     */
+    public List<Fill> reserve(Long buyerId, BigDecimal quantity, BigDecimal limitPrice) {
+        List<Fill> fills = new ArrayList<>();
+        List<Reservation> reservations = new ArrayList<>();
+        lock.lock();
+        try {
+            BigDecimal remaining = quantity;
+            Iterator<Ask> it = asks.iterator();
+            while (it.hasNext() && remaining.compareTo(BigDecimal.ZERO) > 0) {
+                Ask ask = it.next();
+                if (limitPrice != null && ask.price.compareTo(limitPrice) > 0) {
+                    break;
+                }
+                if (ask.sellerId.equals(buyerId)) {
+                    continue;
+                }
+                BigDecimal take = ask.remaining.min(remaining);
+                ask.remaining = ask.remaining.subtract(take);
+                remaining = remaining.subtract(take);
+                if (ask.remaining.compareTo(BigDecimal.ZERO) <= 0) {
+                    it.remove();
+                }
+                fills.add(new Fill(ask.listingId, ask.sellerId, ask.price, take));
+                reservations.add(new Reservation(ask, take));
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (!reservations.isEmpty()) {
+            registerReservation(reservations);
+        }
+        return fills;
+    }
+
+    /**
+     * Re-sync a listing with the book after it changed (approve, edit, partial sale...).
+     * Applied after the surrounding transaction commits so readers never see uncommitted state.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        ListingSnapshot listing = event.listing();
+        lock.lock();
+        try {
+            removeAsk(event.listingId());
+            if (listing != null && listing.status() == Listing.ListingStatus.OPEN && listing.sellerId() != null) {
+                putAsk(listing.id(), listing.sellerId(), listing.price(), listing.createdAt(), listing.carbonAmount());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Aggregated depth of the book, best price first.
+     */
+    public List<Level> getDepth(int levels) {
+        List<Level> depth = new ArrayList<>();
+        lock.lock();
+        try {
+            Level current = null;
+            for (Ask ask : asks) {
+                if (current != null && current.price().compareTo(ask.price) == 0) {
+                    current = new Level(current.price(), current.quantity().add(ask.remaining), current.listings() + 1);
+                    depth.set(depth.size() - 1, current);
+                    continue;
+                }
+                if (depth.size() >= levels) {
+                    break;
+                }
+                current = new Level(ask.price, ask.remaining, 1);
+                depth.add(current);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return depth;
+    }
+
+    /**
+     * Settle reservations when the transaction ends. Only the exact asks that were reserved
+     * are touched: if a listing event replaced an ask in the meantime, the replacement was
+     * built from the database and already holds the right quantity.
+     */
+    private void registerReservation(List<Reservation> reservations) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.lock();
+                try {
+                    for (Reservation reservation : reservations) {
+                        Ask ask = reservation.ask();
+                        if (asksByListing.get(ask.listingId) != ask) {
+                            continue;
+                        }
+                        if (status == STATUS_COMMITTED) {
+                            if (ask.remaining.compareTo(BigDecimal.ZERO) <= 0) {
+                                asksByListing.remove(ask.listingId);
+                            }
+                        } else {
+                            // Rolled back: give the reserved quantity back to the ask
+                            asks.remove(ask);
+                            ask.remaining = ask.remaining.add(reservation.quantity());
+                            asks.add(ask);
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
+
+    private void putAsk(Long listingId, Long sellerId, BigDecimal price, LocalDateTime createdAt, BigDecimal amount) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0 || price == null) {
+            return;
+        }
+        Ask ask = new Ask(listingId, sellerId, price, createdAt != null ? createdAt : LocalDateTime.now(), amount);
+        asks.add(ask);
+        asksByListing.put(listingId, ask);
+    }
+
+    private void removeAsk(Long listingId) {
+        Ask existing = asksByListing.remove(listingId);
+        if (existing != null) {
+            asks.remove(existing);
+        }
+    }
+
+    /**
+     * A slice of one listing matched against a buy order.
+     */
+    public record Fill(Long listingId, Long sellerId, BigDecimal price, BigDecimal quantity) {
+    }
+
+    /**
+     * One aggregated price level of the book.
+     */
+    public record Level(BigDecimal price, BigDecimal quantity, int listings) {
+    }
+
+    private record Reservation(Ask ask, BigDecimal quantity) {
+    }
+
+    private static final class Ask {
+        private final Long listingId;
+        private final Long sellerId;
+        private final BigDecimal price;
+        private final LocalDateTime createdAt;
+        private BigDecimal remaining;
+
+        private Ask(Long listingId, Long sellerId, BigDecimal price, LocalDateTime createdAt, BigDecimal remaining) {
+            this.listingId = listingId;
+            this.sellerId = sellerId;
+            this.price = price;
+            this.createdAt = createdAt;
+            this.remaining = remaining;
+        }
+    }
+}
@@ -1,43 +1,43 @@
 package com.example.demo.service;
 
-import com.example.demo.repository.ListingRepository;
+import com.example.demo.dto.PriceBand;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+/**
+ * Giá tham khảo cho người bán, lấy từ phân phối giá trong 7 ngày gần nhất của
+ * {@link PriceDistributionService}: giá khớp lệnh thực tế nếu có, nếu không thì giá niêm yết.
+ * Mọi số liệu đọc từ bộ nhớ, không truy vấn DB.
+ */
 @Service
 @RequiredArgsConstructor
 public class PriceAnalyticsService {
 
-    private final ListingRepository listingRepository;
+    private static final PriceDistributionService.Window WINDOW = PriceDistributionService.Window.WEEK;
+
+    private final PriceDistributionService priceDistributionService;
+
+    public PriceBand getPriceBand() {
+        return priceDistributionService.getPriceBand(WINDOW);
+    }
 
     public Double getAveragePrice() {
-        return listingRepository.getAveragePrice();
+        return getPriceBand().mean();
     }
 
     public Double getMinPrice() {
-        return listingRepository.getMinPrice();
+        return getPriceBand().min();
     }
 
     public Double getMaxPrice() {
-        return listingRepository.getMaxPrice();
+        return getPriceBand().max();
     }
 
     /**
-     * Giá đề xuất: hơi cao hơn trung bình nhưng vẫn trong khoảng min–max.
-     * Bạn có thể chỉnh công thức nếu muốn “tham” hơn hoặc “dễ bán” hơn.
+     * Giá đề xuất: hơi cao hơn trung vị (+5%) nhưng vẫn trong khoảng p10–p90,
+     * nên vài giá bất thường không kéo lệch đề xuất.
      */
     public Double getSuggestedPrice() {
-        Double avg = getAveragePrice();
-        Double min = getMinPrice();
-        Double max = getMaxPrice();
-
-        if (avg == null) return null;
-        if (min == null || max == null) return avg;
-
-        double suggested = avg * 1.05; // +5% so với trung bình
-        if (suggested > max) suggested = max;
-        if (suggested < min) suggested = avg; // fallback
-
-        return suggested;
+        return getPriceBand().suggested();
     }
 }
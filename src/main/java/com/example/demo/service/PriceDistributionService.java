@@ -0,0 +1,232 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ListingChangedEvent;
+import com.example.demo.dto.ListingSnapshot;
+import com.example.demo.dto.PriceBand;
+import com.example.demo.dto.TradeExecutedEvent;
+import com.example.demo.entity.Listing;
+import com.example.demo.entity.Transaction;
+import com.example.demo.repository.ListingRepository;
+import com.example.demo.repository.TransactionRepository;
+import com.example.demo.util.QuantileSketch;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Price distribution of executed trades and of posted listing asks, kept as one
+ * {@link QuantileSketch} per hour in a ring covering the longest window. A window's
+ * distribution is the merge of its hourly sketches, cached until the next price arrives,
+ * so percentiles and suggested prices never touch the database.
+ * <p>
+ * History of the longest window is loaded once at startup; everything after that is
+ * folded in incrementally from {@link TradeExecutedEvent} and {@link ListingChangedEvent}.
+ */
+@Service
+@Slf4j
+public class PriceDistributionService {
+
+    public enum Window {
+        DAY(24), WEEK(24 * 7), MONTH(24 * 30);
+
+        private final int hours;
+
+        Window(int hours) {
+            this.hours = hours;
+        }
+
+        public int hours() {
+            return hours;
+        }
+    }
+
+    public enum Source { TRADES, ASKS }
+
+    // Suggest a little above the middle of the market, but never above its p90
+    private static final double SUGGESTED_MARKUP = 1.05;
+
+    private static final int HOURS = Window.MONTH.hours();
+
+    private final ListingRepository listingRepository;
+    private final TransactionRepository transactionRepository;
+    private final int k;
+    private final Map<Source, HourlySketches> sketches = new EnumMap<>(Source.class);
+    private final Map<Source, Map<Window, QuantileSketch>> merged = new EnumMap<>(Source.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long mergedAtHour = Long.MIN_VALUE;
+
+    public PriceDistributionService(ListingRepository listingRepository,
+                                    TransactionRepository transactionRepository,
+                                    @Value("${market.price-sketch.k:200}") int k) {
+        this.listingRepository = listingRepository;
+        this.transactionRepository = transactionRepository;
+        this.k = k;
+        for (Source source : Source.values()) {
+            sketches.put(source, new HourlySketches());
+            merged.put(source, new EnumMap<>(Window.class));
+        }
+    }
+
+    // ==================== Updates ====================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradeExecuted(TradeExecutedEvent event) {
+        if (event.price() == null) return;
+        record(Source.TRADES, event.price().doubleValue(),
+                event.executedAt() != null ? event.executedAt() : LocalDateTime.now());
+    }
+
+    /**
+     * A listing reached the market (PENDING to OPEN) or was re-priced while OPEN; its
+     * asking price counts once the save commits. Sales and title edits post nothing.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        ListingSnapshot listing = event.listing();
+        if (listing == null || listing.status() != Listing.ListingStatus.OPEN || listing.price() == null) return;
+        boolean reachedMarket = event.previousStatus() != Listing.ListingStatus.OPEN;
+        boolean repriced = event.previousPrice() != null && event.previousPrice().compareTo(listing.price()) != 0;
+        if (reachedMarket || repriced) {
+            record(Source.ASKS, listing.price().doubleValue(), LocalDateTime.now());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        LocalDateTime since = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(HOURS - 1);
+        List<Map<String, Object>> trades = transactionRepository.findPricesByStatusSince(
+                Transaction.TransactionStatus.COMPLETED, since);
+        List<Map<String, Object>> asks = listingRepository.findAskPricesSince(since,
+                List.of(Listing.ListingStatus.OPEN, Listing.ListingStatus.SOLD));
+        lock.lock();
+        try {
+            for (Map<String, Object> row : trades) {
+                BigDecimal amount = (BigDecimal) row.get("amount");
+                BigDecimal quantity = (BigDecimal) row.get("quantity");
+                if (amount == null || quantity == null || quantity.signum() <= 0) continue;
+                add(Source.TRADES, amount.doubleValue() / quantity.doubleValue(), (LocalDateTime) row.get("createdAt"));
+            }
+            for (Map<String, Object> row : asks) {
+                BigDecimal price = (BigDecimal) row.get("price");
+                if (price == null) continue;
+                add(Source.ASKS, price.doubleValue(), (LocalDateTime) row.get("createdAt"));
+            }
+        } finally {
+            lock.unlock();
+        }
+        log.info("Price distribution loaded {} trades and {} asks", trades.size(), asks.size());
+    }
+
+    // ==================== Queries ====================
+
+    /**
+     * Percentiles and suggested price band of a window: executed trades when there were
+     * any, otherwise posted asks. Empty (count 0) when neither has data.
+     */
+    public PriceBand getPriceBand(Window window) {
+        lock.lock();
+        try {
+            Source source = Source.TRADES;
+            QuantileSketch sketch = window(source, window);
+            if (sketch.isEmpty()) {
+                source = Source.ASKS;
+                sketch = window(source, window);
+            }
+            if (sketch.isEmpty()) {
+                return new PriceBand(window.name(), null, 0, null, null, null, null, null, null, null);
+            }
+            double p10 = sketch.quantile(0.10);
+            double p50 = sketch.quantile(0.50);
+            double p90 = sketch.quantile(0.90);
+            double suggested = Math.min(Math.max(p50 * SUGGESTED_MARKUP, p10), p90);
+            return new PriceBand(window.name(), source.name(), sketch.count(), sketch.min(), p10, p50, p90,
+                    sketch.max(), sketch.mean(), suggested);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private QuantileSketch window(Source source, Window window) {
+        // Windows slide every hour even when no prices arrive
+        long hour = hourOf(LocalDateTime.now());
+        if (hour != mergedAtHour) {
+            merged.values().forEach(Map::clear);
+            mergedAtHour = hour;
+        }
+        return merged.get(source).computeIfAbsent(window, w -> sketches.get(source).merge(w.hours(), k));
+    }
+
+    private void record(Source source, double price, LocalDateTime at) {
+        lock.lock();
+        try {
+            add(source, price, at);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(Source source, double price, LocalDateTime at) {
+        if (sketches.get(source).add(price, at, k)) {
+            merged.get(source).clear();
+        }
+    }
+
+    /**
+     * Ring of hourly sketches, indexed by hours since the epoch. A slot holding an older
+     * hour is reset before reuse, so the ring always covers the last {@code HOURS} hours.
+     */
+    private static final class HourlySketches {
+        private final QuantileSketch[] slots = new QuantileSketch[HOURS];
+        private final long[] slotHours = new long[HOURS];
+        private long newestHour = Long.MIN_VALUE;
+
+        /**
+         * False when {@code at} is older than the ring and the price was dropped.
+         */
+        private boolean add(double price, LocalDateTime at, int k) {
+            long hour = hourOf(at);
+            if (newestHour != Long.MIN_VALUE && hour <= newestHour - HOURS) {
+                return false;
+            }
+            newestHour = Math.max(newestHour, hour);
+            int slot = (int) Math.floorMod(hour, (long) HOURS);
+            if (slots[slot] == null || slotHours[slot] != hour) {
+                slots[slot] = new QuantileSketch(k);
+                slotHours[slot] = hour;
+            }
+            slots[slot].add(price);
+            return true;
+        }
+
+        // Merge of the last {@code hours} hours up to now
+        private QuantileSketch merge(int hours, int k) {
+            long now = hourOf(LocalDateTime.now());
+            QuantileSketch result = new QuantileSketch(k);
+            for (int i = 0; i < hours; i++) {
+                long hour = now - i;
+                int slot = (int) Math.floorMod(hour, (long) HOURS);
+                if (slots[slot] != null && slotHours[slot] == hour) {
+                    result.merge(slots[slot]);
+                }
+            }
+            return result;
+        }
+    }
+
+    private static long hourOf(LocalDateTime at) {
+        return at.toLocalDate().toEpochDay() * 24 + at.getHour();
+    }
+}
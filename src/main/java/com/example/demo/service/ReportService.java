@@ -4,8 +4,10 @@ import com.example.demo.entity.Report;
 import com.example.demo.entity.ReportStatus;
 import com.example.demo.entity.ReportType;
 import com.example.demo.dto.CreateReportRequest;
+import com.example.demo.dto.ReportStatusChangedEvent;
 import com.example.demo.dto.UpdateReportStatusRequest;
 import com.example.demo.repository.ReportRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,9 +17,11 @@ import java.time.LocalDateTime;
 @Service
 public class ReportService {
     private final ReportRepository repo;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ReportService(ReportRepository repo) {
+    public ReportService(ReportRepository repo, ApplicationEventPublisher eventPublisher) {
         this.repo = repo;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -26,7 +30,9 @@ public class ReportService {
         r.setType(req.type());
         r.setDescription(req.description());
         r.setDataPath(req.dataPath());
-        return repo.save(r);
+        Report saved = repo.save(r);
+        eventPublisher.publishEvent(new ReportStatusChangedEvent(saved.getId(), null, saved.getStatus()));
+        return saved;
     }
 
     public Page<Report> search(ReportType type, ReportStatus status, int page, int size) {
@@ -45,11 +51,14 @@ public class ReportService {
     @Transactional
     public Report updateStatus(Long id, UpdateReportStatusRequest req) {
         Report r = get(id);
+        ReportStatus previous = r.getStatus();
         r.setStatus(req.status());
         r.setResolutionNote(req.resolutionNote());
         if (req.status() == ReportStatus.RESOLVED || req.status() == ReportStatus.REJECTED) {
             r.setResolvedAt(LocalDateTime.now());
         }
-        return repo.save(r);
+        Report saved = repo.save(r);
+        eventPublisher.publishEvent(new ReportStatusChangedEvent(id, previous, saved.getStatus()));
+        return saved;
     }
 }
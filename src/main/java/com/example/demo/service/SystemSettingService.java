@@ -5,6 +5,7 @@ import com.example.demo.repository.SystemSettingRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +27,22 @@ public class SystemSettingService {
         return repository.findByKey(key);
     }
 
+    /**
+     * Numeric setting value, or {@code defaultValue} when the key is missing or not a number.
+     */
+    public BigDecimal getDecimal(String key, BigDecimal defaultValue) {
+        return repository.findByKey(key)
+                .map(SystemSetting::getValue)
+                .map(value -> {
+                    try {
+                        return new BigDecimal(value.trim());
+                    } catch (NumberFormatException ex) {
+                        return defaultValue;
+                    }
+                })
+                .orElse(defaultValue);
+    }
+
     public SystemSetting save(SystemSetting setting) {
         return repository.save(setting);
     }
@@ -1,32 +1,55 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.MarketOrderRequest;
+import com.example.demo.dto.ListingChangedEvent;
+import com.example.demo.dto.MarketOrderResponse;
 import com.example.demo.dto.TransactionRequest;
 import com.example.demo.dto.TransactionResponse;
+import com.example.demo.dto.TradeExecutedEvent;
+import com.example.demo.dto.TransactionStatusChangedEvent;
+import com.example.demo.entity.LedgerEntry;
 import com.example.demo.entity.Listing;
 import com.example.demo.entity.Transaction;
 import com.example.demo.entity.User;
 import com.example.demo.repository.ListingRepository;
 import com.example.demo.repository.TransactionRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TransactionService {
 
+    private static final Comparator<Transaction> NEWEST_FIRST = Comparator
+            .comparing(Transaction::getCreatedAt)
+            .thenComparing(Transaction::getId)
+            .reversed();
+
     private final TransactionRepository transactionRepository;
     private final ListingRepository listingRepository;
     private final UserRepository userRepository;
     private final WalletService walletService;
     private final CertificateService certificateService; // Chuẩn hóa tên biến
+    private final OrderBookService orderBookService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     @SuppressWarnings("null")
@@ -83,6 +106,8 @@ public class TransactionService {
         transaction.setStatus(Transaction.TransactionStatus.PENDING);
 
         Transaction savedTransaction = transactionRepository.save(transaction);
+        eventPublisher.publishEvent(new TransactionStatusChangedEvent(
+                savedTransaction.getId(), null, Transaction.TransactionStatus.PENDING));
 
         // 7. KHÔNG RESERVE LISTING. Listing vẫn để OPEN cho đến khi confirm.
         
@@ -107,17 +132,13 @@ public class TransactionService {
         }
 
         // 3. Thực hiện chuyển tiền carbon giữa buyer -> seller
-        // - Debit ví buyer
-        walletService.debit(
+        // Debit ví buyer, credit ví seller (một bút toán PURCHASE trong ledger)
+        walletService.transfer(
                 transaction.getBuyer().getId(),
-                transaction.getAmount(),
-                "Purchase of listing: " + transaction.getListing().getTitle()
-        );
-
-        // - Credit ví seller
-        walletService.credit(
                 transaction.getSeller().getId(),
                 transaction.getAmount(),
+                LedgerEntry.EntryType.PURCHASE,
+                "Purchase of listing: " + transaction.getListing().getTitle(),
                 "Sale of listing: " + transaction.getListing().getTitle()
         );
         
@@ -138,6 +159,7 @@ public class TransactionService {
 
         // 4. Cập nhật số lượng còn lại của Listing
         Listing listing = transaction.getListing();
+        Listing.ListingStatus previousStatus = listing.getStatus();
         BigDecimal remainingQuantity = listing.getCarbonAmount().subtract(purchasedQuantity);
         
         listing.setCarbonAmount(remainingQuantity);
@@ -151,16 +173,119 @@ public class TransactionService {
         
         // Nếu còn lại > 0, Listing vẫn giữ trạng thái OPEN
         listingRepository.save(listing);
+        eventPublisher.publishEvent(ListingChangedEvent.updated(previousStatus, listing.getPrice(), listing));
 
         // 6. Mark transaction as COMPLETED
         transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
         Transaction savedTransaction = transactionRepository.save(transaction);
+        eventPublisher.publishEvent(new TransactionStatusChangedEvent(
+                transactionId, Transaction.TransactionStatus.PENDING, Transaction.TransactionStatus.COMPLETED));
+        if (purchasedQuantity.signum() > 0) {
+            // Giá khớp thực tế = tổng tiền / số lượng
+            eventPublisher.publishEvent(new TradeExecutedEvent(transactionId, listing.getId(),
+                    savedTransaction.getAmount().divide(purchasedQuantity, 4, RoundingMode.HALF_UP),
+                    purchasedQuantity, LocalDateTime.now()));
+        }
 
         log.info("Transaction confirmed and completed with ID: {}", transactionId);
 
         return TransactionResponse.fromTransaction(savedTransaction);
     }
 
+    /**
+     * Execute a MARKET (no limit price) or LIMIT buy order against the order book.
+     * The order sweeps OPEN listings in price-time priority and every matched slice is
+     * settled immediately as a COMPLETED transaction. All fills commit or roll back together;
+     * any quantity that cannot be matched is left unfilled (immediate-or-cancel).
+     */
+    @Transactional
+    @SuppressWarnings("null")
+    public MarketOrderResponse executeMarketOrder(MarketOrderRequest request) {
+        log.info("Executing market order for buyer ID: {} quantity: {} limit: {}",
+                request.getBuyerId(), request.getQuantity(), request.getLimitPrice());
+
+        User buyer = userRepository.findById(request.getBuyerId())
+                .orElseThrow(() ->
+                        new RuntimeException("Buyer not found with ID: " + request.getBuyerId()));
+
+        List<OrderBookService.Fill> fills =
+                orderBookService.reserve(buyer.getId(), request.getQuantity(), request.getLimitPrice());
+        if (fills.isEmpty()) {
+            throw new RuntimeException("No open listings match the order");
+        }
+
+        BigDecimal filledQuantity = BigDecimal.ZERO;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (OrderBookService.Fill fill : fills) {
+            filledQuantity = filledQuantity.add(fill.quantity());
+            totalAmount = totalAmount.add(fill.price().multiply(fill.quantity()));
+        }
+
+        BigDecimal buyerBalance = walletService.getBalance(buyer.getId());
+        if (buyerBalance.compareTo(totalAmount) < 0) {
+            throw new RuntimeException("Insufficient balance for purchase. Needed: " + totalAmount);
+        }
+
+        List<TransactionResponse> responses = new ArrayList<>();
+        for (OrderBookService.Fill fill : fills) {
+            int updated = listingRepository.decrementCarbonAmount(
+                    fill.listingId(), fill.quantity(), Listing.ListingStatus.OPEN);
+            if (updated == 0) {
+                throw new RuntimeException("Listing " + fill.listingId() + " no longer has enough quantity");
+            }
+            if (listingRepository.markSoldIfDepleted(fill.listingId(), Listing.ListingStatus.SOLD) > 0) {
+                log.info("Listing {} is now SOLD out.", fill.listingId());
+            }
+            // The bulk updates bypassed the entity, so the event carries the row as it now stands
+            listingRepository.findSnapshotById(fill.listingId()).ifPresent(snapshot -> eventPublisher.publishEvent(
+                    new ListingChangedEvent(fill.listingId(), Listing.ListingStatus.OPEN, fill.price(), snapshot)));
+
+            Listing listing = listingRepository.getReferenceById(fill.listingId());
+            User seller = userRepository.getReferenceById(fill.sellerId());
+            BigDecimal amount = fill.price().multiply(fill.quantity());
+
+            walletService.transfer(buyer.getId(), seller.getId(), amount, LedgerEntry.EntryType.PURCHASE,
+                    "Purchase of listing: " + listing.getTitle(),
+                    "Sale of listing: " + listing.getTitle());
+
+            certificateService.createCertificate(
+                    buyer.getId(),
+                    fill.quantity().doubleValue(),
+                    null,
+                    null,
+                    null,
+                    null,
+                    null
+            );
+
+            Transaction transaction = new Transaction();
+            transaction.setBuyer(buyer);
+            transaction.setSeller(seller);
+            transaction.setListing(listing);
+            transaction.setAmount(amount);
+            transaction.setCarbonQuantity(fill.quantity());
+            transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+            Transaction saved = transactionRepository.save(transaction);
+            eventPublisher.publishEvent(new TransactionStatusChangedEvent(
+                    saved.getId(), null, Transaction.TransactionStatus.COMPLETED));
+            eventPublisher.publishEvent(new TradeExecutedEvent(
+                    saved.getId(), fill.listingId(), fill.price(), fill.quantity(), LocalDateTime.now()));
+            responses.add(TransactionResponse.fromTransaction(saved));
+        }
+
+        log.info("Market order filled {} of {} across {} listings", filledQuantity, request.getQuantity(), fills.size());
+
+        MarketOrderResponse response = new MarketOrderResponse();
+        response.setBuyerId(buyer.getId());
+        response.setRequestedQuantity(request.getQuantity());
+        response.setFilledQuantity(filledQuantity);
+        response.setUnfilledQuantity(request.getQuantity().subtract(filledQuantity));
+        response.setTotalAmount(totalAmount);
+        response.setAveragePrice(totalAmount.divide(filledQuantity, 4, RoundingMode.HALF_UP));
+        response.setFills(responses);
+        return response;
+    }
+
     @Transactional
     @SuppressWarnings("null")
     public TransactionResponse cancelTransaction(Long transactionId) {
@@ -179,6 +304,8 @@ public class TransactionService {
         // 3. Mark transaction as CANCELLED
         transaction.setStatus(Transaction.TransactionStatus.CANCELLED);
         Transaction savedTransaction = transactionRepository.save(transaction);
+        eventPublisher.publishEvent(new TransactionStatusChangedEvent(
+                transactionId, Transaction.TransactionStatus.PENDING, Transaction.TransactionStatus.CANCELLED));
 
         // 4. Không cần thay đổi trạng thái Listing vì Listing không bị RESERVED
         
@@ -188,38 +315,46 @@ public class TransactionService {
     }
     
     // Các phương thức truy vấn (getTransactionsByUserId, getTransactionsByBuyer, v.v.)
-    // (Giữ nguyên)
-    public List<TransactionResponse> getTransactionsByUserId(Long userId) {
+    // Phân trang keyset theo (created_at, id), mới nhất trước
+    public CursorPage<TransactionResponse> getTransactionsByUserId(Long userId, String cursor, int size) {
         log.info("Fetching transactions for user ID: {}", userId);
-
-        List<Transaction> transactions =
-                transactionRepository.findByUserIdOrderByCreatedAtDesc(userId);
-
-        return transactions.stream()
-                .map(TransactionResponse::fromTransaction)
-                .collect(Collectors.toList());
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int limit = CursorPage.clampSize(size);
+
+        // Two index range scans (buyer side, seller side) merged here instead of one OR scan
+        List<Transaction> bought = transactionRepository.findPageByBuyerBefore(
+                userId, after.createdAt(), after.id(), CursorPage.fetchLimit(limit));
+        List<Transaction> sold = transactionRepository.findPageBySellerBefore(
+                userId, after.createdAt(), after.id(), CursorPage.fetchLimit(limit));
+        Map<Long, Transaction> merged = new LinkedHashMap<>();
+        Stream.concat(bought.stream(), sold.stream())
+                .sorted(NEWEST_FIRST)
+                .forEach(t -> merged.putIfAbsent(t.getId(), t));
+        List<Transaction> rows = merged.values().stream().limit(limit + 1L).collect(Collectors.toList());
+
+        return CursorPage.of(rows, limit, TransactionService::cursorOf, TransactionResponse::fromTransaction);
     }
 
-    public List<TransactionResponse> getTransactionsByBuyer(Long buyerId) {
+    public CursorPage<TransactionResponse> getTransactionsByBuyer(Long buyerId, String cursor, int size) {
         log.info("Fetching transactions for buyer ID: {}", buyerId);
-
-        List<Transaction> transactions =
-                transactionRepository.findByBuyerIdOrderByCreatedAtDesc(buyerId);
-
-        return transactions.stream()
-                .map(TransactionResponse::fromTransaction)
-                .collect(Collectors.toList());
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int limit = CursorPage.clampSize(size);
+        List<Transaction> rows = transactionRepository.findPageByBuyerBefore(
+                buyerId, after.createdAt(), after.id(), CursorPage.fetchLimit(limit));
+        return CursorPage.of(rows, limit, TransactionService::cursorOf, TransactionResponse::fromTransaction);
     }
 
-    public List<TransactionResponse> getTransactionsBySeller(Long sellerId) {
+    public CursorPage<TransactionResponse> getTransactionsBySeller(Long sellerId, String cursor, int size) {
         log.info("Fetching transactions for seller ID: {}", sellerId);
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int limit = CursorPage.clampSize(size);
+        List<Transaction> rows = transactionRepository.findPageBySellerBefore(
+                sellerId, after.createdAt(), after.id(), CursorPage.fetchLimit(limit));
+        return CursorPage.of(rows, limit, TransactionService::cursorOf, TransactionResponse::fromTransaction);
+    }
 
-        List<Transaction> transactions =
-                transactionRepository.findBySellerIdOrderByCreatedAtDesc(sellerId);
-
-        return transactions.stream()
-                .map(TransactionResponse::fromTransaction)
-                .collect(Collectors.toList());
+    private static KeysetCursor cursorOf(Transaction transaction) {
+        return new KeysetCursor(transaction.getCreatedAt(), transaction.getId());
     }
 
     @SuppressWarnings("null")
@@ -0,0 +1,302 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.demo.dto.DocumentAnalysis;
+import com.example.demo.dto.UploadJobStatus;
+import com.example.demo.dto.UploadResponse;
+import com.example.demo.entity.UploadRecord;
+import com.example.demo.util.ContentHash;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Upload estimate pipeline (content hash, Tika parse, CO2 estimate, record and credit
+ * issuance), run inline for {@code /estimate} or off the servlet thread for queued jobs.
+ * Both paths take a slot from one semaphore of {@code worker-threads + queue-capacity}
+ * permits, checked before any parsing or spooling, so a burst of large files is refused
+ * with 429 instead of piling up on request threads. Finished jobs are kept for polling
+ * until the retention period expires.
+ */
+@Service
+@Slf4j
+public class UploadJobService {
+
+    public enum Status { QUEUED, PROCESSING, COMPLETED, REJECTED, DUPLICATE, FAILED }
+
+    /**
+     * Result of the estimate pipeline; DUPLICATE carries the cached estimate of the earlier
+     * upload when the caller made it, and a bare notice otherwise.
+     */
+    public record Outcome(Status status, UploadResponse response, long parseMillis, long persistMillis) {
+    }
+
+    private final FileUploadService fileUploadService;
+    private final UploadRecordService uploadRecordService;
+    private final int workerThreads;
+    private final int queueCapacity;
+    private final Duration retention;
+
+    private final ThreadPoolExecutor workers;
+    private final Semaphore slots;
+    private final Map<String, UploadJob> jobs = new ConcurrentHashMap<>();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalQueueMillis = new LongAdder();
+    private final LongAdder totalParseMillis = new LongAdder();
+    private final LongAdder totalPersistMillis = new LongAdder();
+    private final AtomicLong maxQueueMillis = new AtomicLong();
+    private final AtomicLong maxProcessMillis = new AtomicLong();
+
+    public UploadJobService(
+            FileUploadService fileUploadService,
+            UploadRecordService uploadRecordService,
+            @Value("${uploads.jobs.worker-threads:2}") int workerThreads,
+            @Value("${uploads.jobs.queue-capacity:20}") int queueCapacity,
+            @Value("${uploads.jobs.retention-minutes:30}") long retentionMinutes) {
+        this.fileUploadService = fileUploadService;
+        this.uploadRecordService = uploadRecordService;
+        this.workerThreads = workerThreads;
+        this.queueCapacity = queueCapacity;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.slots = new Semaphore(workerThreads + queueCapacity);
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("upload-job-");
+        threads.setDaemon(true);
+        // The semaphore bounds the backlog, so the executor queue itself never rejects
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threads);
+    }
+
+    /**
+     * Spool the upload to a temp file and queue it. Empty when the queue is full.
+     */
+    public Optional<UploadJobStatus> submit(Long userId, MultipartFile file) throws IOException {
+        if (!slots.tryAcquire()) {
+            refused.increment();
+            log.warn("Upload queue full, refusing {} from user {}", file.getOriginalFilename(), userId);
+            return Optional.empty();
+        }
+        Path spool = null;
+        try {
+            // The multipart part is deleted when the request ends, so keep our own copy
+            spool = Files.createTempFile("upload-job-", ".bin");
+            file.transferTo(spool);
+
+            UploadJob job = new UploadJob(UUID.randomUUID().toString(), userId, file.getOriginalFilename(), spool);
+            jobs.put(job.id, job);
+            workers.execute(() -> run(job));
+            submitted.increment();
+            return Optional.of(job.toStatus());
+        } catch (IOException | RuntimeException ex) {
+            slots.release();
+            deleteQuietly(spool);
+            if (ex instanceof RejectedExecutionException) {
+                refused.increment();
+                return Optional.empty();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Run the pipeline on the caller's thread while holding an admission slot, so inline
+     * estimates count against the same limit as queued jobs. Empty when no slot is free.
+     */
+    public Optional<Outcome> processInline(Long userId, MultipartFile file) throws IOException {
+        if (!slots.tryAcquire()) {
+            refused.increment();
+            log.warn("Upload queue full, refusing inline estimate of {} from user {}", file.getOriginalFilename(), userId);
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(process(userId, file.getOriginalFilename(), file));
+        } finally {
+            slots.release();
+        }
+    }
+
+    public Optional<UploadJobStatus> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(UploadJob::toStatus);
+    }
+
+    /**
+     * Pool occupancy, outcome counts and average/max stage timings for sizing the pool.
+     */
+    public Map<String, Object> getMetrics() {
+        long finished = completed.sum() + failed.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("workerThreads", workerThreads);
+        metrics.put("queueCapacity", queueCapacity);
+        metrics.put("activeWorkers", workers.getActiveCount());
+        metrics.put("queued", workers.getQueue().size());
+        metrics.put("availableSlots", slots.availablePermits());
+        metrics.put("submitted", submitted.sum());
+        metrics.put("refused", refused.sum());
+        metrics.put("completed", completed.sum());
+        metrics.put("failed", failed.sum());
+        metrics.put("avgQueueMillis", average(totalQueueMillis, finished));
+        metrics.put("avgParseMillis", average(totalParseMillis, finished));
+        metrics.put("avgPersistMillis", average(totalPersistMillis, finished));
+        metrics.put("maxQueueMillis", maxQueueMillis.get());
+        metrics.put("maxProcessMillis", maxProcessMillis.get());
+        return metrics;
+    }
+
+    @Scheduled(fixedDelayString = "${uploads.jobs.purge-interval-ms:60000}")
+    public void purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Hash the contents, answer repeats from the content-hash index without parsing, and
+     * otherwise parse once, record the upload and issue its credits. Shared by the
+     * synchronous endpoint and the background workers.
+     */
+    public Outcome process(Long userId, String filename, InputStreamSource source) throws IOException {
+        long started = System.currentTimeMillis();
+        String contentSha256;
+        try (InputStream in = source.getInputStream()) {
+            contentSha256 = ContentHash.sha256(in);
+        }
+        Optional<UploadRecord> existing = uploadRecordService.findByContentHash(contentSha256);
+        if (existing.isPresent()) {
+            log.info("Duplicate upload {} from user {} matches upload #{}", filename, userId, existing.get().getId());
+            return new Outcome(Status.DUPLICATE, uploadRecordService.duplicateResponse(existing.get(), userId),
+                    System.currentTimeMillis() - started, 0L);
+        }
+
+        DocumentAnalysis analysis;
+        try (InputStream in = source.getInputStream()) {
+            analysis = fileUploadService.analyze(in);
+        }
+        long parsed = System.currentTimeMillis();
+        if (!analysis.hasRequiredSections()) {
+            return new Outcome(Status.REJECTED, UploadResponse.missingSections(analysis.text()), parsed - started, 0L);
+        }
+
+        try {
+            UploadResponse response = uploadRecordService.recordEstimate(userId, filename, contentSha256, analysis);
+            return new Outcome(Status.COMPLETED, response, parsed - started, System.currentTimeMillis() - parsed);
+        } catch (DataIntegrityViolationException ex) {
+            // A concurrent upload of the same contents committed first
+            UploadRecord winner = uploadRecordService.findByContentHash(contentSha256).orElseThrow(() -> ex);
+            return new Outcome(Status.DUPLICATE, uploadRecordService.duplicateResponse(winner, userId),
+                    parsed - started, System.currentTimeMillis() - parsed);
+        }
+    }
+
+    private void run(UploadJob job) {
+        long started = System.currentTimeMillis();
+        job.queueMillis = started - job.submittedAt.toEpochMilli();
+        job.status = Status.PROCESSING;
+        try {
+            Outcome outcome = process(job.userId, job.filename, new FileSystemResource(job.spool));
+            job.parseMillis = outcome.parseMillis();
+            job.persistMillis = outcome.persistMillis();
+            job.result = outcome.response();
+            job.status = outcome.status();
+            completed.increment();
+        } catch (Exception ex) {
+            log.error("Upload job {} failed", job.id, ex);
+            job.error = ex.getMessage();
+            job.status = Status.FAILED;
+            failed.increment();
+        } finally {
+            job.finishedAt = Instant.now();
+            record(job, job.finishedAt.toEpochMilli() - started);
+            deleteQuietly(job.spool);
+            slots.release();
+        }
+        log.info("Upload job {} {} in {} ms (queued {} ms)", job.id, job.status,
+                job.finishedAt.toEpochMilli() - started, job.queueMillis);
+    }
+
+    private void record(UploadJob job, long processMillis) {
+        totalQueueMillis.add(job.queueMillis);
+        totalParseMillis.add(job.parseMillis != null ? job.parseMillis : 0L);
+        totalPersistMillis.add(job.persistMillis != null ? job.persistMillis : 0L);
+        maxQueueMillis.accumulateAndGet(job.queueMillis, Math::max);
+        maxProcessMillis.accumulateAndGet(processMillis, Math::max);
+    }
+
+    private static long average(LongAdder total, long count) {
+        return count == 0 ? 0L : total.sum() / count;
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Could not delete upload spool file {}", path);
+        }
+    }
+
+    private static final class UploadJob {
+        private final String id;
+        private final Long userId;
+        private final String filename;
+        private final Path spool;
+        private final Instant submittedAt = Instant.now();
+
+        private volatile Status status = Status.QUEUED;
+        private volatile long queueMillis;
+        private volatile Long parseMillis;
+        private volatile Long persistMillis;
+        private volatile Instant finishedAt;
+        private volatile UploadResponse result;
+        private volatile String error;
+
+        private UploadJob(String id, Long userId, String filename, Path spool) {
+            this.id = id;
+            this.userId = userId;
+            this.filename = filename;
+            this.spool = spool;
+        }
+
+        private UploadJobStatus toStatus() {
+            Status current = status;
+            Long queued = current == Status.QUEUED ? null : queueMillis;
+            return new UploadJobStatus(id, userId, filename, current.name(), submittedAt, finishedAt,
+                    queued, parseMillis, persistMillis, result, error);
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.demo.service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Optional;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.dto.Co2Figures;
+import com.example.demo.dto.DocumentAnalysis;
+import com.example.demo.dto.UploadResponse;
 import com.example.demo.entity.UploadRecord;
 import com.example.demo.repository.UploadRecordRepository;
 
@@ -17,6 +22,8 @@ import lombok.extern.slf4j.Slf4j;
 public class UploadRecordService {
 
     private final UploadRecordRepository uploadRecordRepository;
+    private final CarbonCreditService carbonCreditService;
+    private final CarbonWalletService carbonWalletService;
 
     @Transactional
     public UploadRecord saveUpload(Long ownerId, String filename, String extractedText, BigDecimal estimatedCo2Kg, BigDecimal creditsTons) {
@@ -30,4 +37,73 @@ public class UploadRecordService {
         log.info("Saved upload record id={} owner={} file={} credits(t)={}", saved.getId(), ownerId, filename, saved.getCreditsTons());
         return saved;
     }
+
+    /**
+     * Earlier upload of the same file contents, if any.
+     */
+    @Transactional(readOnly = true)
+    public Optional<UploadRecord> findByContentHash(String contentSha256) {
+        return uploadRecordRepository.findByContentSha256(contentSha256);
+    }
+
+    /**
+     * Answer for a file whose contents were already uploaded; no credits are issued again.
+     * The dedup is global, but only the original uploader gets the cached estimate and
+     * extracted text back; anyone else learns only that the file was already submitted.
+     */
+    public UploadResponse duplicateResponse(UploadRecord existing, Long callerId) {
+        BigDecimal noCredits = BigDecimal.ZERO.setScale(4, RoundingMode.HALF_UP);
+        if (callerId == null || !callerId.equals(existing.getOwnerId())) {
+            return new UploadResponse(BigDecimal.ZERO, noCredits,
+                    "File này đã được gửi trước đó, không cấp thêm tín chỉ.", null);
+        }
+        return new UploadResponse(existing.getEstimatedCo2Kg(), noCredits,
+                "File này đã được tải lên trước đó (upload #" + existing.getId() + "), không cấp thêm tín chỉ.",
+                existing.getExtractedText());
+    }
+
+    /**
+     * Persist an analysed upload and issue its credits: the upload record, the
+     * CarbonCredit row and the carbon wallet credit are written in one transaction.
+     * The record is flushed first, so a concurrent upload of the same contents fails on
+     * the unique content hash (DataIntegrityViolationException) before any credit is issued.
+     */
+    @Transactional
+    public UploadResponse recordEstimate(Long userId, String filename, String contentSha256, DocumentAnalysis analysis) {
+        BigDecimal co2Kg = analysis.co2Kg() != null ? analysis.co2Kg() : BigDecimal.ZERO;
+
+        // convert kg -> tons (1 ton = 1000 kg), keep 4 decimals
+        BigDecimal creditsTons = co2Kg.divide(BigDecimal.valueOf(1000), 4, RoundingMode.HALF_UP);
+
+        // save upload record; it is the content-hash index, so credits depend on it
+        UploadRecord ur = new UploadRecord();
+        ur.setOwnerId(userId);
+        ur.setFilename(filename);
+        ur.setContentSha256(contentSha256);
+        ur.setExtractedText(analysis.text());
+        ur.setExtractedChars(analysis.extractedChars());
+        ur.setTextTruncated(analysis.truncated());
+        ur.setEstimatedCo2Kg(co2Kg);
+        ur.setCreditsTons(creditsTons);
+        Co2Figures figures = analysis.figures();
+        if (figures != null) {
+            ur.setExplicitCo2Kg(figures.explicitCo2Kg());
+            ur.setEnergyKwh(figures.energyKwh());
+            ur.setDistanceKm(figures.distanceKm());
+            ur.setFuelLiters(figures.fuelLiters());
+        }
+        UploadRecord saved = uploadRecordRepository.saveAndFlush(ur);
+        log.info("Saved upload record id={} owner={} file={} credits(t)={}", saved.getId(), userId, filename, saved.getCreditsTons());
+
+        // create CarbonCredit record and credit to user's carbon wallet (credits in tons)
+        if (creditsTons.compareTo(BigDecimal.ZERO) > 0) {
+            // create CarbonCredit record (CarbonCredit.amount is Double)
+            carbonCreditService.issueCredit(userId, creditsTons.doubleValue(), "Uploaded file: " + filename);
+
+            // add to carbon wallet (wallet uses BigDecimal tons)
+            carbonWalletService.credit(userId, creditsTons, "Uploaded file: " + filename);
+        }
+
+        return new UploadResponse(co2Kg, creditsTons, "OK", analysis.text(), analysis.findings());
+    }
 }
@@ -4,6 +4,7 @@ import com.example.demo.entity.Role;
 import com.example.demo.entity.User;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.repository.RoleRepository;
+import com.example.demo.security.PrincipalCache;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,10 +14,12 @@ import java.util.List;
 public class UserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final PrincipalCache principalCache;
 
-    public UserService(UserRepository userRepository, RoleRepository roleRepository) {
+    public UserService(UserRepository userRepository, RoleRepository roleRepository, PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
+        this.principalCache = principalCache;
     }
 
     // Lấy tất cả user
@@ -27,6 +30,7 @@ public class UserService {
     @Transactional
     public void blockUser(Long id) {
         userRepository.deleteById(id);
+        principalCache.invalidate(id);
     }
 
     @Transactional
@@ -40,6 +44,8 @@ public class UserService {
         // Gán thêm role CVA cho user
         user.getRoles().add(cvaRole);
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        principalCache.invalidate(id);
+        return saved;
     }
 }
@@ -27,15 +27,18 @@ public class VnPayService {
     private final VnPayConfig vnPayConfig;
     private final WalletRepository walletRepository;
     private final WalletTransactionRepository walletTransactionRepository;
+    private final WalletService walletService;
     private AdminNotificationService adminNotificationService;
 
     public VnPayService(
             VnPayConfig vnPayConfig,
             WalletRepository walletRepository,
-            WalletTransactionRepository walletTransactionRepository) {
+            WalletTransactionRepository walletTransactionRepository,
+            WalletService walletService) {
         this.vnPayConfig = vnPayConfig;
         this.walletRepository = walletRepository;
         this.walletTransactionRepository = walletTransactionRepository;
+        this.walletService = walletService;
     }
 
     // Optional: inject notification service to avoid circular dependency
@@ -277,15 +280,12 @@ public class VnPayService {
             transaction.setDescription(transaction.getDescription() + " - Thanh toán thành công qua VNPay");
             walletTransactionRepository.save(transaction);
 
-            // Cộng tiền vào ví
+            // Cộng tiền vào ví (atomic delta + bút toán TOPUP, giao dịch TOPUP_VNPAY đã được ghi nhận)
             Wallet wallet = transaction.getWallet();
-            BigDecimal oldBalance = wallet.getBalance();
-            wallet.setBalance(oldBalance.add(transaction.getAmount()));
-            walletRepository.save(wallet);
+            walletService.settleTopup(transaction);
 
-            log.info("✅ Successfully processed VNPay topup for transaction {}: amount {} VND. " +
-                    "Wallet balance: {} -> {}", 
-                    vnpTxnRef, transaction.getAmount(), oldBalance, wallet.getBalance());
+            log.info("✅ Successfully processed VNPay topup for transaction {}: amount {} VND credited to wallet {}", 
+                    vnpTxnRef, transaction.getAmount(), wallet.getId());
             
             // Notify admin about successful topup (if notification service is available)
             if (adminNotificationService != null) {
@@ -1,10 +1,13 @@
 package com.example.demo.service;
 
 import com.example.demo.dto.WalletBalanceResponse;
+import com.example.demo.entity.LedgerEntry;
 import com.example.demo.entity.User;
 import com.example.demo.entity.Wallet;
+import com.example.demo.entity.WalletTransaction;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.repository.WalletRepository;
+import com.example.demo.repository.WalletTransactionRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,6 +23,8 @@ public class WalletService {
 
     private final UserRepository userRepository;
     private final WalletRepository walletRepository;
+    private final WalletTransactionRepository walletTransactionRepository;
+    private final LedgerService ledgerService;
 
     @Transactional
     public WalletBalanceResponse getWalletDetails(Long userId) {
@@ -29,43 +34,117 @@ public class WalletService {
 
     @Transactional
     public BigDecimal getBalance(Long userId) {
-        return loadOrCreateWallet(userId).getBalance();
+        return walletRepository.findBalanceByUserId(userId)
+                .orElseGet(() -> loadOrCreateWallet(userId).getBalance());
     }
 
+    /**
+     * Balance mutations are single conditional UPDATE statements, so concurrent
+     * purchases against the same wallet never lose updates and need no row lock
+     * held across the business logic. Every movement is recorded as a WalletTransaction
+     * and journaled in the double-entry ledger against a platform counter-account.
+     */
     @Transactional
     public void credit(Long userId, BigDecimal amount, String description) {
+        credit(userId, amount, description, LedgerEntry.EntryType.DEPOSIT);
+    }
+
+    @Transactional
+    public void credit(Long userId, BigDecimal amount, String description, LedgerEntry.EntryType entryType) {
+        applyCredit(userId, amount, description);
+        ledgerService.post(entryType, LedgerEntry.Asset.MONEY,
+                LedgerService.systemAccountFor(entryType), LedgerService.userAccount(userId),
+                amount, null, description);
+    }
+
+    @Transactional
+    public void debit(Long userId, BigDecimal amount, String description) {
+        debit(userId, amount, description, LedgerEntry.EntryType.WITHDRAWAL);
+    }
+
+    @Transactional
+    public void debit(Long userId, BigDecimal amount, String description, LedgerEntry.EntryType entryType) {
+        applyDebit(userId, amount, description);
+        ledgerService.post(entryType, LedgerEntry.Asset.MONEY,
+                LedgerService.userAccount(userId), LedgerService.systemAccountFor(entryType),
+                amount, null, description);
+    }
+
+    /**
+     * Move money between two users as a single ledger entry (buyer DEBIT, seller CREDIT).
+     */
+    @Transactional
+    public void transfer(Long fromUserId, Long toUserId, BigDecimal amount, LedgerEntry.EntryType entryType,
+                         String debitDescription, String creditDescription) {
+        applyDebit(fromUserId, amount, debitDescription);
+        applyCredit(toUserId, amount, creditDescription);
+        ledgerService.post(entryType, LedgerEntry.Asset.MONEY,
+                LedgerService.userAccount(fromUserId), LedgerService.userAccount(toUserId),
+                amount, null, debitDescription);
+    }
+
+    @Transactional
+    public void transferCredits(Long fromUserId, Long toUserId, BigDecimal amount) {
+        transfer(fromUserId, toUserId, amount, LedgerEntry.EntryType.TRANSFER,
+                "Transfer to user ID " + toUserId,
+                "Transfer from user ID " + fromUserId);
+    }
+
+    /**
+     * Credit a top-up whose WalletTransaction (TOPUP_VNPAY) already exists, e.g. on VNPay IPN
+     * or manual admin approval.
+     */
+    @Transactional
+    public void settleTopup(WalletTransaction topup) {
+        Wallet wallet = topup.getWallet();
+        walletRepository.creditBalance(wallet.getId(), topup.getAmount());
+        ledgerService.post(LedgerEntry.EntryType.TOPUP, LedgerEntry.Asset.MONEY,
+                LedgerService.SYSTEM_VNPAY, LedgerService.userAccount(wallet.getUser().getId()),
+                topup.getAmount(), topup.getExternalRef(), topup.getDescription());
+
+        log.info("Wallet topup settled: wallet={}, amount={}, ref={}", wallet.getId(), topup.getAmount(), topup.getExternalRef());
+    }
+
+    private void applyCredit(Long userId, BigDecimal amount, String description) {
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Amount must be greater than zero");
         }
 
-        Wallet wallet = loadOrCreateWallet(userId);
-        wallet.setBalance(wallet.getBalance().add(amount));
-        walletRepository.save(wallet);
+        Long walletId = resolveWalletId(userId);
+        walletRepository.creditBalance(walletId, amount);
+        recordMovement(walletId, WalletTransaction.TransactionType.CREDIT, amount, description);
 
         log.info("Wallet credited: user={}, amount={}, description={}", userId, amount, description);
     }
 
-    @Transactional
-    public void debit(Long userId, BigDecimal amount, String description) {
+    private void applyDebit(Long userId, BigDecimal amount, String description) {
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Amount must be greater than zero");
         }
 
-        Wallet wallet = loadOrCreateWallet(userId);
-        if (wallet.getBalance().compareTo(amount) < 0) {
+        Long walletId = resolveWalletId(userId);
+        if (walletRepository.debitBalance(walletId, amount) == 0) {
             throw new IllegalStateException("Insufficient balance to complete the transaction");
         }
-
-        wallet.setBalance(wallet.getBalance().subtract(amount));
-        walletRepository.save(wallet);
+        recordMovement(walletId, WalletTransaction.TransactionType.DEBIT, amount, description);
 
         log.info("Wallet debited: user={}, amount={}, description={}", userId, amount, description);
     }
 
-    @Transactional
-    public void transferCredits(Long fromUserId, Long toUserId, BigDecimal amount) {
-        debit(fromUserId, amount, "Transfer to user ID " + toUserId);
-        credit(toUserId, amount, "Transfer from user ID " + fromUserId);
+    private Long resolveWalletId(Long userId) {
+        return walletRepository.findIdByUserId(userId)
+                .orElseGet(() -> loadOrCreateWallet(userId).getId());
+    }
+
+    private void recordMovement(Long walletId, WalletTransaction.TransactionType type, BigDecimal amount, String description) {
+        WalletTransaction movement = new WalletTransaction();
+        movement.setWallet(walletRepository.getReferenceById(walletId));
+        movement.setType(type);
+        movement.setAmount(amount);
+        movement.setStatus(WalletTransaction.TransactionStatus.SUCCESS);
+        // description column is VARCHAR(255)
+        movement.setDescription(description != null && description.length() > 255 ? description.substring(0, 255) : description);
+        walletTransactionRepository.save(movement);
     }
 
     private Wallet loadOrCreateWallet(Long userId) {
@@ -0,0 +1,49 @@
+package com.example.demo.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Content-addressed object store for uploaded evidence files. Objects are keyed by the
+ * SHA-256 of their bytes, so storing the same file twice keeps one copy. The operations
+ * mirror an S3-style API (put, head, ranged get, delete), so a remote implementation can
+ * replace {@link LocalFileSystemBlobStore} without touching callers.
+ */
+public interface BlobStore {
+
+    /**
+     * Store the stream's content; returns its key (the lowercase hex SHA-256).
+     * The stream is read to the end but not closed.
+     */
+    StoredBlob put(InputStream content) throws IOException;
+
+    Optional<BlobInfo> stat(String key) throws IOException;
+
+    /**
+     * Write {@code length} bytes starting at {@code offset} to the target channel.
+     * Returns the number of bytes written.
+     */
+    long copyRange(String key, long offset, long length, WritableByteChannel target) throws IOException;
+
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Local file backing the object, when there is one; lets the web layer hand the file to
+     * the container's sendfile support. Remote stores return empty.
+     */
+    default Optional<Path> localFile(String key) {
+        return Optional.empty();
+    }
+
+    /**
+     * @param created false when identical content was already stored
+     */
+    record StoredBlob(String key, long size, boolean created) {
+    }
+
+    record BlobInfo(String key, long size, long lastModified) {
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.util.ContentHash;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link BlobStore} on the local filesystem. Objects live under
+ * {@code <root>/<k[0..2]>/<k[2..4]>/<key>} so no directory grows too large. Writes go to
+ * a temp file through {@link FileChannel#transferFrom} while the content is hashed, then
+ * are renamed into place; reads use {@link FileChannel#transferTo}, so file bytes are
+ * never copied through heap buffers by this code.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.type", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class LocalFileSystemBlobStore implements BlobStore {
+
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}");
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+    private final Path root;
+    private final Path staging;
+
+    public LocalFileSystemBlobStore(@Value("${storage.local.root:/tmp/uploads/blobs}") String root) throws IOException {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.staging = this.root.resolve("tmp");
+        Files.createDirectories(staging);
+    }
+
+    @Override
+    public StoredBlob put(InputStream content) throws IOException {
+        MessageDigest digest = ContentHash.newDigest();
+        Path temp = Files.createTempFile(staging, "put-", ".part");
+        try {
+            long size;
+            try (ReadableByteChannel source = Channels.newChannel(new DigestInputStream(content, digest));
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                size = 0;
+                long transferred;
+                while ((transferred = out.transferFrom(source, size, TRANSFER_CHUNK)) > 0) {
+                    size += transferred;
+                }
+                out.force(false);
+            }
+
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path target = pathOf(key);
+            if (Files.exists(target)) {
+                return new StoredBlob(key, size, false);
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException raced) {
+                return new StoredBlob(key, size, false);
+            }
+            log.debug("Stored blob {} ({} bytes)", key, size);
+            return new StoredBlob(key, size, true);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Optional<BlobInfo> stat(String key) throws IOException {
+        Path path = pathOf(key);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        return Optional.of(new BlobInfo(key, attrs.size(), attrs.lastModifiedTime().toMillis()));
+    }
+
+    @Override
+    public long copyRange(String key, long offset, long length, WritableByteChannel target) throws IOException {
+        try (FileChannel in = FileChannel.open(pathOf(key), StandardOpenOption.READ)) {
+            long end = Math.min(offset + length, in.size());
+            long position = offset;
+            while (position < end) {
+                long sent = in.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+            return position - offset;
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(pathOf(key));
+    }
+
+    @Override
+    public Optional<Path> localFile(String key) {
+        Path path = pathOf(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    private Path pathOf(String key) {
+        if (key == null || !KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+}
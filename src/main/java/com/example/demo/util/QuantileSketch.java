@@ -0,0 +1,209 @@
+package com.example.demo.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * KLL quantile sketch: approximate quantiles of a stream of doubles in bounded memory.
+ * <p>
+ * Items enter level 0; when the sketch is over its size budget the lowest full level is
+ * sorted and every other item (alternating which half) is promoted one level up with
+ * twice the weight. Higher levels get geometrically smaller capacities, so memory is
+ * about {@code 3k} items whatever the stream length, and rank error is roughly
+ * {@code 1.7 / k}. Sketches of different streams merge by concatenating levels and
+ * compacting again, which makes windowed quantiles a merge of per-bucket sketches.
+ * <p>
+ * Count, sum, min and max are exact. Not thread-safe.
+ */
+public final class QuantileSketch {
+
+    public static final int DEFAULT_K = 200;
+
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_CAPACITY = 2;
+
+    private final int k;
+    private final List<double[]> levels = new ArrayList<>();
+    private final List<Integer> sizes = new ArrayList<>();
+    private long count;
+    private double sum;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private boolean promoteOdd;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    public QuantileSketch(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("k must be at least 8");
+        }
+        this.k = k;
+        addLevel();
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        append(0, value);
+        count++;
+        sum += value;
+        min = count == 1 ? value : Math.min(min, value);
+        max = count == 1 ? value : Math.max(max, value);
+        compress();
+    }
+
+    /**
+     * Fold another sketch into this one; {@code other} is not modified.
+     */
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        for (int h = 0; h < other.levels.size(); h++) {
+            double[] items = other.levels.get(h);
+            int size = other.sizes.get(h);
+            for (int i = 0; i < size; i++) {
+                append(h, items[i]);
+            }
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        sum += other.sum;
+        compress();
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    public double mean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /**
+     * Approximate value at rank {@code q} (0..1); q = 0 and q = 1 are the exact min and max.
+     * NaN when the sketch is empty.
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (q <= 0) return min;
+        if (q >= 1) return max;
+
+        int retained = retained();
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        int n = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            double[] items = levels.get(h);
+            int size = sizes.get(h);
+            for (int i = 0; i < size; i++) {
+                values[n] = items[i];
+                weights[n] = 1L << h;
+                n++;
+            }
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+        long total = 0;
+        for (long w : weights) total += w;
+        double target = q * total;
+        long cumulative = 0;
+        for (Integer i : order) {
+            cumulative += weights[i];
+            if (cumulative >= target) {
+                return values[i];
+            }
+        }
+        return max;
+    }
+
+    // Items currently held across all levels
+    int retained() {
+        int total = 0;
+        for (int size : sizes) total += size;
+        return total;
+    }
+
+    private void addLevel() {
+        levels.add(new double[MIN_CAPACITY]);
+        sizes.add(0);
+    }
+
+    private void append(int level, double value) {
+        while (levels.size() <= level) {
+            addLevel();
+        }
+        double[] items = levels.get(level);
+        int size = sizes.get(level);
+        if (size == items.length) {
+            items = Arrays.copyOf(items, items.length * 2);
+            levels.set(level, items);
+        }
+        items[size] = value;
+        sizes.set(level, size + 1);
+    }
+
+    private int capacity(int level) {
+        int depth = levels.size() - level - 1;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private int totalCapacity() {
+        int total = 0;
+        for (int h = 0; h < levels.size(); h++) total += capacity(h);
+        return total;
+    }
+
+    private void compress() {
+        while (retained() > totalCapacity()) {
+            for (int h = 0; h < levels.size(); h++) {
+                if (sizes.get(h) >= capacity(h)) {
+                    compact(h);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sort the level and promote every other item to the level above, alternating the
+     * starting offset so the rounding errors cancel out over time.
+     */
+    private void compact(int level) {
+        if (level + 1 == levels.size()) {
+            addLevel();
+        }
+        double[] items = levels.get(level);
+        int size = sizes.get(level);
+        Arrays.sort(items, 0, size);
+        // An odd item out stays behind
+        int keep = size % 2;
+        int offset = promoteOdd ? 1 : 0;
+        promoteOdd = !promoteOdd;
+        for (int i = keep + offset; i < size; i += 2) {
+            append(level + 1, items[i]);
+        }
+        sizes.set(level, keep);
+    }
+}
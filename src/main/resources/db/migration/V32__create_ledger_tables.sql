@@ -0,0 +1,56 @@
+-- V32__create_ledger_tables.sql
+-- Append-only double-entry ledger for money and carbon movements.
+-- Account codes: 'USER:<userId>' for user wallets, 'SYSTEM:<NAME>' for platform counter-accounts.
+
+CREATE TABLE ledger_entries (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entry_type VARCHAR(30) NOT NULL,
+    asset VARCHAR(20) NOT NULL,
+    amount DECIMAL(19,4) NOT NULL,
+    reference VARCHAR(100) NULL,
+    description VARCHAR(255) NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_ledger_entries_created_at (created_at),
+    INDEX idx_ledger_entries_reference (reference)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Each entry has exactly one DEBIT leg and one CREDIT leg of the same amount
+CREATE TABLE ledger_postings (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entry_id BIGINT NOT NULL,
+    asset VARCHAR(20) NOT NULL,
+    account VARCHAR(50) NOT NULL,
+    direction VARCHAR(10) NOT NULL,
+    amount DECIMAL(19,4) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_ledger_postings_entry FOREIGN KEY (entry_id) REFERENCES ledger_entries(id),
+    INDEX idx_ledger_postings_account (asset, account, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Periodic balance snapshots: balance of an account including all postings up to last_posting_id
+CREATE TABLE ledger_snapshots (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    asset VARCHAR(20) NOT NULL,
+    account VARCHAR(50) NOT NULL,
+    balance DECIMAL(19,4) NOT NULL,
+    last_posting_id BIGINT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_ledger_snapshots_account (asset, account, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Opening balances: existing wallet balances become the first snapshot of each account
+INSERT INTO ledger_snapshots (asset, account, balance, last_posting_id)
+SELECT 'MONEY', CONCAT('USER:', user_id), COALESCE(balance, 0), 0
+FROM wallet
+WHERE user_id IS NOT NULL;
+
+INSERT INTO ledger_snapshots (asset, account, balance, last_posting_id)
+SELECT 'CARBON', CONCAT('USER:', owner_id), COALESCE(balance, 0), 0
+FROM carbon_wallet;
+
+-- Contra account so that the opening trial balance nets to zero
+INSERT INTO ledger_snapshots (asset, account, balance, last_posting_id)
+SELECT 'MONEY', 'SYSTEM:OPENING', -COALESCE(SUM(balance), 0), 0 FROM wallet;
+
+INSERT INTO ledger_snapshots (asset, account, balance, last_posting_id)
+SELECT 'CARBON', 'SYSTEM:OPENING', -COALESCE(SUM(balance), 0), 0 FROM carbon_wallet;
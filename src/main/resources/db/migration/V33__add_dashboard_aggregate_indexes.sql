@@ -0,0 +1,7 @@
+-- V33__add_dashboard_aggregate_indexes.sql
+-- Covering indexes for the grouped admin dashboard aggregates
+
+CREATE INDEX idx_transactions_created_status_amount ON transactions(created_at, status, amount);
+CREATE INDEX idx_transactions_status_amount ON transactions(status, amount);
+CREATE INDEX idx_co2_status_created_credits ON co2_reduction(status, created_at, credits);
+CREATE INDEX idx_listings_status_carbon ON listings(status, carbon_amount);
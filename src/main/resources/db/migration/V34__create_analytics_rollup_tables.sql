@@ -0,0 +1,42 @@
+-- V34__create_analytics_rollup_tables.sql
+-- Hourly / daily / monthly rollups of transactions, CO2 reductions and registrations.
+-- bucket_start is the (server local) start of the HOUR, DAY or MONTH bucket.
+
+CREATE TABLE activity_rollups (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    granularity VARCHAR(10) NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    transaction_volume DECIMAL(19,4) NOT NULL DEFAULT 0,
+    completed_count BIGINT NOT NULL DEFAULT 0,
+    completed_volume DECIMAL(19,4) NOT NULL DEFAULT 0,
+    co2_approved_count BIGINT NOT NULL DEFAULT 0,
+    co2_credits DECIMAL(18,6) NOT NULL DEFAULT 0,
+    new_users BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_activity_rollups_bucket (granularity, bucket_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Per buyer / seller totals per bucket: distinct parties and top-N over any range
+CREATE TABLE party_rollups (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    granularity VARCHAR(10) NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    role VARCHAR(10) NOT NULL,
+    user_id BIGINT NOT NULL,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    volume DECIMAL(19,4) NOT NULL DEFAULT 0,
+    UNIQUE KEY uk_party_rollups_bucket (role, granularity, bucket_start, user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Highest source row id folded into the rollups, per source table
+CREATE TABLE rollup_watermarks (
+    source VARCHAR(30) PRIMARY KEY,
+    last_id BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO rollup_watermarks (source, last_id) VALUES
+    ('TRANSACTIONS', 0),
+    ('CO2_REDUCTIONS', 0),
+    ('USERS', 0);
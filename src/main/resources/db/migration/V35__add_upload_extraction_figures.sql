@@ -0,0 +1,21 @@
+-- V35__add_upload_extraction_figures.sql
+-- uploads only keeps a text preview now; store the extraction size and the figures
+-- the CO2 estimate was computed from.
+
+CREATE TABLE IF NOT EXISTS uploads (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    owner_id BIGINT NOT NULL,
+    filename VARCHAR(255),
+    extracted_text TEXT,
+    estimated_co2_kg DECIMAL(19,4),
+    credits_tons DECIMAL(19,6),
+    created_at DATETIME(6)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+ALTER TABLE uploads
+    ADD COLUMN extracted_chars BIGINT NULL,
+    ADD COLUMN text_truncated BOOLEAN NULL,
+    ADD COLUMN explicit_co2_kg DECIMAL(19,4) NULL,
+    ADD COLUMN energy_kwh DECIMAL(19,4) NULL,
+    ADD COLUMN distance_km DECIMAL(19,4) NULL,
+    ADD COLUMN fuel_liters DECIMAL(19,4) NULL;
@@ -0,0 +1,8 @@
+-- V36__add_emission_factor_settings.sql
+-- Emission factors used by the upload CO2 estimator (kg CO2 per unit); admins can tune them.
+
+INSERT IGNORE INTO system_settings (config_key, config_value, description)
+VALUES
+    ('co2_factor_kg_per_kwh', '0.475', 'kg CO2 per kWh of energy in uploaded journey documents'),
+    ('co2_factor_kg_per_km', '0.21', 'kg CO2 per km of distance in uploaded journey documents'),
+    ('co2_factor_kg_per_liter', '2.31', 'kg CO2 per litre of fuel in uploaded journey documents');
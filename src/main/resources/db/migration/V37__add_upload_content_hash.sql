@@ -0,0 +1,6 @@
+-- V37__add_upload_content_hash.sql
+-- SHA-256 of the uploaded file: repeats are answered from the stored estimate and the
+-- unique key stops the same evidence from being credited twice.
+
+ALTER TABLE uploads ADD COLUMN content_sha256 CHAR(64) NULL AFTER filename;
+CREATE UNIQUE INDEX uk_uploads_content_sha256 ON uploads(content_sha256);
@@ -0,0 +1,6 @@
+-- V38__add_file_metadata_content_hash.sql
+-- Credit-request attachments are stored content-addressed: file_path holds the blob key
+-- and content_sha256 the hash. Rows from before stay NULL and keep their absolute path.
+
+ALTER TABLE file_metadata ADD COLUMN content_sha256 CHAR(64) NULL AFTER file_path;
+CREATE INDEX idx_file_metadata_content_sha256 ON file_metadata(content_sha256);
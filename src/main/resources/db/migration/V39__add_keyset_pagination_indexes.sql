@@ -0,0 +1,14 @@
+-- V39__add_keyset_pagination_indexes.sql
+-- Composite indexes for keyset (cursor) pagination on (created_at, id), newest first.
+-- Each page is a range scan that starts at the cursor, so deep pages cost the same as page one.
+-- Listings without a filter reuse idx_listings_created_at: InnoDB appends the primary key
+-- to secondary indexes, so it is already ordered by (created_at, id).
+
+CREATE INDEX idx_listings_status_created_id ON listings(status, created_at, id);
+CREATE INDEX idx_listings_seller_created_id ON listings(seller_id, created_at, id);
+
+CREATE INDEX idx_transactions_buyer_created_id ON transactions(buyer_id, created_at, id);
+CREATE INDEX idx_transactions_seller_created_id ON transactions(seller_id, created_at, id);
+
+CREATE INDEX idx_wallet_transactions_created_id ON wallet_transactions(created_at, id);
+CREATE INDEX idx_wallet_transactions_wallet_created_id ON wallet_transactions(wallet_id, created_at, id);
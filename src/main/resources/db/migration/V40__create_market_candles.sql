@@ -0,0 +1,19 @@
+-- V40__create_market_candles.sql
+-- OHLC candles of completed trades, kept in memory by MarketDataService and written back
+-- here so charts survive a restart. bucket_start is the (server local) start of the
+-- MINUTE, HOUR or DAY bucket.
+
+CREATE TABLE market_candles (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    candle_interval VARCHAR(10) NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    open_price DECIMAL(19,4) NOT NULL,
+    high_price DECIMAL(19,4) NOT NULL,
+    low_price DECIMAL(19,4) NOT NULL,
+    close_price DECIMAL(19,4) NOT NULL,
+    volume DECIMAL(19,4) NOT NULL DEFAULT 0,
+    notional DECIMAL(23,4) NOT NULL DEFAULT 0,
+    trade_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_market_candles_bucket (candle_interval, bucket_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
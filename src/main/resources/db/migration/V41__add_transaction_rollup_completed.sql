@@ -0,0 +1,11 @@
+-- V41__add_transaction_rollup_completed.sql
+-- Whether the analytics rollups counted a transaction as COMPLETED when it was folded in;
+-- NULL until it is folded. Status-change corrections and the reconciliation job compare
+-- it with the current status, so a change is applied exactly once.
+
+ALTER TABLE transactions ADD COLUMN rollup_completed BOOLEAN NULL;
+
+-- Rows already folded in are taken to match their current status
+UPDATE transactions
+SET rollup_completed = (status = 'COMPLETED')
+WHERE id <= (SELECT last_id FROM rollup_watermarks WHERE source = 'TRANSACTIONS');
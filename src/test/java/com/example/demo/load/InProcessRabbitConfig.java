@@ -0,0 +1,37 @@
+package com.example.demo.load;
+
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.example.demo.config.RabbitMQConfig;
+import com.example.demo.consumer.DisputeNotificationConsumer;
+import com.example.demo.dto.DisputeCreatedEvent;
+
+/**
+ * RabbitMQ stand-in for the load-test profile: messages published to the dispute exchange
+ * are handed straight to {@link DisputeNotificationConsumer} on the caller's thread, so the
+ * consumer's work is still exercised without a broker. Listener containers are switched
+ * off in application-loadtest.yml, and this template replaces Boot's, which would try to
+ * connect on first send.
+ */
+@Configuration
+@Profile("loadtest")
+public class InProcessRabbitConfig {
+
+    @Bean
+    public RabbitTemplate rabbitTemplate(DisputeNotificationConsumer disputeNotificationConsumer) {
+        // The template requires a connection factory; this one is never opened since sends are overridden
+        return new RabbitTemplate(new CachingConnectionFactory()) {
+            @Override
+            public void convertAndSend(String exchange, String routingKey, Object message) throws AmqpException {
+                if (RabbitMQConfig.EXCHANGE_NAME.equals(exchange) && message instanceof DisputeCreatedEvent event) {
+                    disputeNotificationConsumer.handleDisputeCreatedEvent(event);
+                }
+            }
+        };
+    }
+}
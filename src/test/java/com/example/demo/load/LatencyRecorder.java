@@ -0,0 +1,71 @@
+package com.example.demo.load;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.example.demo.util.QuantileSketch;
+
+/**
+ * Per-endpoint latency and outcome counts. Latencies go into a {@link QuantileSketch} per
+ * endpoint, so memory stays flat however long the run is. {@link #reset()} discards what was
+ * recorded so far and restarts the throughput clock, which is how the warm-up is excluded.
+ */
+class LatencyRecorder {
+
+    private final ConcurrentMap<String, Stats> endpoints = new ConcurrentHashMap<>();
+    private volatile long startedAt = System.nanoTime();
+
+    void record(String endpoint, long nanos, boolean ok) {
+        endpoints.computeIfAbsent(endpoint, e -> new Stats()).add(nanos / 1_000_000.0, ok);
+    }
+
+    void reset() {
+        endpoints.clear();
+        startedAt = System.nanoTime();
+    }
+
+    /**
+     * One row per endpoint, sorted by name; latencies in milliseconds.
+     */
+    List<Map<String, Object>> snapshot() {
+        double seconds = Math.max((System.nanoTime() - startedAt) / 1e9, 1e-3);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        endpoints.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> rows.add(e.getValue().toRow(e.getKey(), seconds)));
+        return rows;
+    }
+
+    private static final class Stats {
+        private final QuantileSketch latencies = new QuantileSketch();
+        private long errors;
+
+        private synchronized void add(double millis, boolean ok) {
+            latencies.add(millis);
+            if (!ok) errors++;
+        }
+
+        private synchronized Map<String, Object> toRow(String endpoint, double seconds) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", endpoint);
+            row.put("requests", latencies.count());
+            row.put("errors", errors);
+            row.put("throughputPerSec", round(latencies.count() / seconds));
+            row.put("meanMs", round(latencies.mean()));
+            row.put("p50Ms", round(latencies.quantile(0.50)));
+            row.put("p90Ms", round(latencies.quantile(0.90)));
+            row.put("p95Ms", round(latencies.quantile(0.95)));
+            row.put("p99Ms", round(latencies.quantile(0.99)));
+            row.put("maxMs", round(latencies.max()));
+            return row;
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+}
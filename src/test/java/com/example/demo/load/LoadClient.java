@@ -0,0 +1,145 @@
+package com.example.demo.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+/**
+ * HTTP client of the harness. Every call is timed and recorded under its endpoint label
+ * (method plus path template, e.g. {@code POST /api/transactions/{id}/confirm}) so that
+ * calls with different ids aggregate. A call counts as failed when it throws, when the
+ * status is 4xx/5xx, or when the caller's check rejects the response.
+ */
+class LoadClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final LatencyRecorder recorder;
+
+    LoadClient(String baseUrl, LatencyRecorder recorder) {
+        this.baseUrl = baseUrl;
+        this.recorder = recorder;
+    }
+
+    Response get(String endpoint, String pathAndQuery, String token) {
+        return send(endpoint, request(pathAndQuery, token).GET(), response -> true);
+    }
+
+    Response get(String endpoint, String pathAndQuery, String token, Predicate<Response> check) {
+        return send(endpoint, request(pathAndQuery, token).GET(), check);
+    }
+
+    Response postJson(String endpoint, String path, Object body, String token) {
+        HttpRequest.Builder builder = request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json(body)));
+        return send(endpoint, builder, response -> true);
+    }
+
+    /**
+     * multipart/form-data POST with text fields and one file part named {@code file}.
+     */
+    Response postMultipart(String endpoint, String path, Map<String, String> fields,
+                           String filename, byte[] content, String token) {
+        String boundary = "----loadtest" + UUID.randomUUID();
+        StringBuilder head = new StringBuilder();
+        fields.forEach((name, value) -> head.append("--").append(boundary).append("\r\n")
+                .append("Content-Disposition: form-data; name=\"").append(name).append("\"\r\n\r\n")
+                .append(value).append("\r\n"));
+        head.append("--").append(boundary).append("\r\n")
+                .append("Content-Disposition: form-data; name=\"file\"; filename=\"").append(filename).append("\"\r\n")
+                .append("Content-Type: text/plain\r\n\r\n");
+        byte[] prefix = head.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] suffix = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] body = new byte[prefix.length + content.length + suffix.length];
+        System.arraycopy(prefix, 0, body, 0, prefix.length);
+        System.arraycopy(content, 0, body, prefix.length, content.length);
+        System.arraycopy(suffix, 0, body, prefix.length + content.length, suffix.length);
+
+        HttpRequest.Builder builder = request(path, token)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        return send(endpoint, builder, response -> true);
+    }
+
+    private HttpRequest.Builder request(String pathAndQuery, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + pathAndQuery)).timeout(TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private Response send(String endpoint, HttpRequest.Builder builder, Predicate<Response> check) {
+        long started = System.nanoTime();
+        Response response;
+        try {
+            HttpResponse<String> raw = http.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+            response = new Response(raw.statusCode(), raw.body());
+        } catch (IOException e) {
+            response = new Response(-1, e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response = new Response(-1, "interrupted");
+        }
+        long elapsed = System.nanoTime() - started;
+        recorder.record(endpoint, elapsed, response.ok() && check.test(response));
+        return response;
+    }
+
+    private String json(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    class Response {
+        private final int status;
+        private final String body;
+        private JsonNode json;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        int status() {
+            return status;
+        }
+
+        boolean ok() {
+            return status >= 200 && status < 400;
+        }
+
+        /**
+         * Parsed body; a missing node when the body is not JSON.
+         */
+        JsonNode json() {
+            if (json == null) {
+                try {
+                    json = body == null || body.isEmpty() ? MissingNode.getInstance() : objectMapper.readTree(body);
+                } catch (JsonProcessingException e) {
+                    json = MissingNode.getInstance();
+                }
+            }
+            return json;
+        }
+    }
+}
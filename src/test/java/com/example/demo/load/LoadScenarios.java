@@ -0,0 +1,226 @@
+package com.example.demo.load;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * What a virtual user does. Buyers log in once and then loop over a weighted mix of
+ * browsing, searching, buying, wallet top-ups and CO2 uploads; sign-ups are mixed in as
+ * fresh users; admins poll the dashboard.
+ */
+class LoadScenarios {
+
+    enum Action {
+        BROWSE(30), SEARCH(15), BUY(20), TOPUP(10), UPLOAD(10), REGISTER(15);
+
+        private final int weight;
+
+        Action(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final int TOTAL_WEIGHT = Arrays.stream(Action.values()).mapToInt(a -> a.weight).sum();
+
+    private static final String[] KEYWORDS = {"mặt trời", "gió", "rừng", "xe điện", "biogas", "carbon"};
+
+    private final LoadClient client;
+    private final String vnpayHashSecret;
+
+    LoadScenarios(LoadClient client, String vnpayHashSecret) {
+        this.client = client;
+        this.vnpayHashSecret = vnpayHashSecret;
+    }
+
+    /**
+     * Logged-in user, or null when the login failed.
+     */
+    Session login(String email) {
+        LoadClient.Response response = client.postJson("POST /api/users/login", "/api/users/login",
+                Map.of("email", email, "password", LoadTestSeeder.PASSWORD), null);
+        JsonNode body = response.json();
+        if (!response.ok() || !body.hasNonNull("token")) {
+            return null;
+        }
+        return new Session(body.get("userId").asLong(), body.get("token").asText());
+    }
+
+    void runOnce(Session buyer) {
+        int pick = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+        for (Action action : Action.values()) {
+            pick -= action.weight;
+            if (pick < 0) {
+                run(action, buyer);
+                return;
+            }
+        }
+    }
+
+    private void run(Action action, Session buyer) {
+        switch (action) {
+            case BROWSE -> browse();
+            case SEARCH -> search();
+            case BUY -> buy(buyer);
+            case TOPUP -> topup(buyer);
+            case UPLOAD -> upload(buyer);
+            case REGISTER -> register();
+        }
+    }
+
+    private void browse() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextBoolean()) {
+            client.get("GET /api/listings/open", "/api/listings/open?page=" + random.nextInt(5) + "&size=20", null);
+        } else {
+            client.get("GET /api/listings/browse", "/api/listings/browse?sort=PRICE_ASC&size=20", null);
+        }
+    }
+
+    private void search() {
+        String keyword = KEYWORDS[ThreadLocalRandom.current().nextInt(KEYWORDS.length)];
+        client.get("GET /api/listings/search",
+                "/api/listings/search?size=20&keyword=" + URLEncoder.encode(keyword, StandardCharsets.UTF_8), null);
+    }
+
+    /**
+     * Pick an open listing from the first page and buy one credit of it: create the
+     * transaction, then confirm it (which moves the money and issues the certificate).
+     */
+    private void buy(Session buyer) {
+        LoadClient.Response page = client.get("GET /api/listings/open/scroll", "/api/listings/open/scroll?size=20", null);
+        List<Long> candidates = new ArrayList<>();
+        for (JsonNode item : page.json().path("items")) {
+            if (item.path("sellerId").asLong() != buyer.userId()) {
+                candidates.add(item.path("id").asLong());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        long listingId = candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+        LoadClient.Response created = client.postJson("POST /api/transactions", "/api/transactions",
+                Map.of("listingId", listingId, "buyerId", buyer.userId(), "quantity", 1), buyer.token());
+        if (!created.ok()) {
+            return;
+        }
+        long transactionId = created.json().path("id").asLong();
+        client.postJson("POST /api/transactions/{id}/confirm", "/api/transactions/" + transactionId + "/confirm",
+                Map.of(), buyer.token());
+    }
+
+    /**
+     * VNPay top-up round trip: create the payment URL, then call the IPN endpoint the way
+     * the gateway would after a successful payment, signed with the sandbox secret.
+     */
+    private void topup(Session buyer) {
+        LoadClient.Response created = client.postJson("POST /api/payment/vnpay/create", "/api/payment/vnpay/create",
+                Map.of("userId", buyer.userId(), "amount", 200_000), buyer.token());
+        String paymentUrl = created.json().path("paymentUrl").asText(null);
+        if (!created.ok() || paymentUrl == null) {
+            return;
+        }
+        Map<String, String> params = queryParams(paymentUrl);
+        params.remove("vnp_SecureHash");
+        params.put("vnp_ResponseCode", "00");
+        params.put("vnp_TransactionStatus", "00");
+        params.put("vnp_TransactionNo", String.valueOf(ThreadLocalRandom.current().nextInt(10_000_000, 99_999_999)));
+        params.put("vnp_BankCode", "NCB");
+
+        StringBuilder query = new StringBuilder();
+        params.forEach((name, value) -> query.append(query.isEmpty() ? "" : "&")
+                .append(URLEncoder.encode(name, StandardCharsets.US_ASCII)).append('=')
+                .append(URLEncoder.encode(value, StandardCharsets.US_ASCII)));
+        query.append("&vnp_SecureHash=").append(sign(params));
+        client.get("GET /api/payment/vnpay/ipn", "/api/payment/vnpay/ipn?" + query, null,
+                response -> "00".equals(response.json().path("RspCode").asText()));
+    }
+
+    private void upload(Session buyer) {
+        byte[] document = journeyReport().getBytes(StandardCharsets.UTF_8);
+        client.postMultipart("POST /api/uploads/estimate", "/api/uploads/estimate",
+                Map.of("userId", String.valueOf(buyer.userId())), "hanh-trinh.txt", document, buyer.token());
+    }
+
+    private void register() {
+        String email = "user-" + UUID.randomUUID() + "@loadtest.local";
+        LoadClient.Response registered = client.postJson("POST /api/users/register", "/api/users/register",
+                Map.of("email", email, "password", LoadTestSeeder.PASSWORD, "fullName", "Người dùng thử"), null);
+        if (registered.ok()) {
+            login(email);
+        }
+    }
+
+    void pollDashboard(Session admin) {
+        client.get("GET /api/admin/dashboard/summary", "/api/admin/dashboard/summary", admin.token());
+        client.get("GET /api/admin/dashboard/stats", "/api/admin/dashboard/stats", admin.token());
+        client.get("GET /api/admin/dashboard/monthly-volume", "/api/admin/dashboard/monthly-volume?months=6", admin.token());
+        client.get("GET /api/admin/dashboard/credit-status", "/api/admin/dashboard/credit-status", admin.token());
+    }
+
+    /**
+     * Small journey report with both required sections; the reference line makes every
+     * upload's content hash unique, so none is short-circuited as a duplicate.
+     */
+    private static String journeyReport() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder sb = new StringBuilder()
+                .append("Phần I. Thông tin chủ sở hữu\n")
+                .append("Mã hồ sơ: ").append(UUID.randomUUID()).append('\n')
+                .append("Phần II. Dữ liệu hành trình\n");
+        for (int day = 1; day <= 30; day++) {
+            sb.append("Ngày ").append(day).append(": quãng đường ").append(40 + random.nextInt(160))
+                    .append(" km, sạc ").append(8 + random.nextInt(30)).append(" kWh.\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Same hash input as VnPayService: sorted non-empty fields, values URL-encoded, HMAC-SHA512 in hex.
+     */
+    private String sign(Map<String, String> sortedParams) {
+        StringBuilder data = new StringBuilder();
+        sortedParams.forEach((name, value) -> {
+            if (value == null || value.isEmpty()) return;
+            data.append(data.isEmpty() ? "" : "&").append(name).append('=')
+                    .append(URLEncoder.encode(value, StandardCharsets.US_ASCII));
+        });
+        try {
+            Mac mac = Mac.getInstance("HmacSHA512");
+            mac.init(new SecretKeySpec(vnpayHashSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : mac.doFinal(data.toString().getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot sign VNPay callback", e);
+        }
+    }
+
+    private static Map<String, String> queryParams(String url) {
+        Map<String, String> params = new TreeMap<>();
+        for (String pair : URI.create(url).getRawQuery().split("&")) {
+            int eq = pair.indexOf('=');
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.US_ASCII),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.US_ASCII));
+        }
+        return params;
+    }
+
+    record Session(long userId, String token) {
+    }
+}
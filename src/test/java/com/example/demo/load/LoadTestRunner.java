@@ -0,0 +1,199 @@
+package com.example.demo.load;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.DemoApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * End-to-end load test: boots the application on a random port with the {@code loadtest}
+ * profile (H2, in-process RabbitMQ, stub AI), seeds it, then runs closed-loop virtual users
+ * against the HTTP API and reports latency percentiles and throughput per endpoint.
+ * <p>
+ * Buyers each log in once and loop over the mix in {@link LoadScenarios}; admins poll the
+ * dashboard. The first {@code warmup} seconds are discarded. The report is printed and
+ * written as JSON; given a previous report as {@code baseline}, endpoints whose p95 grew
+ * by more than {@code max-p95-regression} percent are listed and the exit code is 1.
+ * <p>
+ * {@code mvn -Ploadtest verify -Dloadtest.args="--users=50 --duration=120"}, or run this
+ * class from the IDE. Options (defaults): users (20), admins (2), warmup (15), duration (60)
+ * in seconds, think-ms (50), poll-ms (2000), sellers (10), listings (20 per seller),
+ * report (target/loadtest-report.json), baseline, max-p95-regression (20).
+ */
+public class LoadTestRunner {
+
+    private static final BigDecimal BUYER_BALANCE = new BigDecimal("1000000000");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int users = intOption(options, "users", 20);
+        int admins = intOption(options, "admins", 2);
+        int warmupSeconds = intOption(options, "warmup", 15);
+        int durationSeconds = intOption(options, "duration", 60);
+        int thinkMillis = intOption(options, "think-ms", 50);
+        int pollMillis = intOption(options, "poll-ms", 2000);
+        File report = new File(options.getOrDefault("report", "target/loadtest-report.json"));
+
+        // Command-line arguments outrank spring.profiles.active=dev in application.yml
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                .run("--spring.profiles.active=loadtest", "--server.port=0");
+        List<Map<String, Object>> rows;
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            LoadTestSeeder.Fixture fixture = context.getBean(LoadTestSeeder.class).seed(
+                    intOption(options, "sellers", 10), intOption(options, "listings", 20), users, BUYER_BALANCE);
+            System.out.printf("Seeded %d listings and %d buyers; target %s%n", fixture.listings(), users, baseUrl);
+
+            LatencyRecorder recorder = new LatencyRecorder();
+            // VnPayConfig is registered twice (@Configuration and @EnableConfigurationProperties),
+            // so read the secret from the environment rather than by bean type
+            LoadScenarios scenarios = new LoadScenarios(new LoadClient(baseUrl, recorder),
+                    context.getEnvironment().getRequiredProperty("vnpay.hash-secret"));
+            rows = run(scenarios, recorder, fixture, admins, warmupSeconds, durationSeconds, thinkMillis, pollMillis);
+        } finally {
+            context.close();
+        }
+
+        print(rows, users, admins, durationSeconds);
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("users", users);
+        result.put("admins", admins);
+        result.put("durationSeconds", durationSeconds);
+        result.put("endpoints", rows);
+        if (report.getParentFile() != null) {
+            report.getParentFile().mkdirs();
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(report, result);
+        System.out.println("Report written to " + report.getPath());
+
+        String baseline = options.get("baseline");
+        if (baseline != null && !compare(objectMapper.readTree(new File(baseline)), rows,
+                intOption(options, "max-p95-regression", 20))) {
+            System.exit(1);
+        }
+    }
+
+    private static List<Map<String, Object>> run(LoadScenarios scenarios, LatencyRecorder recorder,
+                                                 LoadTestSeeder.Fixture fixture, int admins, int warmupSeconds,
+                                                 int durationSeconds, int thinkMillis, int pollMillis)
+            throws InterruptedException {
+        AtomicBoolean stopped = new AtomicBoolean();
+        ExecutorService workers = Executors.newFixedThreadPool(fixture.buyerEmails().size() + admins);
+
+        for (String email : fixture.buyerEmails()) {
+            workers.execute(() -> {
+                LoadScenarios.Session buyer = scenarios.login(email);
+                if (buyer == null) {
+                    System.err.println("Login failed for " + email);
+                    return;
+                }
+                while (!stopped.get()) {
+                    scenarios.runOnce(buyer);
+                    pause(thinkMillis > 0 ? ThreadLocalRandom.current().nextInt(thinkMillis + 1) : 0);
+                }
+            });
+        }
+        for (int i = 0; i < admins; i++) {
+            workers.execute(() -> {
+                LoadScenarios.Session admin = scenarios.login(fixture.adminEmail());
+                if (admin == null) {
+                    System.err.println("Login failed for " + fixture.adminEmail());
+                    return;
+                }
+                while (!stopped.get()) {
+                    scenarios.pollDashboard(admin);
+                    pause(pollMillis);
+                }
+            });
+        }
+
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        recorder.reset();
+        System.out.printf("Warm-up done, measuring for %d s%n", durationSeconds);
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        List<Map<String, Object>> rows = recorder.snapshot();
+
+        stopped.set(true);
+        workers.shutdown();
+        workers.awaitTermination(60, TimeUnit.SECONDS);
+        return rows;
+    }
+
+    private static void print(List<Map<String, Object>> rows, int users, int admins, int durationSeconds) {
+        System.out.printf("%n%d buyers, %d admins, %d s measured%n", users, admins, durationSeconds);
+        System.out.printf("%-44s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "max ms");
+        for (Map<String, Object> row : rows) {
+            System.out.printf("%-44s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                    row.get("endpoint"), row.get("requests"), row.get("errors"), row.get("throughputPerSec"),
+                    row.get("p50Ms"), row.get("p90Ms"), row.get("p95Ms"), row.get("p99Ms"), row.get("maxMs"));
+        }
+    }
+
+    /**
+     * False when an endpoint's p95 exceeds the baseline's by more than the allowed percentage.
+     */
+    private static boolean compare(JsonNode baseline, List<Map<String, Object>> rows, int maxRegressionPercent) {
+        Map<String, Double> baselineP95 = new HashMap<>();
+        for (JsonNode row : baseline.path("endpoints")) {
+            baselineP95.put(row.path("endpoint").asText(), row.path("p95Ms").asDouble());
+        }
+        List<String> regressions = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            Double before = baselineP95.get((String) row.get("endpoint"));
+            double after = (Double) row.get("p95Ms");
+            if (before != null && before > 0 && after > before * (1 + maxRegressionPercent / 100.0)) {
+                regressions.add(String.format("%s: p95 %.2f ms -> %.2f ms", row.get("endpoint"), before, after));
+            }
+        }
+        if (regressions.isEmpty()) {
+            System.out.printf("No endpoint's p95 regressed by more than %d%% against the baseline%n", maxRegressionPercent);
+            return true;
+        }
+        System.out.printf("p95 regressions over %d%%:%n", maxRegressionPercent);
+        regressions.forEach(r -> System.out.println("  " + r));
+        return false;
+    }
+
+    private static void pause(long millis) {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
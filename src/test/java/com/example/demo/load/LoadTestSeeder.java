@@ -0,0 +1,89 @@
+package com.example.demo.load;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.ListingRequest;
+import com.example.demo.dto.ListingResponse;
+import com.example.demo.entity.Listing;
+import com.example.demo.entity.Role;
+import com.example.demo.entity.User;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.AuthService;
+import com.example.demo.service.ListingService;
+import com.example.demo.service.WalletService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Seeds the load-test database through the same services the API uses, so the in-memory
+ * listing indexes, order book and price sketches see the data too: an admin, sellers with
+ * OPEN listings, and buyers with funded wallets. All seeded users share one password.
+ */
+@Component
+@Profile("loadtest")
+@RequiredArgsConstructor
+public class LoadTestSeeder {
+
+    static final String PASSWORD = "LoadTest@123";
+    static final String ADMIN_EMAIL = "admin@loadtest.local";
+
+    private static final String[] PROJECTS = {
+            "Điện mặt trời áp mái", "Điện gió ven biển", "Trồng rừng ngập mặn", "Xe điện giao hàng", "Biogas trang trại"
+    };
+
+    private final AuthService authService;
+    private final ListingService listingService;
+    private final WalletService walletService;
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public Fixture seed(int sellers, int listingsPerSeller, int buyers, BigDecimal buyerBalance) {
+        User admin = authService.register(ADMIN_EMAIL, PASSWORD, "Load Test Admin");
+        grantRole(admin.getId(), "ADMIN");
+
+        int listings = 0;
+        for (int s = 0; s < sellers; s++) {
+            User seller = authService.register("seller" + s + "@loadtest.local", PASSWORD, "Người bán " + s);
+            for (int i = 0; i < listingsPerSeller; i++) {
+                String project = PROJECTS[(s + i) % PROJECTS.length];
+                ListingResponse listing = listingService.createListing(new ListingRequest(
+                        project + " #" + s + "-" + i,
+                        "Tín chỉ carbon từ dự án " + project.toLowerCase(),
+                        BigDecimal.valueOf(500 + (i % 10) * 100L),
+                        BigDecimal.valueOf(100_000 + ((s * 37L + i * 11L) % 50) * 1_000),
+                        seller.getId()));
+                listingService.updateListingStatus(listing.getId(), Listing.ListingStatus.OPEN);
+                listings++;
+            }
+        }
+
+        List<String> buyerEmails = new ArrayList<>(buyers);
+        for (int b = 0; b < buyers; b++) {
+            User buyer = authService.register("buyer" + b + "@loadtest.local", PASSWORD, "Người mua " + b);
+            walletService.credit(buyer.getId(), buyerBalance, "Load test seed");
+            buyerEmails.add(buyer.getEmail());
+        }
+        return new Fixture(ADMIN_EMAIL, buyerEmails, listings);
+    }
+
+    private void grantRole(Long userId, String roleName) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Role role = roleRepository.findByName(roleName)
+                    .orElseGet(() -> roleRepository.save(new Role(null, roleName)));
+            User user = userRepository.findById(userId).orElseThrow();
+            user.getRoles().add(role);
+            userRepository.save(user);
+        });
+    }
+
+    public record Fixture(String adminEmail, List<String> buyerEmails, int listings) {
+    }
+}
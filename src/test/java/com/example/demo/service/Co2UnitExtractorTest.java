@@ -0,0 +1,175 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.dto.Co2Finding;
+
+/**
+ * Unit matching on OCR-style text: whole-word units, decimal commas, Vietnamese spellings,
+ * the bare-number-near-CO2 fallback, and that feeding the text in chunks changes nothing.
+ */
+class Co2UnitExtractorTest {
+
+    @Test
+    void distanceWithoutSpaceBeforeUnit() {
+        Co2UnitExtractor.Result result = extract("Quãng đường 120km trong tháng");
+
+        assertDecimal("120", result.figures().distanceKm());
+        assertDecimal("25.2", result.co2Kg());
+        Co2Finding finding = single(result);
+        assertEquals("DISTANCE", finding.kind());
+        assertEquals("km", finding.unit());
+        assertDecimal("120", finding.quantity());
+        assertEquals(12, finding.offset());
+    }
+
+    @Test
+    void decimalCommaEnergy() {
+        Co2UnitExtractor.Result result = extract("Sạc 18,5 kWh tại trạm");
+
+        assertDecimal("18.5", result.figures().energyKwh());
+        assertDecimal("8.7875", result.co2Kg());
+        assertEquals("kWh", single(result).unit());
+    }
+
+    @Test
+    void vietnameseLitre() {
+        Co2UnitExtractor.Result result = extract("Tiết kiệm 40 lít xăng");
+
+        assertDecimal("40", result.figures().fuelLiters());
+        assertDecimal("92.4", result.co2Kg());
+        assertEquals("FUEL", single(result).kind());
+    }
+
+    @Test
+    void unitMustBeWholeWord() {
+        Co2UnitExtractor.Result result = extract("Phòng họp có 5 tables và 3 tivi");
+
+        assertTrue(result.findings().isEmpty());
+        assertEquals(0, result.findingCount());
+        assertDecimal("0", result.figures().explicitCo2Kg());
+        assertDecimal("0", result.co2Kg());
+    }
+
+    @Test
+    void tonnesConvertToKilograms() {
+        Co2UnitExtractor.Result result = extract("Giảm 5 t CO2 và 250 kg CO2");
+
+        assertDecimal("5250", result.figures().explicitCo2Kg());
+        assertDecimal("5250", result.co2Kg());
+        assertEquals(2, result.findingCount());
+    }
+
+    @Test
+    void massUnitWrittenTogetherWithTheGas() {
+        Co2UnitExtractor.Result kg = extract("Giam 150 kgCO2 so voi xe xang");
+        assertDecimal("150", kg.figures().explicitCo2Kg());
+        assertEquals("CO2_MASS", single(kg).kind());
+        assertEquals("kg", single(kg).unit());
+
+        Co2UnitExtractor.Result tonnes = extract("Cắt giảm 0.5 tCO2e trong năm");
+        assertDecimal("500", tonnes.figures().explicitCo2Kg());
+        assertEquals("t", single(tonnes).unit());
+
+        assertDecimal("2000", extract("Tương đương 2 tấnCO2").figures().explicitCo2Kg());
+        assertDecimal("75", extract("Tổng 75kgCO2e").co2Kg());
+    }
+
+    @Test
+    void onlyMassUnitsTakeTheGasSuffix() {
+        Co2UnitExtractor.Result result = extract("Mã 12 kmco2 và 3 tablesco2");
+
+        assertTrue(result.findings().isEmpty(), result.findings().toString());
+        assertDecimal("0", result.figures().distanceKm());
+        assertDecimal("0", result.figures().explicitCo2Kg());
+    }
+
+    @Test
+    void bareNumberAfterCo2IsTheFallback() {
+        Co2UnitExtractor.Result result = extract("Lượng CO2 giảm được: 350");
+
+        assertDecimal("350", result.figures().explicitCo2Kg());
+        assertDecimal("350", result.co2Kg());
+        Co2Finding finding = single(result);
+        assertEquals("CO2_NEARBY", finding.kind());
+        assertEquals("kg", finding.unit());
+    }
+
+    @Test
+    void bareNumberBeforeCo2IsTheFallback() {
+        Co2UnitExtractor.Result result = extract("Tổng cộng 42 (CO2)");
+
+        assertDecimal("42", result.figures().explicitCo2Kg());
+        assertEquals("CO2_NEARBY", single(result).kind());
+    }
+
+    @Test
+    void fallbackNeedsTheNumberCloseToCo2() {
+        Co2UnitExtractor.Result result = extract("CO2 là khí nhà kính phổ biến nhất hiện nay, năm 2024");
+
+        assertTrue(result.findings().isEmpty());
+        assertDecimal("0", result.figures().explicitCo2Kg());
+    }
+
+    @Test
+    void fallbackIsIgnoredWhenAnyUnitIsFound() {
+        Co2UnitExtractor.Result result = extract("CO2: 350, quãng đường 10 km");
+
+        assertDecimal("0", result.figures().explicitCo2Kg());
+        assertDecimal("10", result.figures().distanceKm());
+        assertEquals("DISTANCE", single(result).kind());
+    }
+
+    @Test
+    void chunkBoundariesDoNotMatter() {
+        String text = "Ngày 1: 120km, sạc 18,5 kWh. Ngày 2: 40 lít, 5 tables, 0,5 tấn CO2, 150kgCO2e.";
+        Co2UnitExtractor.Result whole = extract(text);
+
+        for (int chunk = 1; chunk <= 7; chunk++) {
+            Co2UnitExtractor extractor = new Co2UnitExtractor(Co2UnitExtractor.Factors.DEFAULTS, 10);
+            char[] chars = text.toCharArray();
+            for (int start = 0; start < chars.length; start += chunk) {
+                extractor.accept(chars, start, Math.min(chunk, chars.length - start));
+            }
+            Co2UnitExtractor.Result chunked = extractor.finish();
+
+            assertEquals(whole.figures(), chunked.figures(), "chunk size " + chunk);
+            assertEquals(whole.findings(), chunked.findings(), "chunk size " + chunk);
+        }
+        assertEquals(5, whole.findingCount());
+        assertDecimal("650", whole.figures().explicitCo2Kg());
+    }
+
+    @Test
+    void findingsAreCappedButAllCounted() {
+        Co2UnitExtractor extractor = new Co2UnitExtractor(Co2UnitExtractor.Factors.DEFAULTS, 2);
+        extractor.accept("1 km, 2 km, 3 km, 4 km");
+        Co2UnitExtractor.Result result = extractor.finish();
+
+        assertEquals(2, result.findings().size());
+        assertEquals(4, result.findingCount());
+        assertDecimal("10", result.figures().distanceKm());
+    }
+
+    private static Co2UnitExtractor.Result extract(String text) {
+        Co2UnitExtractor extractor = new Co2UnitExtractor(Co2UnitExtractor.Factors.DEFAULTS, 10);
+        extractor.accept(text);
+        return extractor.finish();
+    }
+
+    private static Co2Finding single(Co2UnitExtractor.Result result) {
+        List<Co2Finding> findings = result.findings();
+        assertEquals(1, findings.size(), findings.toString());
+        return findings.get(0);
+    }
+
+    private static void assertDecimal(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "expected " + expected + " but was " + actual);
+    }
+}
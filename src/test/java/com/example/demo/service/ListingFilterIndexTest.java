@@ -0,0 +1,310 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.dto.FacetBucket;
+import com.example.demo.dto.ListingChangedEvent;
+import com.example.demo.dto.ListingSnapshot;
+import com.example.demo.entity.Listing.ListingStatus;
+import com.example.demo.repository.ListingRepository;
+
+/**
+ * Randomized check of {@link ListingFilterIndex} against a brute-force filter over the same
+ * listings: pages, totals and facet counts must agree after a rebuild and after a random
+ * mix of edits, fills, status changes and removals. Prices and creation times repeat on
+ * purpose so that tie-breaking by id is exercised.
+ */
+class ListingFilterIndexTest {
+
+    private static final ListingStatus[] STATUSES = {
+            ListingStatus.OPEN, ListingStatus.PENDING, ListingStatus.SOLD, ListingStatus.CANCELLED};
+    private static final BigDecimal[] QUANTITY_EDGES = {
+            BigDecimal.ONE, BigDecimal.TEN, BigDecimal.valueOf(100), BigDecimal.valueOf(1000)};
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Test
+    void queriesMatchBruteForce() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random random = new Random(seed);
+            Map<Long, Row> rows = new HashMap<>();
+            int count = 150 + random.nextInt(150);
+            for (long id = 1; id <= count; id++) {
+                rows.put(id, randomRow(random, id));
+            }
+
+            ListingRepository repository = mock(ListingRepository.class);
+            when(repository.findFilterColumns()).thenReturn(rows.values().stream().map(Row::toColumns).toList());
+            ListingFilterIndex index = new ListingFilterIndex(repository);
+            index.rebuild();
+            checkQueries(index, rows, random, seed);
+
+            mutate(index, rows, random);
+            checkQueries(index, rows, random, seed);
+        }
+    }
+
+    @Test
+    void emptyIndexReturnsNothing() {
+        ListingRepository repository = mock(ListingRepository.class);
+        when(repository.findFilterColumns()).thenReturn(List.of());
+        ListingFilterIndex index = new ListingFilterIndex(repository);
+        index.rebuild();
+
+        ListingFilterIndex.Result result = index.query(new ListingFilterIndex.Query(
+                EnumSet.of(ListingStatus.OPEN), null, null, null, null, ListingFilterIndex.Sort.NEWEST, 0, 20, 10));
+
+        assertTrue(result.ids().isEmpty());
+        assertEquals(0, result.total());
+        assertTrue(result.priceHistogram().isEmpty());
+        assertTrue(result.statusCounts().isEmpty());
+        assertEquals(QUANTITY_EDGES.length + 1, result.quantityBuckets().size());
+    }
+
+    private void checkQueries(ListingFilterIndex index, Map<Long, Row> rows, Random random, long seed) {
+        for (int i = 0; i < 200; i++) {
+            ListingFilterIndex.Query query = randomQuery(random);
+            String context = "seed " + seed + ", " + query;
+            ListingFilterIndex.Result result = index.query(query);
+
+            List<Row> matching = rows.values().stream()
+                    .filter(r -> query.statuses().contains(r.status) && inPrice(query, r) && inCarbon(query, r))
+                    .sorted(order(query.sort()))
+                    .toList();
+            int from = Math.min(matching.size(), query.page() * query.size());
+            int to = Math.min(matching.size(), from + query.size());
+            List<Long> expectedPage = matching.subList(from, to).stream().map(r -> r.id).toList();
+
+            assertEquals(matching.size(), result.total(), context);
+            assertEquals(expectedPage, result.ids(), context);
+            assertEquals(expectedStatusCounts(rows, query), result.statusCounts(), context);
+            assertEquals(expectedQuantityCounts(rows, query), counts(result.quantityBuckets()), context);
+            checkPriceHistogram(rows, query, result.priceHistogram(), context);
+        }
+    }
+
+    /**
+     * Apply random changes as listing events (outside a transaction they apply immediately)
+     * and mirror each one in the brute-force model.
+     */
+    private void mutate(ListingFilterIndex index, Map<Long, Row> rows, Random random) {
+        long nextId = rows.keySet().stream().mapToLong(Long::longValue).max().orElse(0) + 1;
+        for (int i = 0; i < 300; i++) {
+            List<Long> ids = new ArrayList<>(rows.keySet());
+            Long id = ids.isEmpty() ? null : ids.get(random.nextInt(ids.size()));
+            switch (random.nextInt(5)) {
+                case 0 -> {
+                    Row row = randomRow(random, nextId++);
+                    rows.put(row.id, row);
+                    index.onListingChanged(new ListingChangedEvent(row.id, null, null, row.toSnapshot()));
+                }
+                case 1 -> {
+                    if (id == null) continue;
+                    Row edited = randomRow(random, id);
+                    edited.createdAt = rows.get(id).createdAt;
+                    ListingStatus previous = rows.put(id, edited).status;
+                    index.onListingChanged(new ListingChangedEvent(id, previous, null, edited.toSnapshot()));
+                }
+                case 2 -> {
+                    if (id == null) continue;
+                    Row row = rows.get(id);
+                    BigDecimal quantity = BigDecimal.valueOf(random.nextInt(1, 50_000), 2);
+                    row.carbonAmount = row.carbonAmount.subtract(quantity).max(BigDecimal.ZERO);
+                    index.onListingChanged(new ListingChangedEvent(id, row.status, row.price, row.toSnapshot()));
+                }
+                case 3 -> {
+                    if (id == null) continue;
+                    Row row = rows.get(id);
+                    ListingStatus previous = row.status;
+                    row.status = STATUSES[random.nextInt(STATUSES.length)];
+                    index.onListingChanged(new ListingChangedEvent(id, previous, row.price, row.toSnapshot()));
+                }
+                default -> {
+                    if (id == null) continue;
+                    Row removed = rows.remove(id);
+                    index.onListingChanged(new ListingChangedEvent(id, removed.status, removed.price, null));
+                }
+            }
+        }
+    }
+
+    private static Map<String, Long> expectedStatusCounts(Map<Long, Row> rows, ListingFilterIndex.Query query) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Row row : rows.values()) {
+            if (inPrice(query, row) && inCarbon(query, row)) {
+                counts.merge(row.status.name(), 1L, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    // The quantity facet ignores the carbon filter, so each bucket shows what widening to it would give
+    private static List<Long> expectedQuantityCounts(Map<Long, Row> rows, ListingFilterIndex.Query query) {
+        long[] counts = new long[QUANTITY_EDGES.length + 1];
+        for (Row row : rows.values()) {
+            if (query.statuses().contains(row.status) && inPrice(query, row)) {
+                int bucket = 0;
+                while (bucket < QUANTITY_EDGES.length && row.carbonAmount.compareTo(QUANTITY_EDGES[bucket]) >= 0) {
+                    bucket++;
+                }
+                counts[bucket]++;
+            }
+        }
+        List<Long> list = new ArrayList<>();
+        for (long count : counts) {
+            list.add(count);
+        }
+        return list;
+    }
+
+    /**
+     * The histogram ignores the price filter; its equal-width bars must start at the lowest
+     * price, be contiguous, and count every listing in the bar containing its price.
+     */
+    private static void checkPriceHistogram(Map<Long, Row> rows, ListingFilterIndex.Query query,
+                                            List<FacetBucket> histogram, String context) {
+        List<Row> base = rows.values().stream()
+                .filter(r -> query.statuses().contains(r.status) && inCarbon(query, r))
+                .toList();
+        if (base.isEmpty()) {
+            assertTrue(histogram.isEmpty(), context);
+            return;
+        }
+        assertEquals(query.priceBuckets(), histogram.size(), context);
+        BigDecimal min = base.stream().map(r -> r.price).min(Comparator.naturalOrder()).orElseThrow();
+        assertEquals(0, min.compareTo(histogram.get(0).from()), context);
+        for (int i = 1; i < histogram.size(); i++) {
+            assertEquals(0, histogram.get(i - 1).to().compareTo(histogram.get(i).from()), context);
+        }
+
+        long[] expected = new long[histogram.size()];
+        for (Row row : base) {
+            int bar = -1;
+            for (int i = 0; i < histogram.size(); i++) {
+                FacetBucket b = histogram.get(i);
+                if (row.price.compareTo(b.from()) >= 0 && row.price.compareTo(b.to()) < 0) {
+                    bar = i;
+                    break;
+                }
+            }
+            assertTrue(bar >= 0, context + ": price " + row.price + " outside every bar");
+            expected[bar]++;
+        }
+        for (int i = 0; i < histogram.size(); i++) {
+            assertEquals(expected[i], histogram.get(i).count(), context + ", bar " + i);
+        }
+    }
+
+    private static List<Long> counts(List<FacetBucket> buckets) {
+        assertNotNull(buckets);
+        assertNull(buckets.get(buckets.size() - 1).to());
+        return buckets.stream().map(FacetBucket::count).toList();
+    }
+
+    private static boolean inPrice(ListingFilterIndex.Query query, Row row) {
+        return between(row.price, query.minPrice(), query.maxPrice());
+    }
+
+    private static boolean inCarbon(ListingFilterIndex.Query query, Row row) {
+        return between(row.carbonAmount, query.minCarbon(), query.maxCarbon());
+    }
+
+    private static boolean between(BigDecimal value, BigDecimal min, BigDecimal max) {
+        return (min == null || value.compareTo(min) >= 0) && (max == null || value.compareTo(max) <= 0);
+    }
+
+    // Ties on the sort column are broken by id, in the same direction as the sort
+    private static Comparator<Row> order(ListingFilterIndex.Sort sort) {
+        Comparator<Row> ascending = switch (sort) {
+            case PRICE_ASC, PRICE_DESC -> Comparator.comparing((Row r) -> r.price);
+            case AMOUNT_ASC, AMOUNT_DESC -> Comparator.comparing((Row r) -> r.carbonAmount);
+            case NEWEST -> Comparator.comparing((Row r) -> r.createdAt);
+        };
+        ascending = ascending.thenComparing(r -> r.id);
+        return switch (sort) {
+            case PRICE_ASC, AMOUNT_ASC -> ascending;
+            case PRICE_DESC, AMOUNT_DESC, NEWEST -> ascending.reversed();
+        };
+    }
+
+    private static ListingFilterIndex.Query randomQuery(Random random) {
+        Set<ListingStatus> statuses = EnumSet.noneOf(ListingStatus.class);
+        for (ListingStatus status : STATUSES) {
+            if (random.nextInt(3) > 0) {
+                statuses.add(status);
+            }
+        }
+        BigDecimal minPrice = random.nextInt(3) == 0 ? randomPrice(random) : null;
+        BigDecimal maxPrice = random.nextInt(3) == 0 ? randomPrice(random) : null;
+        BigDecimal minCarbon = random.nextInt(3) == 0 ? randomAmount(random) : null;
+        BigDecimal maxCarbon = random.nextInt(3) == 0 ? randomAmount(random) : null;
+        ListingFilterIndex.Sort[] sorts = ListingFilterIndex.Sort.values();
+        return new ListingFilterIndex.Query(statuses, minPrice, maxPrice, minCarbon, maxCarbon,
+                sorts[random.nextInt(sorts.length)], random.nextInt(6), 1 + random.nextInt(30),
+                1 + random.nextInt(12));
+    }
+
+    private static Row randomRow(Random random, long id) {
+        Row row = new Row();
+        row.id = id;
+        row.status = STATUSES[random.nextInt(STATUSES.length)];
+        row.price = randomPrice(random);
+        row.carbonAmount = randomAmount(random);
+        // Second resolution over a short span, so creation times collide
+        row.createdAt = EPOCH.plusSeconds(random.nextInt(120));
+        return row;
+    }
+
+    // Few distinct prices, so price ties are common
+    private static BigDecimal randomPrice(Random random) {
+        return BigDecimal.valueOf(random.nextInt(1, 60) * 2_500L, 2);
+    }
+
+    // Spread over every quantity facet, including the exact edges
+    private static BigDecimal randomAmount(Random random) {
+        if (random.nextInt(8) == 0) {
+            return QUANTITY_EDGES[random.nextInt(QUANTITY_EDGES.length)];
+        }
+        return BigDecimal.valueOf(random.nextInt(1, 200_000), 2);
+    }
+
+    private static final class Row {
+        private long id;
+        private ListingStatus status;
+        private BigDecimal price;
+        private BigDecimal carbonAmount;
+        private LocalDateTime createdAt;
+
+        private Map<String, Object> toColumns() {
+            Map<String, Object> columns = new HashMap<>();
+            columns.put("id", id);
+            columns.put("status", status);
+            columns.put("price", price);
+            columns.put("carbonAmount", carbonAmount);
+            columns.put("createdAt", createdAt);
+            return columns;
+        }
+
+        private ListingSnapshot toSnapshot() {
+            return new ListingSnapshot(id, null, status, price, carbonAmount, null, null, createdAt);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.dto.ListingChangedEvent;
+import com.example.demo.dto.ListingSnapshot;
+import com.example.demo.entity.Listing.ListingStatus;
+import com.example.demo.repository.ListingRepository;
+
+/**
+ * Reservations against {@link OrderBookService} inside a simulated transaction: a rollback
+ * gives the quantity back to the ask it was taken from, and leaves alone an ask that a
+ * listing event rebuilt in the meantime.
+ */
+class OrderBookServiceTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final OrderBookService book = new OrderBookService(mock(ListingRepository.class));
+
+    @BeforeEach
+    void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void endTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rollbackReturnsTheReservedQuantity() {
+        open(1L, "100");
+
+        List<OrderBookService.Fill> fills = book.reserve(20L, new BigDecimal("30"), null);
+        assertEquals(1, fills.size());
+        assertDepth("70");
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertDepth("100");
+    }
+
+    @Test
+    void rollbackLeavesARebuiltAskAlone() {
+        open(1L, "100");
+        book.reserve(20L, new BigDecimal("30"), null);
+
+        // Another transaction committed a new quantity for the listing before this one ended
+        open(1L, "80");
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertDepth("80");
+    }
+
+    @Test
+    void commitDropsADepletedAsk() {
+        open(1L, "30");
+        book.reserve(20L, new BigDecimal("30"), null);
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(0, book.getDepth(10).size());
+        open(1L, "5");
+        assertDepth("5");
+    }
+
+    private void open(Long id, String amount) {
+        book.onListingChanged(new ListingChangedEvent(id, null, null, new ListingSnapshot(
+                id, 10L, ListingStatus.OPEN, new BigDecimal("5"), new BigDecimal(amount), null, null, CREATED_AT)));
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(status));
+    }
+
+    private void assertDepth(String expected) {
+        List<OrderBookService.Level> depth = book.getDepth(10);
+        assertEquals(1, depth.size(), depth.toString());
+        assertEquals(0, new BigDecimal(expected).compareTo(depth.get(0).quantity()),
+                "expected " + expected + " but was " + depth.get(0).quantity());
+    }
+}
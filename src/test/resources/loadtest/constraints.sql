@@ -0,0 +1,5 @@
+-- Unique keys that exist only in the Flyway migrations (V34, V40). The rollup and candle
+-- writers upsert with ON DUPLICATE KEY UPDATE and would insert duplicate rows without them.
+ALTER TABLE activity_rollups ADD CONSTRAINT uk_activity_rollups_bucket UNIQUE (granularity, bucket_start);
+ALTER TABLE party_rollups ADD CONSTRAINT uk_party_rollups_bucket UNIQUE (role, granularity, bucket_start, user_id);
+ALTER TABLE market_candles ADD CONSTRAINT uk_market_candles_bucket UNIQUE (candle_interval, bucket_start);